@@ -0,0 +1,94 @@
+package com.lyra.rest.client;
+
+import com.lyra.rest.client.model.ApiResponse;
+import com.lyra.rest.client.model.CreatePaymentRequest;
+import com.lyra.rest.client.model.FormTokenAnswer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end calls against a local in-process HTTP server, with the default transport and with the pooled one, the
+ * latter also with {@link ClientMetrics} in order to measure the cost of a listener. Use -t to measure them from
+ * several threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PostBenchmark {
+    private static final String RESPONSE = "{\"webService\":\"Charge/CreatePayment\",\"version\":\"V4\",\"status\":\"SUCCESS\","
+            + "\"answer\":{\"formToken\":\"03a4TCvxXDSvCb1CnsQpGAfHb3KK0ItxWPZ5hWaQ8xM6JiIGcQzo2M9SpiSb0J5Q3zYgJO1i\"},"
+            + "\"ticket\":null,\"serverDate\":\"2019-11-04T10:01:53+00:00\"}";
+
+    private HttpStubServer server;
+    private RestApiClient defaultClient;
+    private RestApiClient pooledClient;
+    private RestApiClient measuredClient;
+    private Map<String, Object> parameters;
+    private CreatePaymentRequest request;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new HttpStubServer().respond(200, RESPONSE).recording(false);
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .username("user")
+                .password("password")
+                .restApiServerName(server.getServerName())
+                .build();
+        defaultClient = RestApiClient.builder().configuration(configuration).build();
+        pooledClient = RestApiClient.builder()
+                .configuration(configuration)
+                .transport(PooledClientTransport.builder().build())
+                .build();
+        measuredClient = RestApiClient.builder()
+                .configuration(configuration)
+                .transport(PooledClientTransport.builder().build())
+                .listener(new ClientMetrics())
+                .build();
+        parameters = JsonRequestBodyTest.paymentParameters(10);
+        request = CreatePaymentRequest.builder().amount(990L).currency("EUR").orderId("myOrderId-253795").build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        defaultClient.close();
+        pooledClient.close();
+        measuredClient.close();
+        server.close();
+    }
+
+    @Benchmark
+    public String postDefaultTransport() {
+        return defaultClient.post(ClientResource.CREATE_PAYMENT.toString(), parameters);
+    }
+
+    @Benchmark
+    public String postPooledTransport() {
+        return pooledClient.post(ClientResource.CREATE_PAYMENT.toString(), parameters);
+    }
+
+    @Benchmark
+    public String postPooledTransportWithMetrics() {
+        return measuredClient.post(ClientResource.CREATE_PAYMENT.toString(), parameters);
+    }
+
+    @Benchmark
+    public ApiResponse<FormTokenAnswer> postTypedPooledTransport() {
+        return pooledClient.post(ClientResource.CREATE_PAYMENT, request);
+    }
+}
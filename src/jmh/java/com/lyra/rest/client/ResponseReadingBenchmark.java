@@ -0,0 +1,82 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonObject;
+import com.lyra.rest.client.model.ApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of the responses of the payment platform, as bytes, as a String, as a JSON tree and as a typed response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseReadingBenchmark {
+
+    //Number of items of the shopping cart echoed in the answer
+    @Param({"0", "200"})
+    public int cartItems;
+
+    private byte[] content;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> answer = new LinkedHashMap<>();
+        answer.put("formToken", "03a4TCvxXDSvCb1CnsQpGAfHb3KK0ItxWPZ5hWaQ8xM6JiIGcQzo2M9SpiSb0J5Q3zYgJO1i");
+        answer.put("payment", JsonRequestBodyTest.paymentParameters(cartItems));
+        answer.put("_type", "V4/Charge/ProcessPaymentAnswer");
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("webService", "Charge/CreatePayment");
+        response.put("version", "V4");
+        response.put("applicationVersion", "5.3.0");
+        response.put("status", "SUCCESS");
+        response.put("answer", answer);
+        response.put("ticket", "8d7a8b28d9c24b1e8b4f4a8b2d2b8f5a");
+        response.put("serverDate", "2019-11-04T10:01:53+00:00");
+        response.put("metadata", new LinkedHashMap<>());
+        content = Client.GSON.toJson(response).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] readBytes() throws IOException {
+        return Client.readResponseBytes(response());
+    }
+
+    @Benchmark
+    public String readString() throws IOException {
+        return new String(Client.readResponseBytes(response()), StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonObject readJsonTree() throws IOException {
+        return Client.readResponseObject(response(), JsonObject.class);
+    }
+
+    @Benchmark
+    public ApiResponse<?> readTypedResponse() throws IOException {
+        return Client.readResponseObject(response(), ClientResource.CREATE_PAYMENT.getResponseType());
+    }
+
+    private ClientResponse response() {
+        return new ClientResponse(200, new ByteArrayInputStream(content));
+    }
+}
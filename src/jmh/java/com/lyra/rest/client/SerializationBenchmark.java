@@ -0,0 +1,98 @@
+package com.lyra.rest.client;
+
+import com.lyra.rest.client.model.CreatePaymentRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the payment parameters, for small, medium and large payment maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    //Number of items of the shopping cart
+    @Param({"0", "10", "200"})
+    public int cartItems;
+
+    private Map<String, Object> parameters;
+    private CreatePaymentRequest request;
+    private final CountingOutputStream out = new CountingOutputStream();
+
+    @Setup
+    public void setUp() {
+        parameters = JsonRequestBodyTest.paymentParameters(cartItems);
+
+        Map<String, Object> additionalParameters = new LinkedHashMap<>(parameters);
+        additionalParameters.remove("amount");
+        additionalParameters.remove("currency");
+        additionalParameters.remove("orderId");
+        request = CreatePaymentRequest.builder()
+                .amount(990L)
+                .currency("EUR")
+                .orderId("myOrderId-<253795>")
+                .metadata(Collections.singletonMap("key", "value"))
+                .additionalParameters(additionalParameters)
+                .build();
+    }
+
+    @Benchmark
+    public long streamMap() throws IOException {
+        out.count = 0;
+        new JsonRequestBody(Client.GSON, parameters).writeTo(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long streamTypedRequest() throws IOException {
+        out.count = 0;
+        new JsonRequestBody(Client.GSON, request).writeTo(out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long contentLength() {
+        return new JsonRequestBody(Client.GSON, parameters).getContentLength();
+    }
+
+    //Former serialization, to a String first
+    @Benchmark
+    public byte[] toJsonString() {
+        return Client.GSON.toJson(parameters).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
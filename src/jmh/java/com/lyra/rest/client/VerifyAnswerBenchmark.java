@@ -0,0 +1,73 @@
+package com.lyra.rest.client;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verification of the payment answers, as performed when receiving IPN calls. Use -t to measure it from several
+ * threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VerifyAnswerBenchmark {
+    private static final int BATCH_SIZE = 10000;
+
+    private Map<String, Object> paymentAnswer;
+    private List<Map<String, Object>> paymentAnswers;
+    private ResolvedConfiguration configuration;
+
+    @Setup
+    public void setUp() {
+        paymentAnswer = new HashMap<>();
+        paymentAnswer.put("kr-answer", ClientCryptUtilTest.REAL_ANSWER);
+        paymentAnswer.put("kr-hash", ClientCryptUtilTest.REAL_SIGNATURE);
+        paymentAnswer.put("kr-hash-algorithm", ClientCryptUtil.ALGORITHM_HMAC_SHA256);
+        configuration = Client.resolveConfiguration(ClientConfiguration.builder()
+                .hashKey(ClientCryptUtilTest.HASH_KEY)
+                .build());
+        paymentAnswers = Collections.nCopies(BATCH_SIZE, paymentAnswer);
+    }
+
+    @Benchmark
+    public boolean verifyAnswer() {
+        return Client.verifyAnswer(paymentAnswer, configuration);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public BitSet verifyAnswers() {
+        return ClientAnswerBatch.verify(paymentAnswers, configuration);
+    }
+
+    @Benchmark
+    public String verifierHash() {
+        return configuration.getAnswerVerifier().calculateHash(ClientCryptUtilTest.REAL_ANSWER);
+    }
+
+    //Looks up and initializes a new Mac on each call
+    @Benchmark
+    public String calculateHash() {
+        return ClientCryptUtil.calculateHash(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.HASH_KEY,
+                ClientCryptUtil.ALGORITHM_HMAC_SHA256);
+    }
+}
@@ -1,23 +1,33 @@
 package com.lyra.rest.client;
 
 import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.lyra.rest.client.model.ApiRequest;
+import com.lyra.rest.client.model.ApiResponse;
+import com.lyra.rest.client.model.ModelTypeAdapterFactory;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
-import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.util.Base64;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>
@@ -36,33 +46,29 @@ import java.util.stream.Collectors;
 public class Client {
 
     protected static final String REST_API_VERSION = "V4";
-    protected static final Gson GSON = new Gson();
+    protected static final Gson GSON = new GsonBuilder().registerTypeAdapterFactory(new ModelTypeAdapterFactory()).create();
     private static final String DEFAULT_CONFIGURATION_FILE_NAME = "api-client-configuration-default";
     private static final String APP_CONFIGURATION_FILE_NAME = "api-client-configuration";
 
     private static final int HTTP_RESPONSE_OK = 200;
+    private static final int HTTP_RESPONSE_BAD_REQUEST = 400;
+    private static final int HTTP_RESPONSE_SERVER_ERROR = 500;
+    private static final int RESPONSE_BUFFER_SIZE = 4096;
 
-    private static String defaultUsername;
-    private static String defaultPassword;
-    private static String defaultRestApiServerName;
-    private static String defaultProxyHost;
-    private static String defaultProxyPort;
-    private static String defaultConnectionTimeout;
-    private static String defaultRequestTimeout;
-    private static String defaultHashKey;
+    private static final ClientConfiguration DEFAULT_CONFIGURATION = ClientConfiguration.builder().build();
+
+    //Default transport, opening a new HttpURLConnection per call
+    static final ClientTransport DEFAULT_TRANSPORT = Client::execute;
+
+    //Source of the parameters overriding the default configuration file
+    private static volatile ClientConfigurationSource configurationSource = Client::readAppConfiguration;
+    //Default configuration, replaced atomically when it is reloaded
+    private static volatile ConfigurationSnapshot defaultConfiguration;
+    private static final ReentrantLock RELOAD_LOCK = new ReentrantLock();
 
     //Static initialization of default properties
     static {
-        Properties defaultConfiguration = readDefaultConfiguration();
-
-        defaultUsername = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_USERNAME);
-        defaultPassword = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_PASSWORD);
-        defaultRestApiServerName = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME);
-        defaultProxyHost = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_PROXY_HOST);
-        defaultProxyPort = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_PROXY_PORT);
-        defaultConnectionTimeout = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_CONNECTION_TIMEOUT);
-        defaultRequestTimeout = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_REQUEST_TIMEOUT);
-        defaultHashKey = defaultConfiguration.getProperty(ClientConfiguration.CONFIGURATION_KEY_HASH_KEY);
+        defaultConfiguration = new ConfigurationSnapshot(readDefaultConfiguration());
     }
 
     //Private constructor as all methods are static
@@ -78,7 +84,7 @@ public class Client {
      * @throws ClientException exception if error processing the request
      */
     public static String post(String targetResource, Map<String, Object> parameters) {
-        return post(targetResource, parameters, ClientConfiguration.builder().build());
+        return post(targetResource, parameters, null);
     }
 
     /**
@@ -91,29 +97,406 @@ public class Client {
      * @throws ClientException exception if error processing the request
      */
     public static String post(String targetResource, Map<String, Object> parameters, ClientConfiguration requestConfiguration) {
-        String responseMessage = null;
-        Map<String, String> configuration = getFinalConfiguration(requestConfiguration);
+        return post(DEFAULT_TRANSPORT, targetResource, parameters, resolveConfiguration(requestConfiguration));
+    }
 
-        try {
-            //Call Payment Platform
-            HttpURLConnection connection = createConnection(targetResource, configuration);
-            sendRequestPayload(connection, GSON.toJson(parameters));
+    /**
+     * Calls the payment platform using the REST API. If the resource is coalesced, see the coalescedResources
+     * parameter, the calls with the same idempotency key share a single call to the platform.
+     *
+     * @param targetResource       the resource to target. You can use {@link ClientResource} enum to help defining this parameter
+     * @param parameters           Map that contains the parameters of the payment
+     * @param idempotencyKey       key identifying the identical calls, for example the identifier of the order. If
+     *                             null, the calls with the same parameters are identical
+     * @param requestConfiguration Configuration object that overrides the default configuration for this request
+     * @return {@link String} that contains the full response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public static String post(String targetResource, Map<String, Object> parameters, String idempotencyKey,
+                              ClientConfiguration requestConfiguration) {
+        return post(DEFAULT_TRANSPORT, targetResource, parameters, idempotencyKey, resolveConfiguration(requestConfiguration),
+                Client::readResponseContent);
+    }
+
+    /**
+     * Calls the payment platform using the REST API without blocking the calling thread. The call is performed
+     * by the provided executor.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @param executor       executor that performs the call
+     * @return {@link CompletableFuture} completed with the full response from API, or with a {@link ClientException}
+     */
+    public static CompletableFuture<String> postAsync(String targetResource, Map<String, Object> parameters, Executor executor) {
+        return postAsync(targetResource, parameters, null, executor);
+    }
+
+    /**
+     * Calls the payment platform using the REST API without blocking the calling thread. The call is performed
+     * by the provided executor.
+     *
+     * @param targetResource       the resource to target. You can use {@link ClientResource} enum to help defining this parameter
+     * @param parameters           Map that contains the parameters of the payment
+     * @param requestConfiguration Configuration object that overrides the default configuration for this request
+     * @param executor             executor that performs the call
+     * @return {@link CompletableFuture} completed with the full response from API, or with a {@link ClientException}
+     */
+    public static CompletableFuture<String> postAsync(String targetResource, Map<String, Object> parameters,
+                                                      ClientConfiguration requestConfiguration, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> post(targetResource, parameters, requestConfiguration), executor);
+    }
+
+    /**
+     * Calls the payment platform using the REST API and parses the JSON response directly from the connection
+     * into the provided type.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @param responseType   the type of the response, for example {@link com.google.gson.JsonObject}
+     * @param <T>            the type of the response
+     * @return the response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public static <T> T postForObject(String targetResource, Map<String, Object> parameters, Class<T> responseType) {
+        return postForObject(targetResource, parameters, responseType, null);
+    }
 
-            int responseCode = connection.getResponseCode();
+    /**
+     * Calls the payment platform using the REST API and parses the JSON response directly from the connection
+     * into the provided type.
+     *
+     * @param targetResource       the resource to target. You can use {@link ClientResource} enum to help defining this parameter
+     * @param parameters           Map that contains the parameters of the payment
+     * @param responseType         the type of the response, for example {@link com.google.gson.JsonObject}
+     * @param requestConfiguration Configuration object that overrides the default configuration for this request
+     * @param <T>                  the type of the response
+     * @return the response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public static <T> T postForObject(String targetResource, Map<String, Object> parameters, Class<T> responseType,
+                                      ClientConfiguration requestConfiguration) {
+        return post(DEFAULT_TRANSPORT, targetResource, parameters, resolveConfiguration(requestConfiguration),
+                response -> readResponseObject(response, responseType));
+    }
+
+    /**
+     * Calls the payment platform using the REST API and returns the raw response.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @return the UTF-8 encoded response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public static byte[] postForBytes(String targetResource, Map<String, Object> parameters) {
+        return postForBytes(targetResource, parameters, null);
+    }
+
+    /**
+     * Calls the payment platform using the REST API and returns the raw response.
+     *
+     * @param targetResource       the resource to target. You can use {@link ClientResource} enum to help defining this parameter
+     * @param parameters           Map that contains the parameters of the payment
+     * @param requestConfiguration Configuration object that overrides the default configuration for this request
+     * @return the UTF-8 encoded response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public static byte[] postForBytes(String targetResource, Map<String, Object> parameters, ClientConfiguration requestConfiguration) {
+        return post(DEFAULT_TRANSPORT, targetResource, parameters, resolveConfiguration(requestConfiguration),
+                Client::readResponseBytes);
+    }
+
+    /**
+     * Calls the payment platform using the REST API and hands the response stream to the provided handler.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @param handler        handler that reads the response stream
+     * @param <T>            the type of the result
+     * @return the result of the handler
+     * @throws ClientException exception if error processing the request
+     */
+    public static <T> T postForStream(String targetResource, Map<String, Object> parameters, ClientResponseHandler<T> handler) {
+        return postForStream(targetResource, parameters, handler, null);
+    }
+
+    /**
+     * Calls the payment platform using the REST API and hands the response stream to the provided handler.
+     *
+     * @param targetResource       the resource to target. You can use {@link ClientResource} enum to help defining this parameter
+     * @param parameters           Map that contains the parameters of the payment
+     * @param handler              handler that reads the response stream
+     * @param requestConfiguration Configuration object that overrides the default configuration for this request
+     * @param <T>                  the type of the result
+     * @return the result of the handler
+     * @throws ClientException exception if error processing the request
+     */
+    public static <T> T postForStream(String targetResource, Map<String, Object> parameters, ClientResponseHandler<T> handler,
+                                      ClientConfiguration requestConfiguration) {
+        return post(DEFAULT_TRANSPORT, targetResource, parameters, resolveConfiguration(requestConfiguration),
+                response -> readResponseStream(response, handler));
+    }
+
+    /**
+     * Calls the payment platform using the REST API with a typed request. The JSON response is parsed directly
+     * from the connection into the typed response of the resource.
+     *
+     * @param targetResource the resource to target
+     * @param request        the typed request, whose type must be the one of the resource
+     * @param <A>            the type of the answer
+     * @return the response from API. Its answer is set on success, otherwise its error
+     * @throws ClientException exception if error processing the request
+     */
+    public static <A> ApiResponse<A> post(ClientResource targetResource, ApiRequest<A> request) {
+        return post(targetResource, request, null);
+    }
+
+    /**
+     * Calls the payment platform using the REST API with a typed request. The JSON response is parsed directly
+     * from the connection into the typed response of the resource.
+     *
+     * @param targetResource       the resource to target
+     * @param request              the typed request, whose type must be the one of the resource
+     * @param requestConfiguration Configuration object that overrides the default configuration for this request
+     * @param <A>                  the type of the answer
+     * @return the response from API. Its answer is set on success, otherwise its error
+     * @throws ClientException exception if error processing the request
+     */
+    public static <A> ApiResponse<A> post(ClientResource targetResource, ApiRequest<A> request,
+                                          ClientConfiguration requestConfiguration) {
+        return post(DEFAULT_TRANSPORT, targetResource, request, resolveConfiguration(requestConfiguration));
+    }
+
+    /*
+    Calls the payment platform using the provided transport
+     */
+    static String post(ClientTransport transport, String targetResource, Map<String, Object> parameters, ResolvedConfiguration configuration) {
+        return post(transport, targetResource, parameters, configuration, Client::readResponseContent);
+    }
+
+    /*
+    Calls the payment platform using the provided transport with a typed request
+     */
+    static <A> ApiResponse<A> post(ClientTransport transport, ClientResource targetResource, ApiRequest<A> request,
+                                   ResolvedConfiguration configuration) {
+        if (!targetResource.getRequestType().isInstance(request)) {
+            throw new ClientException("Request of type " + (request != null ? request.getClass().getSimpleName() : null)
+                    + " cannot be sent to resource " + targetResource);
+        }
+        return post(transport, targetResource.toString(), request, configuration,
+                response -> readResponseObject(response, targetResource.getResponseType()));
+    }
+
+    /*
+    Calls the payment platform using the provided transport. The content, a Map of parameters or a typed request,
+    is serialized to JSON. The response is read by the provided reader
+     */
+    static <T> T post(ClientTransport transport, String targetResource, Object content,
+                      ResolvedConfiguration configuration, ResponseReader<T> reader) {
+        return post(transport, targetResource, content, null, configuration, reader);
+    }
+
+    /*
+    Calls the payment platform using the provided transport. Identical calls to a coalesced resource share a single
+    call, whose response body is read by the reader of each caller
+     */
+    static <T> T post(ClientTransport transport, String targetResource, Object content, String idempotencyKey,
+                      ResolvedConfiguration configuration, ResponseReader<T> reader) {
+        ClientCoalescer coalescer = configuration.getCoalescer();
+        if (coalescer == null || !coalescer.isCoalesced(ClientResource.forValue(targetResource))) {
+            return send(transport, targetResource, content, configuration, reader);
+        }
+
+        byte[] body = coalescer.call(ClientCoalescer.key(targetResource, configuration.getHeaders().get("Authorization"),
+                idempotencyKey, content),
+                () -> send(transport, targetResource, content, configuration, Client::readResponseBytes));
+        try (ClientResponse response = new ClientResponse(HTTP_RESPONSE_OK, new ByteArrayInputStream(body))) {
+            return reader.read(response);
+        } catch (IOException ioe) {
+            throw new ClientException("Exception calling payment platform server", ioe);
+        }
+    }
+
+    /*
+    Sends a call to the payment platform. Failed calls are retried according to the retry policy of the
+    configuration, and slow calls are hedged according to its hedge policy
+     */
+    private static <T> T send(ClientTransport transport, String targetResource, Object content,
+                              ResolvedConfiguration configuration, ResponseReader<T> reader) {
+        ClientRetryPolicy retryPolicy = configuration.getRetryPolicy();
+        ClientHedgePolicy hedgePolicy = configuration.getHedgePolicy();
+        if (retryPolicy == null && hedgePolicy == null) {
+            return call(transport, createRequest(targetResource, createBody(content, configuration), configuration),
+                    configuration, reader);
+        }
+
+        ClientResource resource = ClientResource.forValue(targetResource);
+        if (hedgePolicy != null && !hedgePolicy.isHedged(resource)) {
+            hedgePolicy = null;
+        }
+        if (retryPolicy == null) {
+            return call(transport, targetResource, createBody(content, configuration), content, configuration, reader,
+                    resource, hedgePolicy);
+        }
+
+        retryPolicy.onCall();
+        boolean idempotent = resource != null && resource.isIdempotent();
+        for (int attempt = 1; ; attempt++) {
+            //The body handed to the transport is tracked, as a compressed body serializes its content to compute its length
+            TrackedRequestBody body = new TrackedRequestBody(createBody(content, configuration));
+            try {
+                return call(transport, targetResource, body, content, configuration, reader, resource, hedgePolicy);
+            } catch (ClientException ce) {
+                if (!retryPolicy.awaitRetry(attempt, idempotent, body.isWritten(), ce)) {
+                    throw ce;
+                }
+            }
+        }
+    }
+
+    /*
+    Performs a call to the payment platform, hedged if a hedge policy is provided
+     */
+    private static <T> T call(ClientTransport transport, String targetResource, ClientRequestBody body, Object content,
+                              ResolvedConfiguration configuration, ResponseReader<T> reader, ClientResource resource,
+                              ClientHedgePolicy hedgePolicy) {
+        ClientRequest request = createRequest(targetResource, body, configuration);
+        if (hedgePolicy == null) {
+            return call(transport, request, configuration, reader);
+        }
+        return hedgePolicy.call(resource, request,
+                () -> createRequest(targetResource, createBody(content, configuration), configuration),
+                hedgeRequest -> call(transport, hedgeRequest, configuration, reader));
+    }
+
+    /*
+    Performs a single call to the payment platform, routed between its endpoints if several are configured
+     */
+    private static <T> T call(ClientTransport transport, ClientRequest request, ResolvedConfiguration configuration,
+                              ResponseReader<T> reader) {
+        ClientRouter router = configuration.getRouter();
+        if (router == null) {
+            return callServer(transport, request, configuration.getRestApiServerNames().get(0), configuration, reader);
+        }
+        return router.call(request, (server, routedRequest) -> callServer(transport, routedRequest, server, configuration,
+                reader));
+    }
+
+    /*
+    Performs a single call to a payment platform server using the provided transport
+     */
+    private static <T> T callServer(ClientTransport transport, ClientRequest request, String server,
+                                    ResolvedConfiguration configuration, ResponseReader<T> reader) {
+        //Fail fast if the server is unhealthy
+        ClientCircuitBreaker circuitBreaker = configuration.getCircuitBreaker(server);
+        ClientConcurrencyLimiter concurrencyLimiter = configuration.getConcurrencyLimiter(server);
+        long breakerGeneration = acquireHealthPermits(circuitBreaker, concurrencyLimiter);
+
+        //Limit concurrent calls if necessary
+        ClientBulkhead bulkhead = configuration.getBulkhead(server);
+        if (bulkhead != null) {
+            try {
+                bulkhead.acquire(request.getConnectionTimeout());
+            } catch (ClientException ce) {
+                cancelHealthPermits(circuitBreaker, breakerGeneration, concurrencyLimiter);
+                throw ce;
+            }
+        }
+
+        //Call Payment Platform. Only communication errors, timeouts and 5xx responses count against the server
+        long start = System.nanoTime();
+        boolean failed = true;
+        try (ClientResponse response = decode(transport.execute(request))) {
+            int responseCode = response.getStatusCode();
+            //The server has answered: errors mapping the response are not its failures
+            failed = responseCode >= HTTP_RESPONSE_SERVER_ERROR;
 
             //There will always be a 200-OK response, even if there is an error.
             if (responseCode == HTTP_RESPONSE_OK) {
-                responseMessage = readResponseContent(connection);
+                return reader.read(response);
             } else {
                 //Generic server error case (404, 500, etc).
                 throw new ClientException("HTTP call to Payment Platform was not successful.", responseCode,
-                        readResponseContent(connection));
+                        readResponseContent(response));
             }
         } catch (IOException ioe) {
+            failed = true;
             throw new ClientException("Exception calling payment platform server", ioe);
+        } finally {
+            if (bulkhead != null) {
+                bulkhead.release();
+            }
+            //Cancelled calls tell nothing about the health of the server
+            long duration = System.nanoTime() - start;
+            if (request.isCancelled()) {
+                cancelHealthPermits(circuitBreaker, breakerGeneration, concurrencyLimiter);
+            } else {
+                if (circuitBreaker != null) {
+                    circuitBreaker.onResult(breakerGeneration, failed, duration);
+                }
+                if (concurrencyLimiter != null) {
+                    concurrencyLimiter.onResult(failed, duration);
+                }
+            }
         }
+    }
+
+    /*
+    Checks that the server can be called according to its circuit breaker and adaptive concurrency limit, and returns
+    the generation of the circuit breaker the call is permitted in
+     */
+    private static long acquireHealthPermits(ClientCircuitBreaker circuitBreaker, ClientConcurrencyLimiter concurrencyLimiter) {
+        long breakerGeneration = circuitBreaker != null ? circuitBreaker.acquire() : 0;
+        if (concurrencyLimiter != null) {
+            try {
+                concurrencyLimiter.acquire();
+            } catch (ClientException ce) {
+                if (circuitBreaker != null) {
+                    circuitBreaker.cancel(breakerGeneration);
+                }
+                throw ce;
+            }
+        }
+        return breakerGeneration;
+    }
+
+    /*
+    Releases the permits of a call that has not been performed
+     */
+    private static void cancelHealthPermits(ClientCircuitBreaker circuitBreaker, long breakerGeneration,
+                                            ClientConcurrencyLimiter concurrencyLimiter) {
+        if (circuitBreaker != null) {
+            circuitBreaker.cancel(breakerGeneration);
+        }
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.cancel();
+        }
+    }
 
-        return responseMessage;
+    /**
+     * Initializes the SDK for the default configuration, so that the first call is not slower than the next ones.
+     * The server name is resolved and a TLS session opened. No call is performed on the payment platform.
+     *
+     * @return {@link ClientWarmUp} telling whether the SDK is ready. Failures are reported rather than thrown
+     */
+    public static ClientWarmUp warmUp() {
+        return warmUp(null);
+    }
+
+    /**
+     * Initializes the SDK for the provided configuration, so that the first call is not slower than the next ones.
+     * The server name is resolved and a TLS session opened. No call is performed on the payment platform.
+     *
+     * @param requestConfiguration Configuration object that overrides the default configuration
+     * @return {@link ClientWarmUp} telling whether the SDK is ready. Failures are reported rather than thrown
+     */
+    public static ClientWarmUp warmUp(ClientConfiguration requestConfiguration) {
+        ResolvedConfiguration configuration;
+        try {
+            configuration = resolveConfiguration(requestConfiguration);
+        } catch (ClientException ce) {
+            return ClientWarmUp.builder().exception(ce).build();
+        }
+        return ClientWarmUp.run(DEFAULT_TRANSPORT, configuration, 0);
     }
 
     /**
@@ -124,7 +507,7 @@ public class Client {
      * @return true if the integrity of the answer is valid
      */
     public static boolean verifyAnswer(Map<String, Object> paymentAnswer) {
-        return verifyAnswer(paymentAnswer, ClientConfiguration.builder().build());
+        return verifyAnswer(paymentAnswer, (ClientConfiguration) null);
     }
 
     /**
@@ -136,39 +519,251 @@ public class Client {
      * @return true if the integrity of the answer is valid
      */
     public static boolean verifyAnswer(Map<String, Object> paymentAnswer, ClientConfiguration requestConfiguration) {
+        return verifyAnswer(paymentAnswer, resolveConfiguration(requestConfiguration));
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call, without decoding the body first.
+     *
+     * @param body the raw form body
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     */
+    public static ClientFormAnswer verifyFormAnswer(byte[] body) {
+        return verifyFormAnswer(body, (ClientConfiguration) null);
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call, without decoding the body first.
+     *
+     * @param body                 the raw form body
+     * @param requestConfiguration configuration object that overrides the default configuration for this request
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     */
+    public static ClientFormAnswer verifyFormAnswer(byte[] body, ClientConfiguration requestConfiguration) {
+        return verifyFormAnswer(ByteBuffer.wrap(body), resolveConfiguration(requestConfiguration));
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call, without decoding the body first. The position of the buffer is not changed.
+     *
+     * @param body the raw form body, between the position and the limit of the buffer
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     */
+    public static ClientFormAnswer verifyFormAnswer(ByteBuffer body) {
+        return verifyFormAnswer(body, (ClientConfiguration) null);
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call, without decoding the body first. The position of the buffer is not changed.
+     *
+     * @param body                 the raw form body, between the position and the limit of the buffer
+     * @param requestConfiguration configuration object that overrides the default configuration for this request
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     */
+    public static ClientFormAnswer verifyFormAnswer(ByteBuffer body, ClientConfiguration requestConfiguration) {
+        return verifyFormAnswer(body, resolveConfiguration(requestConfiguration));
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call. The stream is read until its end, but not closed.
+     *
+     * @param body the raw form body
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     * @throws ClientException if the body cannot be read
+     */
+    public static ClientFormAnswer verifyFormAnswer(InputStream body) {
+        return verifyFormAnswer(body, (ClientConfiguration) null);
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call. The stream is read until its end, but not closed.
+     *
+     * @param body                 the raw form body
+     * @param requestConfiguration configuration object that overrides the default configuration for this request
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     * @throws ClientException if the body cannot be read
+     */
+    public static ClientFormAnswer verifyFormAnswer(InputStream body, ClientConfiguration requestConfiguration) {
+        return verifyFormAnswer(body, resolveConfiguration(requestConfiguration));
+    }
+
+    /**
+     * Checks the integrity of a batch of answers, for example the notifications received while the application
+     * was unavailable. Answers are verified in parallel, using all the cores. Answers that cannot be verified,
+     * for example because their algorithm is not supported, are reported as not valid.
+     *
+     * @param paymentAnswers list of maps that contain the answer data
+     * @return {@link BitSet} whose bit i is set if the integrity of the answer i is valid
+     */
+    public static BitSet verifyAnswers(List<Map<String, Object>> paymentAnswers) {
+        return verifyAnswers(paymentAnswers, null);
+    }
+
+    /**
+     * Checks the integrity of a batch of answers, for example the notifications received while the application
+     * was unavailable. Answers are verified in parallel, using all the cores. Answers that cannot be verified,
+     * for example because their algorithm is not supported, are reported as not valid.
+     *
+     * @param paymentAnswers       list of maps that contain the answer data
+     * @param requestConfiguration configuration object that overrides the default configuration for this request
+     * @return {@link BitSet} whose bit i is set if the integrity of the answer i is valid
+     */
+    public static BitSet verifyAnswers(List<Map<String, Object>> paymentAnswers, ClientConfiguration requestConfiguration) {
+        return ClientAnswerBatch.verify(paymentAnswers, resolveConfiguration(requestConfiguration));
+    }
+
+    /*
+    Checks the integrity of the answer using the resolved configuration
+     */
+    static boolean verifyAnswer(Map<String, Object> paymentAnswer, ResolvedConfiguration configuration) {
         String answer = (String)paymentAnswer.get("kr-answer");
         String hashAlgorithm = (String) paymentAnswer.get("kr-hash-algorithm");
 
-        if (!ClientCryptUtil.isAlgorithmSupported(hashAlgorithm)) {
+        ClientHashAlgorithm algorithm = ClientHashAlgorithm.forValue(hashAlgorithm);
+        if (algorithm == null) {
             throw new ClientException("Signature algorithm not supported. Make sure you are using the last version of this SDK");
         }
 
-        //Get configuration in order to retrieve the key to use
-        Map<String, String> configuration = getFinalConfiguration(requestConfiguration);
-
         //Check hash
         String answerHash = (String) paymentAnswer.get("kr-hash");
-        return answerHash.equals(ClientCryptUtil.calculateHash(answer, configuration.get(ClientConfiguration.CONFIGURATION_KEY_HASH_KEY), hashAlgorithm));
+        return configuration.getAnswerVerifier().verify(answer, algorithm, answerHash);
+    }
+
+    /*
+    Checks the integrity of a form encoded answer using the resolved configuration
+     */
+    static ClientFormAnswer verifyFormAnswer(ByteBuffer body, ResolvedConfiguration configuration) {
+        return ClientFormAnswer.verify(body, configuration.getAnswerVerifier());
+    }
+
+    /*
+    Checks the integrity of a form encoded answer read from a stream using the resolved configuration
+     */
+    static ClientFormAnswer verifyFormAnswer(InputStream body, ResolvedConfiguration configuration) {
+        try {
+            return verifyFormAnswer(ByteBuffer.wrap(readBytes(body)), configuration);
+        } catch (IOException ioe) {
+            throw new ClientException("Could not read answer", ioe);
+        }
+    }
+
+    /*
+    Returns the resolved configuration to use. Resolved configurations are memoized by the current default
+    configuration, so that identical configurations are only resolved once until the defaults are reloaded
+     */
+    static ResolvedConfiguration resolveConfiguration(ClientConfiguration requestConfiguration) {
+        if (requestConfiguration == null) {
+            requestConfiguration = DEFAULT_CONFIGURATION;
+        }
+
+        ConfigurationSnapshot snapshot = defaultConfiguration;
+        return snapshot.resolve(requestConfiguration,
+                key -> new ResolvedConfiguration(getFinalConfiguration(key, snapshot), snapshot));
+    }
+
+    /*
+    Resolves the configuration without memoizing it, for clients that keep their own resolved configuration
+     */
+    static ResolvedConfiguration resolveOwnConfiguration(ClientConfiguration requestConfiguration) {
+        ConfigurationSnapshot snapshot = defaultConfiguration;
+        return new ResolvedConfiguration(getFinalConfiguration(requestConfiguration, snapshot), snapshot);
+    }
+
+    /**
+     * Reads the default configuration again, so that new credentials, hash keys or timeouts are used without
+     * restarting the application. The new configuration is published at once to all the threads: calls in
+     * progress end with the previous one, and new calls use the new one.
+     *
+     * @throws ClientException if the configuration cannot be read. The previous configuration is then kept
+     */
+    public static void reloadConfiguration() {
+        RELOAD_LOCK.lock();
+        try {
+            ConfigurationSnapshot snapshot = new ConfigurationSnapshot(readDefaultConfiguration());
+            //Resolved configurations are kept if nothing has changed
+            if (!snapshot.getDefaults().equals(defaultConfiguration.getDefaults())) {
+                defaultConfiguration = snapshot;
+            }
+        } finally {
+            RELOAD_LOCK.unlock();
+        }
+    }
+
+    /**
+     * Sets the source of the parameters overriding the default configuration file, and reloads the configuration.
+     *
+     * @param source the source, for example {@link ClientConfigurationSource#file(java.nio.file.Path)}. If null, the
+     *               api-client-configuration.properties file of the classpath is read again
+     * @throws ClientException if the configuration cannot be read. The previous source is then kept
+     */
+    public static void setConfigurationSource(ClientConfigurationSource source) {
+        RELOAD_LOCK.lock();
+        try {
+            ClientConfigurationSource previous = configurationSource;
+            configurationSource = source != null ? source : Client::readAppConfiguration;
+            try {
+                reloadConfiguration();
+            } catch (ClientException ce) {
+                configurationSource = previous;
+                throw ce;
+            }
+        } finally {
+            RELOAD_LOCK.unlock();
+        }
+    }
+
+    /*
+    Returns the current default configuration
+     */
+    static ConfigurationSnapshot getDefaultConfiguration() {
+        return defaultConfiguration;
     }
 
     /*
     This method calculates the configuration to use. It takes the default one and overrides it with the configuration
     passed as parameter
      */
-    private static Map<String, String> getFinalConfiguration(ClientConfiguration requestConfiguration) {
+    private static Map<String, String> getFinalConfiguration(ClientConfiguration requestConfiguration,
+                                                             ConfigurationSnapshot defaults) {
         if (requestConfiguration == null) {
             requestConfiguration = ClientConfiguration.builder().build();
         }
 
         Map<String, String> finalConfiguration = new HashMap<>();
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_USERNAME, requestConfiguration.getUsername() != null ? requestConfiguration.getUsername() : defaultUsername);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_PASSWORD, requestConfiguration.getPassword() != null ? requestConfiguration.getPassword() : defaultPassword);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME, requestConfiguration.getRestApiServerName() != null ? requestConfiguration.getRestApiServerName() : defaultRestApiServerName);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_PROXY_HOST, requestConfiguration.getProxyHost() != null ? requestConfiguration.getProxyHost() : defaultProxyHost);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_PROXY_PORT, requestConfiguration.getProxyPort() != null ? requestConfiguration.getProxyPort() : defaultProxyPort);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_CONNECTION_TIMEOUT, requestConfiguration.getConnectionTimeout() != null ? requestConfiguration.getConnectionTimeout() : defaultConnectionTimeout);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_REQUEST_TIMEOUT, requestConfiguration.getRequestTimeout() != null ? requestConfiguration.getRequestTimeout() : defaultRequestTimeout);
-        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HASH_KEY, requestConfiguration.getHashKey() != null ? requestConfiguration.getHashKey() : defaultHashKey);
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_USERNAME, requestConfiguration.getUsername() != null ? requestConfiguration.getUsername() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_USERNAME));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_PASSWORD, requestConfiguration.getPassword() != null ? requestConfiguration.getPassword() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_PASSWORD));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME, requestConfiguration.getRestApiServerName() != null ? requestConfiguration.getRestApiServerName() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_PROXY_HOST, requestConfiguration.getProxyHost() != null ? requestConfiguration.getProxyHost() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_PROXY_HOST));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_PROXY_PORT, requestConfiguration.getProxyPort() != null ? requestConfiguration.getProxyPort() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_PROXY_PORT));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_CONNECTION_TIMEOUT, requestConfiguration.getConnectionTimeout() != null ? requestConfiguration.getConnectionTimeout() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_CONNECTION_TIMEOUT));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_REQUEST_TIMEOUT, requestConfiguration.getRequestTimeout() != null ? requestConfiguration.getRequestTimeout() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_REQUEST_TIMEOUT));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HASH_KEY, requestConfiguration.getHashKey() != null ? requestConfiguration.getHashKey() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_HASH_KEY));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_MAX_CONCURRENT_REQUESTS, requestConfiguration.getMaxConcurrentRequests() != null ? requestConfiguration.getMaxConcurrentRequests() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_MAX_CONCURRENT_REQUESTS));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_REQUEST_STREAMING_MODE, requestConfiguration.getRequestStreamingMode() != null ? requestConfiguration.getRequestStreamingMode() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_REQUEST_STREAMING_MODE));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_REQUEST_COMPRESSION, requestConfiguration.getRequestCompression() != null ? requestConfiguration.getRequestCompression() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_REQUEST_COMPRESSION));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_RESPONSE_COMPRESSION, requestConfiguration.getResponseCompression() != null ? requestConfiguration.getResponseCompression() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_RESPONSE_COMPRESSION));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HASH_ALGORITHM_PROVIDERS, requestConfiguration.getHashAlgorithmProviders() != null ? requestConfiguration.getHashAlgorithmProviders() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_HASH_ALGORITHM_PROVIDERS));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_MAX_ATTEMPTS, requestConfiguration.getMaxAttempts() != null ? requestConfiguration.getMaxAttempts() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_MAX_ATTEMPTS));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_RETRY_BACKOFF, requestConfiguration.getRetryBackoff() != null ? requestConfiguration.getRetryBackoff() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_RETRY_BACKOFF));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_RETRY_MAX_BACKOFF, requestConfiguration.getRetryMaxBackoff() != null ? requestConfiguration.getRetryMaxBackoff() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_RETRY_MAX_BACKOFF));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_RETRY_BUDGET_RATIO, requestConfiguration.getRetryBudgetRatio() != null ? requestConfiguration.getRetryBudgetRatio() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_RETRY_BUDGET_RATIO));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_FAILURE_RATIO, requestConfiguration.getCircuitBreakerFailureRatio() != null ? requestConfiguration.getCircuitBreakerFailureRatio() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_FAILURE_RATIO));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_WINDOW_SIZE, requestConfiguration.getCircuitBreakerWindowSize() != null ? requestConfiguration.getCircuitBreakerWindowSize() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_WINDOW_SIZE));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_OPEN_DURATION, requestConfiguration.getCircuitBreakerOpenDuration() != null ? requestConfiguration.getCircuitBreakerOpenDuration() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_OPEN_DURATION));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_SLOW_CALL_THRESHOLD, requestConfiguration.getSlowCallThreshold() != null ? requestConfiguration.getSlowCallThreshold() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_SLOW_CALL_THRESHOLD));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_ADAPTIVE_MAX_CONCURRENT_REQUESTS, requestConfiguration.getAdaptiveMaxConcurrentRequests() != null ? requestConfiguration.getAdaptiveMaxConcurrentRequests() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_ADAPTIVE_MAX_CONCURRENT_REQUESTS));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HEDGED_RESOURCES, requestConfiguration.getHedgedResources() != null ? requestConfiguration.getHedgedResources() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_HEDGED_RESOURCES));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HEDGE_DELAY_PERCENTILE, requestConfiguration.getHedgeDelayPercentile() != null ? requestConfiguration.getHedgeDelayPercentile() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_HEDGE_DELAY_PERCENTILE));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HEDGE_BUDGET_RATIO, requestConfiguration.getHedgeBudgetRatio() != null ? requestConfiguration.getHedgeBudgetRatio() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_HEDGE_BUDGET_RATIO));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_COALESCED_RESOURCES, requestConfiguration.getCoalescedResources() != null ? requestConfiguration.getCoalescedResources() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_COALESCED_RESOURCES));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_COALESCING_CACHE_DURATION, requestConfiguration.getCoalescingCacheDuration() != null ? requestConfiguration.getCoalescingCacheDuration() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_COALESCING_CACHE_DURATION));
+        finalConfiguration.put(ClientConfiguration.CONFIGURATION_KEY_HEALTH_CHECK_INTERVAL, requestConfiguration.getHealthCheckInterval() != null ? requestConfiguration.getHealthCheckInterval() : defaults.get(ClientConfiguration.CONFIGURATION_KEY_HEALTH_CHECK_INTERVAL));
 
         return finalConfiguration;
     }
@@ -180,8 +775,13 @@ public class Client {
         //Read default parameters
         final Properties finalConfigurationProperties = readConfigurationFile(DEFAULT_CONFIGURATION_FILE_NAME);
 
-        //Read application parameters if exists
-        final Properties appConfigurationProperties = readConfigurationFile(APP_CONFIGURATION_FILE_NAME);
+        //Read application parameters from the configuration source
+        final Properties appConfigurationProperties;
+        try {
+            appConfigurationProperties = configurationSource.load();
+        } catch (IOException ioe) {
+            throw new ClientException("Could not read application configuration", ioe);
+        }
 
         //Override with configuration defined by application
         appConfigurationProperties.forEach((k, v) -> finalConfigurationProperties.setProperty((String) k, (String) v));
@@ -189,6 +789,11 @@ public class Client {
         return finalConfigurationProperties;
     }
 
+    //Read application configuration file if exists
+    private static Properties readAppConfiguration() {
+        return readConfigurationFile(APP_CONFIGURATION_FILE_NAME);
+    }
+
     //Read configuration file using classloader
     private static Properties readConfigurationFile(String configurationFilename) {
         Properties props = new Properties();
@@ -207,13 +812,66 @@ public class Client {
     /*
     Generates the Url to call Rest API
      */
-    private static String generateChargeUrl(String resource, Map<String, String> configuration) {
-        return String.format("%s/api-payment/%s/%s", configuration.get(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME),
-                REST_API_VERSION, resource);
+    static String generateChargeUrl(String resource, String restApiServerName) {
+        return String.format("%s/api-payment/%s/%s", restApiServerName, REST_API_VERSION, resource);
+    }
+
+    /*
+    Creates the JSON body of a call. The body is compressed if required by the configuration
+     */
+    private static ClientRequestBody createBody(Object content, ResolvedConfiguration configuration) {
+        ClientRequestBody body = new JsonRequestBody(GSON, content);
+        return configuration.getRequestCompression() == RequestCompression.GZIP ? new GzipRequestBody(body) : body;
+    }
+
+    /*
+    Creates the request used to make a JSON based REST call
+     */
+    private static ClientRequest createRequest(String resource, ClientRequestBody body, ResolvedConfiguration configuration) {
+        return ClientRequest.builder()
+                .resource(resource)
+                .url(configuration.getUrl(resource))
+                .headers(configuration.getHeaders())
+                .body(body)
+                .streamingMode(configuration.getRequestStreamingMode())
+                .proxy(configuration.getProxy())
+                .connectionTimeout(configuration.getConnectionTimeout())
+                .requestTimeout(configuration.getRequestTimeout())
+                .build();
+    }
+
+    /*
+    Performs the call using a new HttpURLConnection. This is the default transport
+     */
+    private static ClientResponse execute(ClientRequest request) throws IOException {
+        HttpURLConnection connection = createConnection(request);
+        request.onCancel(connection::disconnect);
+        sendRequestPayload(connection, request);
+
+        int responseCode = connection.getResponseCode();
+        InputStream body = responseCode < HTTP_RESPONSE_BAD_REQUEST ? connection.getInputStream() : connection.getErrorStream();
+        return new ClientResponse(responseCode, body, null, connection.getContentEncoding());
+    }
+
+    /*
+    Decompresses the body of a response according to the Content-Encoding reported by the transport, while it is
+    read. The response is closed if its encoding is not supported
+     */
+    private static ClientResponse decode(ClientResponse response) throws IOException {
+        if (response.getContentEncoding() == null || response.getBody() == null) {
+            return response;
+        }
+        try {
+            return new ClientResponse(response.getStatusCode(),
+                    ContentDecoder.decode(response.getContentEncoding(), response.getBody()), response);
+        } catch (IOException ioe) {
+            response.close();
+            throw ioe;
+        }
     }
 
-    private static URL getURLToConnect (String resource, Map<String, String> configuration) throws MalformedURLException {
-        return new URL(generateChargeUrl(resource, configuration));
+    private static URL getURLToConnect(String url) throws MalformedURLException {
+        return new URL(url);
     }
 
     private static HttpURLConnection getConnection(URL url, Proxy proxy) throws IOException {
@@ -224,81 +882,116 @@ public class Client {
     /*
     Creates the connection used to make a JSON based REST call
      */
-    private static HttpURLConnection createConnection(String resource, Map<String, String> configuration) throws IOException {
-        URL urlToConnect = getURLToConnect(resource, configuration);
-
-        //Set proxy if necessary
-        Proxy proxy = null;
-        if (couldUseProxy(urlToConnect.getHost())) {
-            String proxyServer = configuration.get(ClientConfiguration.CONFIGURATION_KEY_PROXY_HOST);
-            String proxyPort = configuration.get(ClientConfiguration.CONFIGURATION_KEY_PROXY_PORT);
-
-            if ((proxyServer != null && !proxyServer.isEmpty()) && (proxyPort != null && !proxyPort.isEmpty())) {
-                proxy = new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxyServer, Integer.parseInt(proxyPort)));
-            }
-        }
+    private static HttpURLConnection createConnection(ClientRequest request) throws IOException {
+        URL urlToConnect = getURLToConnect(request.getUrl());
 
         //Create connection
-        HttpURLConnection connection = getConnection(urlToConnect, proxy);
+        HttpURLConnection connection = getConnection(urlToConnect,
+                couldUseProxy(urlToConnect.getHost()) ? request.getProxy() : null);
 
         //Add request headers
         connection.setRequestMethod("POST");
-        connection.setRequestProperty("User-Agent", "Mobile Client SDK " + REST_API_VERSION);
-        connection.setRequestProperty("Content-type", "application/json; charset=" + StandardCharsets.UTF_8);
-        connection.setRequestProperty("Accept", "application/json");
-        connection.setRequestProperty("Authorization", "Basic " + generateAuthorizationToken(configuration));
+        request.getHeaders().forEach(connection::setRequestProperty);
 
-        //Set timeouts if necessary
-        String connectionTimeout = configuration.get(ClientConfiguration.CONFIGURATION_KEY_CONNECTION_TIMEOUT);
-        String requestTimeout = configuration.get(ClientConfiguration.CONFIGURATION_KEY_REQUEST_TIMEOUT);
-
-        if (connectionTimeout != null && !connectionTimeout.isEmpty()) {
-            connection.setConnectTimeout(Integer.parseInt(connectionTimeout));
-        }
-        if (requestTimeout != null && !requestTimeout.isEmpty()) {
-            connection.setReadTimeout(Integer.parseInt(requestTimeout));
-        }
+        //Set timeouts
+        connection.setConnectTimeout(request.getConnectionTimeout());
+        connection.setReadTimeout(request.getRequestTimeout());
 
         return connection;
     }
 
     /*
-    Send an HTTP request with the provided payload
+    Send an HTTP request with the payload of the request, streamed directly to the connection
      */
-    private static void sendRequestPayload(HttpURLConnection connection, String payload) throws IOException {
+    private static void sendRequestPayload(HttpURLConnection connection, ClientRequest request) throws IOException {
+        ClientRequestBody body = request.getBody();
+        switch (request.getStreamingMode()) {
+            case FIXED_LENGTH:
+                connection.setFixedLengthStreamingMode(body.getContentLength());
+                break;
+            case CHUNKED:
+                connection.setChunkedStreamingMode(0);
+                break;
+            default:
+                //The connection buffers the body
+        }
+
         // Send post request
         connection.setDoOutput(true);
-        try (OutputStreamWriter wr = new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8)) {
-            wr.write(payload);
-            wr.flush();
+        try (OutputStream out = connection.getOutputStream()) {
+            body.writeTo(out);
         }
     }
 
     /*
     Read the content from an HTTP response
      */
-    private static String readResponseContent(HttpURLConnection connection) throws IOException {
-        String responseMessage = "";
-        if (connection != null && connection.getInputStream() != null) {
-            try (BufferedReader buffer = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
-                responseMessage = buffer.lines().collect(Collectors.joining("\n"));
+    static String readResponseContent(ClientResponse response) throws IOException {
+        byte[] content = readResponseBytes(response);
+        return content.length > 0 ? new String(content, StandardCharsets.UTF_8) : "";
+    }
+
+    /*
+    Read the raw content from an HTTP response
+     */
+    static byte[] readResponseBytes(ClientResponse response) throws IOException {
+        if (response == null || response.getBody() == null) {
+            return new byte[0];
+        }
+        return readBytes(response.getBody());
+    }
+
+    /*
+    Read all the bytes of a stream
+     */
+    private static byte[] readBytes(InputStream body) throws IOException {
+        byte[] buffer = new byte[RESPONSE_BUFFER_SIZE];
+        int count = 0;
+        int read;
+        while ((read = body.read(buffer, count, buffer.length - count)) != -1) {
+            count += read;
+            if (count == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length << 1);
             }
         }
-        return responseMessage;
+        return Arrays.copyOf(buffer, count);
+    }
+
+    /*
+    Parse the JSON content from an HTTP response, without reading it as a String first
+     */
+    static <T> T readResponseObject(ClientResponse response, Type responseType) throws IOException {
+        if (response == null || response.getBody() == null) {
+            return null;
+        }
+
+        try {
+            return GSON.fromJson(GSON.newJsonReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8)), responseType);
+        } catch (JsonParseException jpe) {
+            throw new ClientException("Invalid JSON response from payment platform server", jpe);
+        }
+    }
+
+    /*
+    Hand the content of an HTTP response to the provided handler
+     */
+    static <T> T readResponseStream(ClientResponse response, ClientResponseHandler<T> handler) throws IOException {
+        InputStream body = response != null ? response.getBody() : null;
+        return handler.handle(body != null ? body : new ByteArrayInputStream(new byte[0]));
     }
 
     /*
-    Generates the string to send in basic authorization
+    Reads the content of a successful response
      */
-    private static String generateAuthorizationToken(Map<String, String> configuration) {
-        return Base64.getEncoder().encodeToString(
-                (configuration.get(ClientConfiguration.CONFIGURATION_KEY_USERNAME) + ":" + configuration.get(ClientConfiguration.CONFIGURATION_KEY_PASSWORD)).getBytes(StandardCharsets.UTF_8));
+    @FunctionalInterface
+    interface ResponseReader<T> {
+        T read(ClientResponse response) throws IOException;
     }
 
     /*
     Determine ig the proxy can be used
     */
-    private static boolean couldUseProxy(String proxyHost) {
+    static boolean couldUseProxy(String proxyHost) {
         return proxyHost != null && !"localhost".equals(proxyHost) && !"127.0.0.1".equals(proxyHost);
     }
 
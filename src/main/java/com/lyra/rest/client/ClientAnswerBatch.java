@@ -0,0 +1,89 @@
+package com.lyra.rest.client;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Verifies the integrity of a batch of answers in parallel, on the common {@link ForkJoinPool}. <p>
+ *
+ * The batch is split into ranges of whole 64 bits words of the result, so that each range writes its results without
+ * synchronization. Each worker thread reuses its own Mac, see {@link ClientAnswerVerifier}.
+ *
+ * @author Lyra Network
+ */
+class ClientAnswerBatch extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    //Number of answers verified by a single task, multiple of 64
+    private static final int MAX_RANGE_SIZE = 512;
+
+    private final List<Map<String, Object>> paymentAnswers;
+    private final ResolvedConfiguration configuration;
+    private final long[] results;
+    private final int from;
+    private final int to;
+
+    private ClientAnswerBatch(List<Map<String, Object>> paymentAnswers, ResolvedConfiguration configuration,
+                              long[] results, int from, int to) {
+        this.paymentAnswers = paymentAnswers;
+        this.configuration = configuration;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Verifies the provided answers. Answers that cannot be verified, for example because their algorithm is not
+     * supported, are reported as not valid.
+     *
+     * @param paymentAnswers the answers to verify
+     * @param configuration  the configuration providing the hash key
+     * @return {@link BitSet} whose bit i is set if the answer i is valid
+     * @throws ClientException if no hash key is configured
+     */
+    static BitSet verify(List<Map<String, Object>> paymentAnswers, ResolvedConfiguration configuration) {
+        //Fail once rather than reporting all the answers as not valid
+        if (configuration.getHashKey() == null || configuration.getHashKey().isEmpty()) {
+            throw new ClientException("Provided key is empty. It is impossible to generate the hash without a key!");
+        }
+
+        List<Map<String, Object>> answers = paymentAnswers instanceof RandomAccess ? paymentAnswers : new ArrayList<>(paymentAnswers);
+        long[] results = new long[(answers.size() + Long.SIZE - 1) / Long.SIZE];
+        ClientAnswerBatch batch = new ClientAnswerBatch(answers, configuration, results, 0, answers.size());
+        if (answers.size() <= MAX_RANGE_SIZE) {
+            batch.compute();
+        } else {
+            ForkJoinPool.commonPool().invoke(batch);
+        }
+        return BitSet.valueOf(results);
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= MAX_RANGE_SIZE) {
+            for (int i = from; i < to; i++) {
+                if (isValid(paymentAnswers.get(i))) {
+                    results[i / Long.SIZE] |= 1L << i;
+                }
+            }
+        } else {
+            //Split on a word boundary
+            int middle = (from + (to - from) / 2) & -Long.SIZE;
+            invokeAll(new ClientAnswerBatch(paymentAnswers, configuration, results, from, middle),
+                    new ClientAnswerBatch(paymentAnswers, configuration, results, middle, to));
+        }
+    }
+
+    private boolean isValid(Map<String, Object> paymentAnswer) {
+        try {
+            return paymentAnswer != null && Client.verifyAnswer(paymentAnswer, configuration);
+        } catch (ClientException | ClassCastException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.lyra.rest.client;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Verifies the integrity of the answers of the payment platform with a given hash key. <p>
+ *
+ * {@link Mac} instances are not thread-safe, so a verification borrows one from a small pool per algorithm, whatever
+ * the thread, virtual threads included. The Mac is looked up from the JCE providers and initialized with the key only
+ * once, the instances needed by concurrent verifications being cloned from it. Afterwards a verification only costs the
+ * hash computation: the answer is encoded to the Mac through a buffer pooled with it, and the hash is compared to the
+ * provided one in constant time, without creating any object.
+ *
+ * @author Lyra Network
+ */
+class ClientAnswerVerifier {
+    //Verifiers are shared by all the configurations with the same key and providers
+    private static final SharedInstances<ClientAnswerVerifier> VERIFIERS = new SharedInstances<>();
+    //Max number of idle states kept per algorithm, enough for the verifications running at the same time
+    private static final int MAX_POOLED_STATES = Runtime.getRuntime().availableProcessors();
+
+    //Size of the buffer used to encode the answers, flushed to the Mac when full
+    private static final int BUFFER_SIZE = 1024;
+    //Max number of bytes of an encoded character
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final byte[] keyBytes;
+    private final Map<ClientHashAlgorithm, Provider> providers;
+    //Initialized Macs the states are cloned from, by algorithm ordinal
+    private final AtomicReferenceArray<Mac> prototypes =
+            new AtomicReferenceArray<>(ClientHashAlgorithm.values().length);
+    //Idle states, by algorithm ordinal
+    private final BlockingQueue<HashState>[] hashStates;
+
+    ClientAnswerVerifier(String hashKey) {
+        this(hashKey, Collections.emptyMap());
+    }
+
+    /**
+     * @param hashKey   the key used to calculate the hash of the answers
+     * @param providers the JCE providers to use, by algorithm. Other algorithms use the first provider supporting them
+     */
+    ClientAnswerVerifier(String hashKey, Map<ClientHashAlgorithm, Provider> providers) {
+        this.keyBytes = hashKey != null ? hashKey.getBytes(StandardCharsets.UTF_8) : null;
+        this.providers = providers;
+        @SuppressWarnings("unchecked")
+        BlockingQueue<HashState>[] states = new BlockingQueue[ClientHashAlgorithm.values().length];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = new ArrayBlockingQueue<>(MAX_POOLED_STATES);
+        }
+        this.hashStates = states;
+    }
+
+    /**
+     * Returns the verifier for the provided hash key and providers.
+     *
+     * @param hashKey   the key used to calculate the hash of the answers. May be null if the answers are not verified
+     * @param providers the JCE providers to use, by algorithm
+     * @return {@link ClientAnswerVerifier} shared by all the configurations with the same key and providers
+     */
+    static ClientAnswerVerifier forKey(String hashKey, Map<ClientHashAlgorithm, Provider> providers) {
+        if (hashKey == null) {
+            return new ClientAnswerVerifier(null, providers);
+        }
+        Object[] settings = providers.entrySet().stream()
+                .map(provider -> provider.getKey() + ":" + provider.getValue().getName()).toArray();
+        //The least recently used verifiers are evicted when keys are provided per call
+        return VERIFIERS.get(SharedInstances.key(hashKey, settings),
+                () -> new ClientAnswerVerifier(hashKey, providers));
+    }
+
+    /**
+     * Checks the HMAC SHA256 hash of the answer.
+     *
+     * @param answer the kr-answer value
+     * @param hash   the kr-hash value
+     * @return true if the hash of the answer is the provided one
+     * @throws ClientException if the hash cannot be calculated
+     */
+    boolean verify(String answer, String hash) {
+        return verify(answer, ClientHashAlgorithm.HMAC_SHA256, hash);
+    }
+
+    /**
+     * Checks the hash of the answer. The hexadecimal hash is compared in constant time, whatever its case.
+     *
+     * @param answer    the kr-answer value
+     * @param algorithm the algorithm of the hash
+     * @param hash      the kr-hash value
+     * @return true if the hash of the answer is the provided one
+     * @throws ClientException if the hash cannot be calculated
+     */
+    boolean verify(String answer, ClientHashAlgorithm algorithm, String hash) {
+        HashState state = acquireHashState(answer, algorithm);
+        try {
+            byte[] digest = state.digest(answer);
+            return hash != null && decodeHex(hash, state.expected) && MessageDigest.isEqual(digest, state.expected);
+        } finally {
+            releaseHashState(algorithm, state);
+        }
+    }
+
+    /**
+     * Checks the hash of the answer read from a stream, for example the percent-decoded kr-answer field of a form.
+     * The UTF-8 bytes of the answer are hashed as they are read, without decoding them as a String.
+     *
+     * @param answer    the UTF-8 encoded kr-answer value
+     * @param algorithm the algorithm of the hash
+     * @param hash      the kr-hash value
+     * @return true if the hash of the answer is the provided one
+     * @throws IOException     if the answer cannot be read
+     * @throws ClientException if the hash cannot be calculated
+     */
+    boolean verify(InputStream answer, ClientHashAlgorithm algorithm, String hash) throws IOException {
+        HashState state = acquireHashState(answer, algorithm);
+        try {
+            byte[] digest = state.digest(answer);
+            return hash != null && decodeHex(hash, state.expected) && MessageDigest.isEqual(digest, state.expected);
+        } finally {
+            releaseHashState(algorithm, state);
+        }
+    }
+
+    /**
+     * Calculates the HMAC SHA256 hash of the answer, as {@link ClientCryptUtil#calculateHash(String, String, String)}
+     * does.
+     *
+     * @param answer the kr-answer value
+     * @return the hash encoded in hexadecimal
+     * @throws ClientException if the hash cannot be calculated
+     */
+    String calculateHash(String answer) {
+        return calculateHash(answer, ClientHashAlgorithm.HMAC_SHA256);
+    }
+
+    /**
+     * Calculates the hash of the answer, as {@link ClientCryptUtil#calculateHash(String, String, String)} does.
+     *
+     * @param answer    the kr-answer value
+     * @param algorithm the algorithm of the hash
+     * @return the hash encoded in hexadecimal
+     * @throws ClientException if the hash cannot be calculated
+     */
+    String calculateHash(String answer, ClientHashAlgorithm algorithm) {
+        HashState state = acquireHashState(answer, algorithm);
+        try {
+            return ClientCryptUtil.encodeHex(state.digest(answer));
+        } finally {
+            releaseHashState(algorithm, state);
+        }
+    }
+
+    /**
+     * @param algorithm the algorithm of the hash
+     * @return the number of idle states kept for the algorithm
+     */
+    int pooledStates(ClientHashAlgorithm algorithm) {
+        return hashStates[algorithm.ordinal()].size();
+    }
+
+    private HashState acquireHashState(Object answer, ClientHashAlgorithm algorithm) {
+        //Verify null entries
+        if (answer == null) {
+            throw new ClientException("Provided message is null. It is impossible to generate the hash!");
+        } else if (keyBytes == null) {
+            throw new ClientException("Provided key is null. It is impossible to generate the hash without a key!");
+        }
+
+        HashState state = hashStates[algorithm.ordinal()].poll();
+        return state != null ? state : new HashState(createMac(algorithm));
+    }
+
+    //Keeps the state for the next verification, unless enough states are already idle
+    private void releaseHashState(ClientHashAlgorithm algorithm, HashState state) {
+        hashStates[algorithm.ordinal()].offer(state);
+    }
+
+    /*
+    Creates an initialized Mac, cloned from the prototype of the algorithm when its provider supports it
+     */
+    private Mac createMac(ClientHashAlgorithm algorithm) {
+        Mac prototype = prototypes.get(algorithm.ordinal());
+        if (prototype == null) {
+            prototypes.compareAndSet(algorithm.ordinal(), null, initMac(algorithm));
+            prototype = prototypes.get(algorithm.ordinal());
+        }
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException cnse) {
+            return initMac(algorithm);
+        }
+    }
+
+    private Mac initMac(ClientHashAlgorithm algorithm) {
+        try {
+            return algorithm.createMac(keyBytes, providers.get(algorithm));
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new ClientException("Unexpected error generating message hash", e);
+        }
+    }
+
+    //Decodes the hexadecimal hash into the provided array. Returns false if it is not a valid hash
+    private static boolean decodeHex(String hash, byte[] out) {
+        if (hash.length() != out.length << 1) {
+            return false;
+        }
+        for (int i = 0, j = 0; i < out.length; i++) {
+            int high = Character.digit(hash.charAt(j++), 16);
+            int low = Character.digit(hash.charAt(j++), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            out[i] = (byte) (high << 4 | low);
+        }
+        return true;
+    }
+
+    /*
+    Mac and buffers used by one verification at a time
+     */
+    private static final class HashState {
+        private final Mac mac;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final byte[] digest;
+        private final byte[] expected;
+
+        HashState(Mac mac) {
+            this.mac = mac;
+            this.digest = new byte[mac.getMacLength()];
+            this.expected = new byte[mac.getMacLength()];
+        }
+
+        /*
+        Calculates the hash of the answer, with escaped slashes replaced and encoded in UTF-8 as String.getBytes does
+         */
+        byte[] digest(String answer) {
+            int count = 0;
+            for (int i = 0, length = answer.length(); i < length; i++) {
+                if (count > BUFFER_SIZE - MAX_CHAR_BYTES) {
+                    mac.update(buffer, 0, count);
+                    count = 0;
+                }
+
+                char c = answer.charAt(i);
+                if (c == '\\' && i + 1 < length && answer.charAt(i + 1) == '/') {
+                    //Replace unwanted characters
+                    c = '/';
+                    i++;
+                }
+
+                if (c < 0x80) {
+                    buffer[count++] = (byte) c;
+                } else if (c < 0x800) {
+                    buffer[count++] = (byte) (0xC0 | c >> 6);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(answer.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, answer.charAt(++i));
+                    buffer[count++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[count++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    //Malformed characters are replaced
+                    buffer[count++] = '?';
+                } else {
+                    buffer[count++] = (byte) (0xE0 | c >> 12);
+                    buffer[count++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[count++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+            mac.update(buffer, 0, count);
+            return doFinal();
+        }
+
+        /*
+        Calculates the hash of the UTF-8 encoded answer, with escaped slashes replaced
+         */
+        byte[] digest(InputStream answer) throws IOException {
+            int count = 0;
+            boolean escape = false;
+            for (int b = answer.read(); b != -1; b = answer.read()) {
+                if (count > BUFFER_SIZE - 3) {
+                    mac.update(buffer, 0, count);
+                    count = 0;
+                }
+
+                //Replace unwanted characters: a backslash is only kept if it is not followed by a slash
+                if (escape && b != '/') {
+                    buffer[count++] = '\\';
+                }
+                escape = b == '\\';
+                if (!escape) {
+                    buffer[count++] = (byte) b;
+                }
+            }
+            if (escape) {
+                buffer[count++] = '\\';
+            }
+            mac.update(buffer, 0, count);
+            return doFinal();
+        }
+
+        private byte[] doFinal() {
+            try {
+                mac.doFinal(digest, 0);
+            } catch (ShortBufferException sbe) {
+                throw new ClientException("Unexpected error generating message hash", sbe);
+            }
+            return digest;
+        }
+    }
+}
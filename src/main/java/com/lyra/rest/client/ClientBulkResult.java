@@ -0,0 +1,33 @@
+package com.lyra.rest.client;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Result of one of the calls of a {@link ClientBulkSubmission}: either the full response from API, or the exception
+ * raised by the call.
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+@ToString(exclude = "parameters")
+public class ClientBulkResult {
+    //Position of the request in the submitted requests, starting at 0
+    private final long index;
+    private final Map<String, Object> parameters;
+    //Null if the call failed
+    private final String response;
+    //Null if the call succeeded
+    private final ClientException exception;
+
+    /**
+     * @return true if the call succeeded, in which case the response is set
+     */
+    public boolean isSuccess() {
+        return exception == null;
+    }
+}
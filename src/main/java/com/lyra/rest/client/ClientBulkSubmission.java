@@ -0,0 +1,162 @@
+package com.lyra.rest.client;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Submission of a batch of calls, for example the recurring payments of a nightly job, performed concurrently
+ * within a window of calls in flight.</p>
+ * <pre>
+ * try (ClientBulkSubmission submission = client.postAll(ClientResource.CREATE_PAYMENT.toString(), payments, 50, false)) {
+ *     while (submission.hasNext()) {
+ *         ClientBulkResult result = submission.next();
+ *         ...
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * The results are pulled by the caller, which sets the demand: a request is read from the source and submitted only
+ * once a previous result has been read, so that there are never more than the max calls in flight or results
+ * waiting to be read. A batch of any size is therefore performed with bounded memory, and at the pace of the slowest
+ * of the source, the platform and the caller.</p>
+ * <p>
+ * Results are returned either in the order of the requests, or in the order the calls end. Ordered results are
+ * returned in sequence, so that a slow call delays the next results, and the next calls once the window is full.
+ * Failed calls are returned as results holding their exception, so that a failure does not stop the batch.</p>
+ * <p>
+ * Instances are not thread-safe: the source and the results must be consumed by a single thread.</p>
+ *
+ * @author Lyra Network
+ */
+public class ClientBulkSubmission implements Iterator<ClientBulkResult>, AutoCloseable {
+    private final Function<Map<String, Object>, String> call;
+    private final Executor executor;
+    private final Iterator<? extends Map<String, Object>> requests;
+    private final int maxInFlight;
+    private final boolean ordered;
+
+    //Results of the calls in the order of the requests, if ordered
+    private final Queue<CompletableFuture<ClientBulkResult>> pending = new ArrayDeque<>();
+    //Results of the calls in the order they end, if not ordered
+    private final BlockingQueue<ClientBulkResult> completed = new LinkedBlockingQueue<>();
+    private long submitted;
+    private long returned;
+    private boolean closed;
+
+    ClientBulkSubmission(Function<Map<String, Object>, String> call, Executor executor,
+                         Iterator<? extends Map<String, Object>> requests, int maxInFlight, boolean ordered) {
+        if (maxInFlight <= 0) {
+            throw new ClientException("Max calls in flight must be greater than 0");
+        }
+        this.call = call;
+        this.executor = executor;
+        this.requests = requests;
+        this.maxInFlight = maxInFlight;
+        this.ordered = ordered;
+        submit();
+    }
+
+    /**
+     * @return true if a call has been submitted whose result has not been returned yet, or if the source has more
+     * requests
+     */
+    @Override
+    public boolean hasNext() {
+        submit();
+        return returned < submitted;
+    }
+
+    /**
+     * Returns the next result, waiting for its call to end if necessary.
+     *
+     * @return {@link ClientBulkResult} of the next call
+     * @throws NoSuchElementException if all the results have been returned
+     * @throws ClientException        if the thread is interrupted while waiting
+     */
+    @Override
+    public ClientBulkResult next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        ClientBulkResult result;
+        if (ordered) {
+            //Calls never complete exceptionally, see call
+            result = pending.remove().join();
+        } else {
+            try {
+                result = completed.take();
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new ClientException("Interrupted while waiting for payment platform server", ie);
+            }
+        }
+        returned++;
+        submit();
+        return result;
+    }
+
+    /**
+     * @return the number of calls submitted and whose result has not been returned yet
+     */
+    public int getInFlight() {
+        return (int) (submitted - returned);
+    }
+
+    /**
+     * Stops reading the source. The calls already submitted are not interrupted, and their results can still be
+     * read.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+
+    /*
+    Submits requests from the source until the window is full
+     */
+    private void submit() {
+        while (!closed && submitted - returned < maxInFlight && requests.hasNext()) {
+            Map<String, Object> parameters = requests.next();
+            long index = submitted++;
+            CompletableFuture<ClientBulkResult> result;
+            try {
+                result = CompletableFuture.supplyAsync(() -> call(index, parameters), executor);
+            } catch (RejectedExecutionException ree) {
+                result = CompletableFuture.completedFuture(failure(index, parameters,
+                        new ClientException("Call rejected by executor", ree)));
+            }
+
+            if (ordered) {
+                pending.add(result);
+            } else {
+                result.thenAccept(completed::add);
+            }
+        }
+    }
+
+    private ClientBulkResult call(long index, Map<String, Object> parameters) {
+        try {
+            return ClientBulkResult.builder().index(index).parameters(parameters)
+                    .response(call.apply(parameters)).build();
+        } catch (ClientException ce) {
+            return failure(index, parameters, ce);
+        } catch (RuntimeException re) {
+            return failure(index, parameters, new ClientException("Unexpected error calling payment platform server", re));
+        }
+    }
+
+    private static ClientBulkResult failure(long index, Map<String, Object> parameters, ClientException exception) {
+        return ClientBulkResult.builder().index(index).parameters(parameters).exception(exception).build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.lyra.rest.client;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits the number of concurrent calls to a payment platform server. <p>
+ *
+ * It is based on a {@link Semaphore}, so waiting callers are parked without holding any monitor. This way it can be
+ * used to fan out a large number of calls from virtual threads without pinning their carrier threads.
+ *
+ * @author Lyra Network
+ */
+class ClientBulkhead {
+    //Bulkheads are shared by all the calls to the same server with the same settings
+    private static final SharedInstances<ClientBulkhead> BULKHEADS = new SharedInstances<>();
+
+    private final int maxConcurrentRequests;
+    private final Semaphore permits;
+
+    ClientBulkhead(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.permits = new Semaphore(maxConcurrentRequests);
+    }
+
+    /**
+     * Returns the bulkhead for the provided server and settings. Calls with other settings get their own bulkhead.
+     *
+     * @param restApiServerName     the server to call
+     * @param maxConcurrentRequests the max number of concurrent calls
+     * @return {@link ClientBulkhead} shared by all the calls to the server with the same settings
+     */
+    static ClientBulkhead forServer(String restApiServerName, int maxConcurrentRequests) {
+        return BULKHEADS.get(SharedInstances.key(restApiServerName, maxConcurrentRequests),
+                () -> new ClientBulkhead(maxConcurrentRequests));
+    }
+
+    /**
+     * Waits for a free slot.
+     *
+     * @param timeout max time to wait in milliseconds, 0 meaning no timeout
+     * @throws ClientException if no slot is freed before the timeout or if the thread is interrupted
+     */
+    void acquire(long timeout) {
+        try {
+            if (!permits.tryAcquire(timeout > 0 ? timeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                throw new ClientException("Too many concurrent calls to payment platform server. Max allowed: "
+                        + maxConcurrentRequests);
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting to call payment platform server", ie);
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+}
@@ -0,0 +1,45 @@
+package com.lyra.rest.client;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Measures of an HTTP call to the payment platform, as notified to a {@link ClientListener}. <p>
+ *
+ * Durations are expressed in nanoseconds from the start of the call, -1 meaning that the step was not reached.
+ * The connection time includes DNS resolution, TCP and TLS handshakes, or the wait for a pooled connection, as it
+ * ends when the transport starts sending the body. Sizes are expressed in bytes.
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+@ToString(exclude = "request")
+public class ClientCallEvent {
+    //Resource targeted by the call, see ClientResource
+    private final String resource;
+    private final ClientRequest request;
+    //HTTP status code, 0 if no response was received
+    private final int statusCode;
+    //Exception thrown by the transport, null if a response was received
+    private final Throwable exception;
+    //True if the call was cancelled by the SDK, for example when a hedged call has answered first
+    private final boolean cancelled;
+    private final long connectTime;
+    private final long requestSentTime;
+    private final long firstByteTime;
+    private final long totalTime;
+    private final long requestSize;
+    private final long responseSize;
+    //Statistics of the connection pool once the response was received, or the call failed. Null if the transport
+    //does not pool connections
+    private final ClientPoolStats poolStats;
+
+    /**
+     * @return true if a response was received with a 200 status code
+     */
+    public boolean isSuccess() {
+        return statusCode == 200;
+    }
+}
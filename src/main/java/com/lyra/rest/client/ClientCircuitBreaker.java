@@ -0,0 +1,217 @@
+package com.lyra.rest.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Stops calling a payment platform server that keeps failing, so that callers fail fast instead of waiting for
+ * timeouts, and the server is given time to recover. <p>
+ *
+ * The outcome of the last calls is kept in a sliding window. A call fails on a network error, on a 5xx response or,
+ * if a slow call threshold is set, when it takes longer than this threshold. The breaker is:
+ * <ul>
+ * <li>closed: calls are performed. It opens once the window is full and the ratio of failed calls reaches the failure ratio</li>
+ * <li>open: calls are rejected. It becomes half-open once the open duration has elapsed</li>
+ * <li>half-open: a few trial calls are performed. It closes if they all succeed, otherwise it opens again</li>
+ * </ul>
+ * Each state change starts a new generation, and a permitted call only counts in the generation it was permitted in:
+ * a call permitted while closed that ends once half-open is not taken for a trial call. <p>
+ *
+ * The state is updated under a {@link ReentrantLock} rather than a monitor, so that it can be used from virtual
+ * threads without pinning their carrier threads. Closed breakers are checked without locking.
+ *
+ * @author Lyra Network
+ */
+class ClientCircuitBreaker {
+    //Breakers are shared by all the calls to the same server with the same settings
+    private static final SharedInstances<ClientCircuitBreaker> BREAKERS = new SharedInstances<>();
+
+    //Trial calls performed while half-open
+    static final int HALF_OPEN_CALLS = 3;
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String restApiServerName;
+    private final double failureRatio;
+    private final int windowSize;
+    private final long openDuration;
+    private final long slowCallThreshold;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile State state = State.CLOSED;
+    //Incremented before each state change, so that the results of calls permitted in another state are ignored
+    private volatile long generation;
+    //Sliding window of the last outcomes, true meaning failed
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAt;
+    private String openingReason;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * @param restApiServerName the server to call
+     * @param failureRatio      ratio of failed calls, between 0 and 1, opening the breaker
+     * @param windowSize        number of calls whose outcome is kept
+     * @param openDuration      time in milliseconds during which calls are rejected
+     * @param slowCallThreshold time in milliseconds above which a call is failed, 0 meaning no threshold
+     */
+    ClientCircuitBreaker(String restApiServerName, double failureRatio, int windowSize, long openDuration,
+                         long slowCallThreshold) {
+        this.restApiServerName = restApiServerName;
+        this.failureRatio = failureRatio;
+        this.windowSize = windowSize;
+        this.openDuration = openDuration;
+        this.slowCallThreshold = slowCallThreshold;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * Returns the breaker for the provided server and settings. Calls with other settings get their own breaker.
+     *
+     * @param restApiServerName the server to call
+     * @param failureRatio      ratio of failed calls, between 0 and 1, opening the breaker
+     * @param windowSize        number of calls whose outcome is kept
+     * @param openDuration      time in milliseconds during which calls are rejected
+     * @param slowCallThreshold time in milliseconds above which a call is failed, 0 meaning no threshold
+     * @return {@link ClientCircuitBreaker} shared by all the calls to the server with the same settings
+     */
+    static ClientCircuitBreaker forServer(String restApiServerName, double failureRatio, int windowSize,
+                                          long openDuration, long slowCallThreshold) {
+        return BREAKERS.get(SharedInstances.key(restApiServerName, failureRatio, windowSize, openDuration, slowCallThreshold),
+                () -> new ClientCircuitBreaker(restApiServerName, failureRatio, windowSize, openDuration, slowCallThreshold));
+    }
+
+    /**
+     * Checks that a call can be performed. Each permitted call must be followed by {@link #onResult} or {@link #cancel}.
+     *
+     * @return the generation the call is permitted in, to provide with its result
+     * @throws ClientException if the breaker is open, or half-open with all its trial calls in progress
+     */
+    long acquire() {
+        //Read before the state, so that a call permitted without locking never gets the generation of a half-open state
+        long permitted = generation;
+        if (state == State.CLOSED) {
+            return permitted;
+        }
+        lock.lock();
+        try {
+            if (state == State.OPEN) {
+                long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - openedAt);
+                if (elapsed < openDuration) {
+                    throw new ClientRejectedException("Circuit breaker open for payment platform server " + restApiServerName
+                            + " as " + openingReason + ". Calls are rejected for " + (openDuration - elapsed) + " more ms", true);
+                }
+                halfOpenPermits = HALF_OPEN_CALLS;
+                halfOpenSuccesses = 0;
+                changeState(State.HALF_OPEN);
+            }
+            if (state == State.HALF_OPEN) {
+                if (halfOpenPermits == 0) {
+                    throw new ClientRejectedException("Circuit breaker half-open for payment platform server " + restApiServerName
+                            + ": waiting for the result of " + HALF_OPEN_CALLS + " trial calls", true);
+                }
+                halfOpenPermits--;
+            }
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted call. Calls permitted in another generation are ignored: they ended after the
+     * breaker opened, or were permitted before it became half-open.
+     *
+     * @param permitted the generation returned by {@link #acquire}
+     * @param failed    true if the call failed with a network error or a 5xx response
+     * @param duration  duration of the call in nanoseconds
+     */
+    void onResult(long permitted, boolean failed, long duration) {
+        boolean failure = failed || (slowCallThreshold > 0 && TimeUnit.NANOSECONDS.toMillis(duration) > slowCallThreshold);
+        lock.lock();
+        try {
+            if (permitted != generation) {
+                return;
+            }
+            if (state == State.CLOSED) {
+                record(failure);
+                if (windowCount == windowSize && windowFailures >= failureRatio * windowSize) {
+                    open(windowFailures + " of the last " + windowSize + " calls failed");
+                }
+            } else if (state == State.HALF_OPEN) {
+                if (failure) {
+                    open("a trial call failed");
+                } else if (++halfOpenSuccesses == HALF_OPEN_CALLS) {
+                    close();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permitted call that has not been performed
+     *
+     * @param permitted the generation returned by {@link #acquire}
+     */
+    void cancel(long permitted) {
+        if (state == State.CLOSED) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (permitted == generation && state == State.HALF_OPEN
+                    && halfOpenPermits < HALF_OPEN_CALLS - halfOpenSuccesses) {
+                halfOpenPermits++;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    State getState() {
+        return state;
+    }
+
+    /* Adds an outcome to the sliding window, replacing the oldest one once it is full */
+    private void record(boolean failure) {
+        if (windowCount == windowSize) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+    }
+
+    private void open(String reason) {
+        openingReason = reason;
+        openedAt = System.nanoTime();
+        changeState(State.OPEN);
+    }
+
+    /* Closes the breaker with an empty window, so that failures before opening are not counted again */
+    private void close() {
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        changeState(State.CLOSED);
+    }
+
+    /* Starts a new generation before changing the state, in the order expected by acquire */
+    private void changeState(State newState) {
+        generation++;
+        state = newState;
+    }
+}
@@ -0,0 +1,257 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.lyra.rest.client.model.ApiResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces the identical calls to a payment platform server, such as the duplicate payments created by a
+ * double-click or by a client retry, so that they are performed only once. <p>
+ *
+ * Calls are identical if they target the same resource with the same credentials, and either the same idempotency
+ * key or, without key, the same parameters whatever their order. The calls made while an identical call is in flight
+ * wait for it and share its response. Successful responses, whose status is SUCCESS, are also kept during a short
+ * duration in order to absorb late duplicates, while error answers are not so that the call can be performed again.
+ * At most {@link #MAX_COMPLETED_CALLS} responses are kept per server. <p>
+ *
+ * Each caller reads the shared response on its own, so that the parsed objects are not shared.
+ *
+ * @author Lyra Network
+ */
+class ClientCoalescer {
+    //Max number of responses kept per server
+    static final int MAX_COMPLETED_CALLS = 1000;
+
+    //Coalescers are shared by all the calls to the same server with the same settings
+    private static final SharedInstances<ClientCoalescer> COALESCERS = new SharedInstances<>();
+
+    private final Set<ClientResource> resources;
+    private final long cacheDuration;
+    private final ConcurrentMap<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CompletedCall> completed = new ConcurrentHashMap<>();
+    private final ReentrantLock purgeLock = new ReentrantLock();
+
+    /**
+     * @param resources     the coalesced resources
+     * @param cacheDuration duration in milliseconds during which successful responses are kept, 0 to keep none
+     */
+    ClientCoalescer(Set<ClientResource> resources, long cacheDuration) {
+        this.resources = resources;
+        this.cacheDuration = TimeUnit.MILLISECONDS.toNanos(cacheDuration);
+    }
+
+    /**
+     * Returns the coalescer for the provided server and settings. Calls with other settings get their own coalescer.
+     *
+     * @param restApiServerName the server to call
+     * @param resources         the coalesced resources
+     * @param cacheDuration     duration in milliseconds during which successful responses are kept
+     * @return {@link ClientCoalescer} shared by all the calls to the server with the same settings
+     */
+    static ClientCoalescer forServer(String restApiServerName, Set<ClientResource> resources, long cacheDuration) {
+        return COALESCERS.get(SharedInstances.key(restApiServerName, resources, cacheDuration),
+                () -> new ClientCoalescer(resources, cacheDuration));
+    }
+
+    /**
+     * @param resource the resource to call, may be null
+     * @return true if the calls to this resource are coalesced
+     */
+    boolean isCoalesced(ClientResource resource) {
+        return resource != null && resources.contains(resource);
+    }
+
+    /**
+     * Builds the key identifying identical calls.
+     *
+     * @param resource       the resource to call
+     * @param authorization  the Authorization header of the call, only kept as a digest
+     * @param idempotencyKey the key provided by the caller, null to use the parameters
+     * @param content        the parameters of the call, a Map or a typed request
+     * @return the key of the call
+     */
+    static String key(String resource, String authorization, String idempotencyKey, Object content) {
+        String call = idempotencyKey != null ? "key:" + idempotencyKey : "sha256:" + hash(content);
+        return resource + '\n' + digest(String.valueOf(authorization)) + '\n' + call;
+    }
+
+    /**
+     * Performs a call, unless an identical call is in flight or has recently succeeded.
+     *
+     * @param key  the key of the call
+     * @param call the call, returning the response body
+     * @return the response body, shared by the identical calls
+     * @throws ClientException if the shared call fails
+     */
+    byte[] call(String key, Supplier<byte[]> call) {
+        byte[] cached = getCompleted(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<byte[]> result = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, result);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            //An identical call may have ended since the response was looked up
+            byte[] body = getCompleted(key);
+            if (body == null) {
+                body = call.get();
+                if (isSuccess(body)) {
+                    complete(key, body);
+                }
+            }
+            result.complete(body);
+            return body;
+        } catch (RuntimeException re) {
+            result.completeExceptionally(re);
+            throw re;
+        } finally {
+            inFlight.remove(key, result);
+        }
+    }
+
+    /**
+     * @return the number of responses currently kept
+     */
+    int getCompletedCount() {
+        return completed.size();
+    }
+
+    private byte[] getCompleted(String key) {
+        CompletedCall call = completed.get(key);
+        if (call == null) {
+            return null;
+        }
+        if (System.nanoTime() - call.expiration >= 0) {
+            completed.remove(key, call);
+            return null;
+        }
+        return call.body;
+    }
+
+    /*
+    Keeps the response of a successful call. Expired responses are purged once the max number of responses is
+    reached, and the response is not kept if there is still no room
+     */
+    private void complete(String key, byte[] body) {
+        if (cacheDuration <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (completed.size() >= MAX_COMPLETED_CALLS && purgeLock.tryLock()) {
+            try {
+                completed.values().removeIf(call -> now - call.expiration >= 0);
+            } finally {
+                purgeLock.unlock();
+            }
+        }
+        if (completed.size() < MAX_COMPLETED_CALLS) {
+            completed.put(key, new CompletedCall(body, now + cacheDuration));
+        }
+    }
+
+    /*
+    Tells whether the top level status of the answer is SUCCESS. The platform answers business errors with an HTTP
+    200 code and an ERROR status
+     */
+    static boolean isSuccess(byte[] body) {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("status".equals(reader.nextName())) {
+                    return reader.peek() == JsonToken.STRING && ApiResponse.STATUS_SUCCESS.equals(reader.nextString());
+                }
+                reader.skipValue();
+            }
+            return false;
+        } catch (IOException | IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> call) {
+        try {
+            return call.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new ClientException("Interrupted while waiting for payment platform server", ie);
+        } catch (ExecutionException ee) {
+            if (ee.getCause() instanceof ClientException) {
+                throw (ClientException) ee.getCause();
+            }
+            throw new ClientException("Exception calling payment platform server", ee.getCause());
+        }
+    }
+
+    /*
+    Hashes the JSON form of the parameters with the members of the objects sorted by name, so that the order in which
+    the parameters have been set does not matter
+     */
+    private static String hash(Object content) {
+        return digest(Client.GSON.toJson(canonical(Client.GSON.toJsonTree(content))));
+    }
+
+    private static String digest(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException nsae) {
+            throw new ClientException("Unexpected error generating message hash", nsae);
+        }
+    }
+
+    private static JsonElement canonical(JsonElement element) {
+        if (element.isJsonObject()) {
+            Map<String, JsonElement> members = new TreeMap<>();
+            for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+                members.put(member.getKey(), canonical(member.getValue()));
+            }
+            JsonObject object = new JsonObject();
+            members.forEach(object::add);
+            return object;
+        } else if (element.isJsonArray()) {
+            JsonArray array = new JsonArray();
+            for (JsonElement item : element.getAsJsonArray()) {
+                array.add(canonical(item));
+            }
+            return array;
+        }
+        return element;
+    }
+
+    private static final class CompletedCall {
+        private final byte[] body;
+        //Time after which the response is not used anymore, from System.nanoTime()
+        private final long expiration;
+
+        CompletedCall(byte[] body, long expiration) {
+            this.body = body;
+            this.expiration = expiration;
+        }
+    }
+}
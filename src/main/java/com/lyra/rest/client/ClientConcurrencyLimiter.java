@@ -0,0 +1,105 @@
+package com.lyra.rest.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adapts the number of concurrent calls to a payment platform server to its health, using additive increase and
+ * multiplicative decrease (AIMD). <p>
+ *
+ * The limit grows by one call each time a limit's worth of calls succeed, and is cut by 10% each time a call fails
+ * with a network error or a 5xx response, or takes longer than the slow call threshold. Calls above the limit are
+ * rejected at once, so that a slowing platform is not flooded with calls that would wait for timeouts. <p>
+ *
+ * It is based on atomics only, so it can be used from virtual threads without pinning their carrier threads.
+ *
+ * @author Lyra Network
+ */
+class ClientConcurrencyLimiter {
+    //Limiters are shared by all the calls to the same server with the same settings
+    private static final SharedInstances<ClientConcurrencyLimiter> LIMITERS = new SharedInstances<>();
+
+    //Limits are counted in thousandths
+    private static final long UNIT = 1000;
+
+    private final String restApiServerName;
+    private final int maxLimit;
+    private final long slowCallThreshold;
+    private final AtomicLong limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * @param restApiServerName the server to call
+     * @param maxLimit          max number of concurrent calls. Half of it is allowed at start
+     * @param slowCallThreshold time in milliseconds above which a call decreases the limit, 0 meaning no threshold
+     */
+    ClientConcurrencyLimiter(String restApiServerName, int maxLimit, long slowCallThreshold) {
+        this.restApiServerName = restApiServerName;
+        this.maxLimit = maxLimit;
+        this.slowCallThreshold = slowCallThreshold;
+        this.limit = new AtomicLong(Math.max(maxLimit / 2, 1) * UNIT);
+    }
+
+    /**
+     * Returns the limiter for the provided server and settings. Calls with other settings get their own limiter.
+     *
+     * @param restApiServerName the server to call
+     * @param maxLimit          max number of concurrent calls
+     * @param slowCallThreshold time in milliseconds above which a call decreases the limit, 0 meaning no threshold
+     * @return {@link ClientConcurrencyLimiter} shared by the calls to the server with the same settings
+     */
+    static ClientConcurrencyLimiter forServer(String restApiServerName, int maxLimit, long slowCallThreshold) {
+        return LIMITERS.get(SharedInstances.key(restApiServerName, maxLimit, slowCallThreshold),
+                () -> new ClientConcurrencyLimiter(restApiServerName, maxLimit, slowCallThreshold));
+    }
+
+    /**
+     * Takes a slot. Each taken slot must be released by {@link #onResult} or {@link #cancel}.
+     *
+     * @throws ClientException if the current limit is reached
+     */
+    void acquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            int currentLimit = getLimit();
+            if (current >= currentLimit) {
+                throw new ClientRejectedException("Adaptive concurrency limit reached for payment platform server "
+                        + restApiServerName + ": " + currentLimit + " calls in progress out of a max of " + maxLimit
+                        + ". The platform is slowing down or failing", true);
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+    }
+
+    /**
+     * Releases the slot of a performed call, and adapts the limit to its outcome.
+     *
+     * @param failed   true if the call failed with a network error or a 5xx response
+     * @param duration duration of the call in nanoseconds
+     */
+    void onResult(boolean failed, long duration) {
+        int released = inFlight.getAndDecrement();
+        if (failed || (slowCallThreshold > 0 && TimeUnit.NANOSECONDS.toMillis(duration) > slowCallThreshold)) {
+            limit.accumulateAndGet(0, (current, unused) -> Math.max(current * 9 / 10, UNIT));
+        } else if (released * 2 >= getLimit()) {
+            //The limit only grows while it is actually used
+            limit.accumulateAndGet(0, (current, unused) -> Math.min(current + UNIT * UNIT / current, maxLimit * UNIT));
+        }
+    }
+
+    /**
+     * Releases the slot of a call that has not been performed
+     */
+    void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    int getLimit() {
+        return (int) (limit.get() / UNIT);
+    }
+
+    int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -1,6 +1,7 @@
 package com.lyra.rest.client;
 
 import lombok.Builder;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 /**
@@ -9,12 +10,14 @@ import lombok.Getter;
  * In order to facilitate object creation it implements a builder pattern.
  *
  * This builder and all the necessary getter and setters are
- * provided by Lombok autogenerated code
+ * provided by Lombok autogenerated code. Configurations with the same values are equal, so that their resolution
+ * can be shared.
  *
  * @author Lyra Network
  */
 @Builder
 @Getter
+@EqualsAndHashCode
 public class ClientConfiguration {
     //Convenience constants used for comparing conditions
     public static final String CONFIGURATION_KEY_USERNAME = "username";
@@ -25,6 +28,26 @@ public class ClientConfiguration {
     public static final String CONFIGURATION_KEY_CONNECTION_TIMEOUT = "connectionTimeout";
     public static final String CONFIGURATION_KEY_REQUEST_TIMEOUT = "requestTimeout";
     public static final String CONFIGURATION_KEY_HASH_KEY = "hashKey";
+    public static final String CONFIGURATION_KEY_MAX_CONCURRENT_REQUESTS = "maxConcurrentRequests";
+    public static final String CONFIGURATION_KEY_REQUEST_STREAMING_MODE = "requestStreamingMode";
+    public static final String CONFIGURATION_KEY_REQUEST_COMPRESSION = "requestCompression";
+    public static final String CONFIGURATION_KEY_RESPONSE_COMPRESSION = "responseCompression";
+    public static final String CONFIGURATION_KEY_HASH_ALGORITHM_PROVIDERS = "hashAlgorithmProviders";
+    public static final String CONFIGURATION_KEY_MAX_ATTEMPTS = "maxAttempts";
+    public static final String CONFIGURATION_KEY_RETRY_BACKOFF = "retryBackoff";
+    public static final String CONFIGURATION_KEY_RETRY_MAX_BACKOFF = "retryMaxBackoff";
+    public static final String CONFIGURATION_KEY_RETRY_BUDGET_RATIO = "retryBudgetRatio";
+    public static final String CONFIGURATION_KEY_CIRCUIT_BREAKER_FAILURE_RATIO = "circuitBreakerFailureRatio";
+    public static final String CONFIGURATION_KEY_CIRCUIT_BREAKER_WINDOW_SIZE = "circuitBreakerWindowSize";
+    public static final String CONFIGURATION_KEY_CIRCUIT_BREAKER_OPEN_DURATION = "circuitBreakerOpenDuration";
+    public static final String CONFIGURATION_KEY_SLOW_CALL_THRESHOLD = "slowCallThreshold";
+    public static final String CONFIGURATION_KEY_ADAPTIVE_MAX_CONCURRENT_REQUESTS = "adaptiveMaxConcurrentRequests";
+    public static final String CONFIGURATION_KEY_HEDGED_RESOURCES = "hedgedResources";
+    public static final String CONFIGURATION_KEY_HEDGE_DELAY_PERCENTILE = "hedgeDelayPercentile";
+    public static final String CONFIGURATION_KEY_HEDGE_BUDGET_RATIO = "hedgeBudgetRatio";
+    public static final String CONFIGURATION_KEY_COALESCED_RESOURCES = "coalescedResources";
+    public static final String CONFIGURATION_KEY_COALESCING_CACHE_DURATION = "coalescingCacheDuration";
+    public static final String CONFIGURATION_KEY_HEALTH_CHECK_INTERVAL = "healthCheckInterval";
 
     //All bean elements
     private String username;
@@ -35,5 +58,25 @@ public class ClientConfiguration {
     private String connectionTimeout;
     private String requestTimeout;
     private String hashKey;
+    private String maxConcurrentRequests;
+    private String requestStreamingMode;
+    private String requestCompression;
+    private String responseCompression;
+    private String hashAlgorithmProviders;
+    private String maxAttempts;
+    private String retryBackoff;
+    private String retryMaxBackoff;
+    private String retryBudgetRatio;
+    private String circuitBreakerFailureRatio;
+    private String circuitBreakerWindowSize;
+    private String circuitBreakerOpenDuration;
+    private String slowCallThreshold;
+    private String adaptiveMaxConcurrentRequests;
+    private String hedgedResources;
+    private String hedgeDelayPercentile;
+    private String hedgeBudgetRatio;
+    private String coalescedResources;
+    private String coalescingCacheDuration;
+    private String healthCheckInterval;
 }
 
@@ -0,0 +1,45 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * <p>
+ * Source of the default configuration, used by the calls that do not override it with a {@link ClientConfiguration}.</p>
+ * <p>
+ * The parameters it returns override the ones of the api-client-configuration-default.properties file. By default,
+ * they are read from the api-client-configuration.properties file of the classpath. The source is read again each
+ * time the configuration is reloaded with {@link Client#reloadConfiguration()}.</p>
+ *
+ * @author Lyra Network
+ */
+@FunctionalInterface
+public interface ClientConfigurationSource {
+
+    /**
+     * Reads the configuration parameters.
+     *
+     * @return the parameters, by name
+     * @throws IOException if the parameters cannot be read
+     */
+    Properties load() throws IOException;
+
+    /**
+     * Returns a source reading a properties file.
+     *
+     * @param file the properties file
+     * @return {@link ClientConfigurationSource} reading the file each time it is loaded
+     */
+    static ClientConfigurationSource file(Path file) {
+        return () -> {
+            Properties properties = new Properties();
+            try (InputStream input = Files.newInputStream(file)) {
+                properties.load(input);
+            }
+            return properties;
+        };
+    }
+}
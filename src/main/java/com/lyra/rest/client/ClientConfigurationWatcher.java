@@ -0,0 +1,110 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Watches a properties file and reloads the default configuration each time the file changes, so that new
+ * credentials, hash keys or timeouts are used without restarting the application.</p>
+ * <pre>
+ * ClientConfigurationWatcher watcher = ClientConfigurationWatcher.watch(Paths.get("/etc/payment/api-client.properties"));
+ * ...
+ * watcher.close();
+ * </pre>
+ * <p>
+ * The file becomes the {@link ClientConfigurationSource} of the default configuration. Its changes are detected by a
+ * {@link WatchService} on a daemon thread. If the file cannot be read, for example while it is being written, the
+ * previous configuration is kept until the next change.</p>
+ *
+ * @author Lyra Network
+ */
+public class ClientConfigurationWatcher implements AutoCloseable {
+    //Delay during which the events of a same change are merged, as files are often written in several steps
+    private static final long SETTLE_DELAY = 100;
+
+    private final Path file;
+    private final WatchService watchService;
+
+    private ClientConfigurationWatcher(Path file) throws IOException {
+        this.file = file;
+        this.watchService = file.getFileSystem().newWatchService();
+        file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(this::watch, "rest-api-configuration-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Sets the provided file as the source of the default configuration, and reloads the configuration each time
+     * the file changes.
+     *
+     * @param file the properties file
+     * @return {@link ClientConfigurationWatcher} to close in order to stop watching the file
+     * @throws ClientException if the file cannot be read or watched
+     */
+    public static ClientConfigurationWatcher watch(Path file) {
+        Path absoluteFile = file.toAbsolutePath();
+        Client.setConfigurationSource(ClientConfigurationSource.file(absoluteFile));
+        try {
+            return new ClientConfigurationWatcher(absoluteFile);
+        } catch (IOException ioe) {
+            throw new ClientException("Could not watch configuration file " + file, ioe);
+        }
+    }
+
+    /**
+     * Stops watching the file. The last configuration read is kept.
+     *
+     * @throws ClientException if the watch service cannot be closed
+     */
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException ioe) {
+            throw new ClientException("Exception closing configuration watcher", ioe);
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = isChanged(watchService.take());
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_DELAY, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= isChanged(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            //The watcher has been closed
+        }
+    }
+
+    private boolean isChanged(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context());
+        }
+        key.reset();
+        return changed;
+    }
+
+    private static void reload() {
+        try {
+            Client.reloadConfiguration();
+        } catch (ClientException ce) {
+            //The previous configuration is kept until the next change
+        }
+    }
+}
@@ -1,11 +1,5 @@
 package com.lyra.rest.client;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
-import java.util.Arrays;
-
 /**
  * This utility class allows to generate a hash the message returned by platform in order to validate its integrity.
  *
@@ -24,7 +18,9 @@ class ClientCryptUtil {
 
     //Supported algorithms
     static final String ALGORITHM_HMAC_SHA256 = "sha256_hmac";
-    static final String[] SUPPORTED_ALGORITHMS = {ALGORITHM_HMAC_SHA256};
+    static final String ALGORITHM_HMAC_SHA384 = "sha384_hmac";
+    static final String ALGORITHM_HMAC_SHA512 = "sha512_hmac";
+    static final String[] SUPPORTED_ALGORITHMS = {ALGORITHM_HMAC_SHA256, ALGORITHM_HMAC_SHA384, ALGORITHM_HMAC_SHA512};
 
     //Private constructor as all methods are static
     private ClientCryptUtil() {}
@@ -37,14 +33,16 @@ class ClientCryptUtil {
      * @return boolean true if the algorithm is supported
      */
     static boolean isAlgorithmSupported(String algorithm) {
-        return Arrays.asList(SUPPORTED_ALGORITHMS).contains(algorithm);
+        return ClientHashAlgorithm.forValue(algorithm) != null;
     }
 
     /**
-     * Calculate the hash of the specified string using the provided key and the HMAC SHA256 algorithm.
+     * Calculate the hash of the specified string using the provided key and algorithm. The HMAC SHA256 algorithm is
+     * used if the provided one is not recognized.
      *
-     * @param src Source string to calculateHash.
-     * @param key Key used to calculateHash.
+     * @param src       Source string to calculateHash.
+     * @param key       Key used to calculateHash.
+     * @param algorithm the kr-hash-algorithm value
      * @return Hash encoded in hexadecimal string.
      */
     static String calculateHash(String src, String key, String algorithm) {
@@ -62,12 +60,11 @@ class ClientCryptUtil {
             byte[] messageBytes = src.getBytes(DEFAULT_CHARSET_NAME);
             byte[] keyBytes = key.getBytes(DEFAULT_CHARSET_NAME);
 
-            switch (algorithm) {
-                case ALGORITHM_HMAC_SHA256:
-                    //Add new cases here
-                default:
-                    return new String(encodeHex(getHashHmacSha256(keyBytes, messageBytes), DIGITS_LOWER));
+            ClientHashAlgorithm hashAlgorithm = ClientHashAlgorithm.forValue(algorithm);
+            if (hashAlgorithm == null) {
+                hashAlgorithm = ClientHashAlgorithm.HMAC_SHA256;
             }
+            return encodeHex(hashAlgorithm.createMac(keyBytes, null).doFinal(messageBytes));
 
         } catch (Exception e) {
             throw new ClientException("Unexpected error generating message hash", e);
@@ -75,45 +72,22 @@ class ClientCryptUtil {
     }
 
     /**
-     * This method uses the JCE to provide the HMAC-SHA-256 algorithm. HMAC computes a Hashed Message Authentication Code and in
-     * this case SHA256 is the hash algorithm used.
-     *
-     * @param keyBytes the bytes to use for the HMAC-SHA-256 key
-     * @param text     the message or text to be authenticated.
-     * @throws NoSuchAlgorithmException if no provider makes either HmacSHA1 or HMAC-SHA-256 digest algorithms available.
-     * @throws InvalidKeyException      The secret provided was not a valid HMAC-SHA-256 key.
-     */
-    private static byte[] getHashHmacSha256(byte[] keyBytes, byte[] text) throws NoSuchAlgorithmException, InvalidKeyException {
-        Mac hmacSha256;
-        try {
-            hmacSha256 = Mac.getInstance("HmacSHA256");
-        } catch (NoSuchAlgorithmException nsae) {
-            hmacSha256 = Mac.getInstance("HMAC-SHA-256");
-        }
-        SecretKeySpec macKey = new SecretKeySpec(keyBytes, "RAW");
-        hmacSha256.init(macKey);
-
-        return hmacSha256.doFinal(text);
-    }
-
-    /**
-     * Converts an array of bytes into an array of characters representing the hexadecimal values of each byte in order.
-     * The returned array will be double the length of the passed array, as it takes two characters to represent any
+     * Converts an array of bytes into a String representing the hexadecimal values of each byte in order.
+     * The returned String will be double the length of the passed array, as it takes two characters to represent any
      * given byte.
      *
-     * @param data     a byte[] to convert to Hex characters
-     * @param toDigits the output alphabet
-     * @return A char[] containing hexadecimal characters
+     * @param data a byte[] to convert to Hex characters
+     * @return A String containing lower case hexadecimal characters
      */
-    private static char[] encodeHex(byte[] data, char[] toDigits) {
+    static String encodeHex(byte[] data) {
         int l = data.length;
         char[] out = new char[l << 1];
         // two characters form the hex value.
         for (int i = 0, j = 0; i < l; i++) {
-            out[j++] = toDigits[(0xF0 & data[i]) >>> 4];
-            out[j++] = toDigits[0x0F & data[i]];
+            out[j++] = DIGITS_LOWER[(0xF0 & data[i]) >>> 4];
+            out[j++] = DIGITS_LOWER[0x0F & data[i]];
         }
-        return out;
+        return new String(out);
     }
 }
 
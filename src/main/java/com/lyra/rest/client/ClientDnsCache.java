@@ -0,0 +1,119 @@
+package com.lyra.rest.client;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.Security;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache of the addresses of the payment platform servers, with its own time to live rather than the JVM-wide
+ * networkaddress.cache.ttl security property. <p>
+ *
+ * Servers are resolved with {@link InetAddress}, whose own cache still applies: the addresses can be kept longer than
+ * the JVM keeps them, but not resolved more often. A time to live shorter than networkaddress.cache.ttl (30 seconds by
+ * default) is therefore rejected instead of being silently ignored. <p>
+ *
+ * Only the first resolution of a server is performed by the caller. Once expired, the addresses are still returned
+ * while they are resolved again in the background, so that calls never wait for the DNS. If the server cannot be
+ * resolved anymore, the last addresses are kept for another time to live. At most {@link #MAX_HOSTS} servers are
+ * cached.
+ *
+ * @author Lyra Network
+ */
+class ClientDnsCache {
+    static final int MAX_HOSTS = 256;
+    //Time to live of the JVM cache when networkaddress.cache.ttl is not set and no security manager is installed
+    static final long DEFAULT_JVM_CACHE_TTL = 30000;
+
+    private static final ExecutorService REFRESHER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rest-api-client-dns");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long ttl;
+    private final ConcurrentMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl time in milliseconds during which resolved addresses are used without being resolved again
+     * @throws IllegalArgumentException if the time to live is shorter than the one of the JVM cache, as it could not
+     *                                  take effect
+     */
+    ClientDnsCache(long ttl) {
+        long jvmCacheTtl = getJvmCacheTtl();
+        if (jvmCacheTtl < 0 || ttl < jvmCacheTtl) {
+            throw new IllegalArgumentException("DNS cache time to live of " + ttl + " ms cannot be shorter than the "
+                    + "networkaddress.cache.ttl of the JVM: " + (jvmCacheTtl < 0 ? "forever" : jvmCacheTtl + " ms"));
+        }
+        this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+    }
+
+    /**
+     * Returns the time during which the JVM caches the addresses it resolves, read the way {@link InetAddress} does.
+     *
+     * @return the time to live in milliseconds, or -1 if addresses are cached forever
+     */
+    static long getJvmCacheTtl() {
+        String ttl = Security.getProperty("networkaddress.cache.ttl");
+        if (ttl == null) {
+            ttl = System.getProperty("sun.net.inetaddr.ttl");
+        }
+        if (ttl != null) {
+            try {
+                long seconds = Long.parseLong(ttl.trim());
+                return seconds < 0 ? -1 : TimeUnit.SECONDS.toMillis(seconds);
+            } catch (NumberFormatException nfe) {
+                //Ignored by the JVM as well
+            }
+        }
+        return System.getSecurityManager() == null ? DEFAULT_JVM_CACHE_TTL : -1;
+    }
+
+    /**
+     * @param host the server name
+     * @return the addresses of the server
+     * @throws UnknownHostException if the server has never been resolved and cannot be resolved
+     */
+    InetAddress[] resolve(String host) throws UnknownHostException {
+        Entry entry = entries.get(host);
+        if (entry == null) {
+            InetAddress[] addresses = InetAddress.getAllByName(host);
+            if (entries.size() < MAX_HOSTS) {
+                entries.put(host, new Entry(addresses, System.nanoTime() + ttl));
+            }
+            return addresses;
+        }
+
+        if (System.nanoTime() - entry.expiration >= 0 && entry.refreshing.compareAndSet(false, true)) {
+            REFRESHER.execute(() -> refresh(host, entry));
+        }
+        return entry.addresses.clone();
+    }
+
+    private void refresh(String host, Entry entry) {
+        InetAddress[] addresses;
+        try {
+            addresses = InetAddress.getAllByName(host);
+        } catch (UnknownHostException | RuntimeException e) {
+            addresses = entry.addresses;
+        }
+        entries.replace(host, entry, new Entry(addresses, System.nanoTime() + ttl));
+    }
+
+    private static final class Entry {
+        private final InetAddress[] addresses;
+        //Time after which the addresses are resolved again, from System.nanoTime()
+        private final long expiration;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        Entry(InetAddress[] addresses, long expiration) {
+            this.addresses = addresses;
+            this.expiration = expiration;
+        }
+    }
+}
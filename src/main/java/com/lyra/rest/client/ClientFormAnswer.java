@@ -0,0 +1,204 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonParseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>
+ * Answer of the payment platform received as an application/x-www-form-urlencoded body, for example in an IPN call,
+ * whose integrity has been checked.</p>
+ * <p>
+ * The answer is verified from the raw body, without decoding it as Strings: the kr-answer, kr-hash and
+ * kr-hash-algorithm fields are located in a single pass, and the kr-answer field is percent-decoded directly into
+ * the Mac. The JSON answer is only parsed on demand, once its integrity has been verified. The body must therefore
+ * not be modified while this answer is used.</p>
+ *
+ * @author Lyra Network
+ */
+public class ClientFormAnswer {
+    private static final byte[] FIELD_ANSWER = "kr-answer".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIELD_HASH = "kr-hash".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FIELD_HASH_ALGORITHM = "kr-hash-algorithm".getBytes(StandardCharsets.US_ASCII);
+
+    private final ByteBuffer form;
+    //Bounds of the encoded kr-answer value in the form
+    private final int answerStart;
+    private final int answerEnd;
+    private final boolean valid;
+
+    private ClientFormAnswer(ByteBuffer form, int answerStart, int answerEnd, boolean valid) {
+        this.form = form;
+        this.answerStart = answerStart;
+        this.answerEnd = answerEnd;
+        this.valid = valid;
+    }
+
+    /**
+     * @return true if the integrity of the answer is valid
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Parses the JSON answer, directly from the form body.
+     *
+     * @param type the type of the answer, for example {@link com.google.gson.JsonObject}
+     * @param <T>  the type of the answer
+     * @return the answer
+     * @throws ClientException if the integrity of the answer is not valid, or if the answer cannot be parsed
+     */
+    public <T> T getAnswer(Class<T> type) {
+        return getAnswer((Type) type);
+    }
+
+    /**
+     * Parses the JSON answer, directly from the form body.
+     *
+     * @param type the type of the answer
+     * @param <T>  the type of the answer
+     * @return the answer
+     * @throws ClientException if the integrity of the answer is not valid, or if the answer cannot be parsed
+     */
+    public <T> T getAnswer(Type type) {
+        if (!valid) {
+            throw new ClientException("The integrity of the answer is not valid. It must not be used");
+        }
+        try {
+            return Client.GSON.fromJson(Client.GSON.newJsonReader(new InputStreamReader(
+                    new FormValue(form, answerStart, answerEnd), StandardCharsets.UTF_8)), type);
+        } catch (JsonParseException jpe) {
+            throw new ClientException("Invalid JSON answer", jpe);
+        }
+    }
+
+    /*
+    Verifies the form body with the provided verifier, as Client.verifyAnswer does with the decoded fields
+     */
+    static ClientFormAnswer verify(ByteBuffer body, ClientAnswerVerifier verifier) {
+        ByteBuffer form = body.slice();
+        int[] answer = null;
+        int[] hash = null;
+        int[] hashAlgorithm = null;
+
+        //Locate the fields
+        int limit = form.limit();
+        int start = 0;
+        while (start < limit) {
+            int end = indexOf(form, (byte) '&', start, limit);
+            int separator = indexOf(form, (byte) '=', start, end);
+            if (separator < end) {
+                int[] value = {separator + 1, end};
+                if (matches(form, start, separator, FIELD_ANSWER)) {
+                    answer = value;
+                } else if (matches(form, start, separator, FIELD_HASH)) {
+                    hash = value;
+                } else if (matches(form, start, separator, FIELD_HASH_ALGORITHM)) {
+                    hashAlgorithm = value;
+                }
+            }
+            start = end + 1;
+        }
+
+        try {
+            ClientHashAlgorithm algorithm = hashAlgorithm != null
+                    ? ClientHashAlgorithm.forValue(decode(form, hashAlgorithm)) : null;
+            if (algorithm == null) {
+                throw new ClientException("Signature algorithm not supported. Make sure you are using the last version of this SDK");
+            }
+
+            //Check hash
+            boolean valid = verifier.verify(answer != null ? new FormValue(form, answer[0], answer[1]) : null,
+                    algorithm, hash != null ? decode(form, hash) : null);
+            return new ClientFormAnswer(form, answer[0], answer[1], valid);
+        } catch (IOException ioe) {
+            throw new ClientException("Invalid form encoded answer", ioe);
+        }
+    }
+
+    private static int indexOf(ByteBuffer form, byte b, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (form.get(i) == b) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static boolean matches(ByteBuffer form, int start, int end, byte[] name) {
+        if (end - start != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (form.get(start + i) != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    //Short values, such as the hash and its algorithm, are decoded as Strings
+    private static String decode(ByteBuffer form, int[] bounds) throws IOException {
+        FormValue value = new FormValue(form, bounds[0], bounds[1]);
+        StringBuilder decoded = new StringBuilder(bounds[1] - bounds[0]);
+        for (int b = value.read(); b != -1; b = value.read()) {
+            decoded.append((char) b);
+        }
+        return decoded.toString();
+    }
+
+    /*
+    Stream of the bytes of a form value, decoded while they are read: '+' is decoded as a space and %XX as the byte XX
+     */
+    static final class FormValue extends InputStream {
+        private final ByteBuffer form;
+        private final int end;
+        private int position;
+
+        FormValue(ByteBuffer form, int start, int end) {
+            this.form = form;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            byte b = form.get(position++);
+            if (b == '+') {
+                return ' ';
+            } else if (b != '%') {
+                return b & 0xFF;
+            }
+
+            int high = position + 1 < end ? Character.digit(form.get(position), 16) : -1;
+            int low = high >= 0 ? Character.digit(form.get(position + 1), 16) : -1;
+            if (low < 0) {
+                throw new IOException("Invalid percent encoding at index " + (position - 1));
+            }
+            position += 2;
+            return high << 4 | low;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int count = 0;
+            int read;
+            while (count < len && (read = read()) != -1) {
+                b[off + count++] = (byte) read;
+            }
+            return count > 0 ? count : -1;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.lyra.rest.client;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Registry of the hash algorithms that can be used by the payment platform to sign its answers, by kr-hash-algorithm
+ * value. <p>
+ *
+ * Each algorithm creates its {@link Mac} from the JCE provider chosen in the configuration, or from the first provider
+ * supporting it.
+ *
+ * @author Lyra Network
+ */
+enum ClientHashAlgorithm {
+    HMAC_SHA256(ClientCryptUtil.ALGORITHM_HMAC_SHA256, "HmacSHA256", "HMAC-SHA-256"),
+    HMAC_SHA384(ClientCryptUtil.ALGORITHM_HMAC_SHA384, "HmacSHA384", "HMAC-SHA-384"),
+    HMAC_SHA512(ClientCryptUtil.ALGORITHM_HMAC_SHA512, "HmacSHA512", "HMAC-SHA-512");
+
+    //Algorithms by kr-hash-algorithm value
+    private static final Map<String, ClientHashAlgorithm> ALGORITHMS = new HashMap<>();
+
+    static {
+        for (ClientHashAlgorithm algorithm : values()) {
+            ALGORITHMS.put(algorithm.value, algorithm);
+        }
+    }
+
+    private final String value;
+    private final String macAlgorithm;
+    private final String macAlgorithmAlias;
+
+    ClientHashAlgorithm(String value, String macAlgorithm, String macAlgorithmAlias) {
+        this.value = value;
+        this.macAlgorithm = macAlgorithm;
+        this.macAlgorithmAlias = macAlgorithmAlias;
+    }
+
+    /**
+     * Returns the algorithm of the provided kr-hash-algorithm value
+     *
+     * @param value the kr-hash-algorithm value
+     * @return the {@link ClientHashAlgorithm}, or null if it is not supported
+     */
+    static ClientHashAlgorithm forValue(String value) {
+        return value != null ? ALGORITHMS.get(value) : null;
+    }
+
+    /**
+     * Creates a {@link Mac} of this algorithm. The returned Mac can be reused for several messages with the same key.
+     *
+     * @param keyBytes the bytes to use for the key
+     * @param provider the JCE provider to use. If null, the first provider supporting the algorithm is used
+     * @return the Mac initialized with the key
+     * @throws NoSuchAlgorithmException if the provider does not support the algorithm
+     * @throws InvalidKeyException      The secret provided was not a valid key.
+     */
+    Mac createMac(byte[] keyBytes, Provider provider) throws NoSuchAlgorithmException, InvalidKeyException {
+        Mac mac;
+        try {
+            mac = provider != null ? Mac.getInstance(macAlgorithm, provider) : Mac.getInstance(macAlgorithm);
+        } catch (NoSuchAlgorithmException nsae) {
+            mac = provider != null ? Mac.getInstance(macAlgorithmAlias, provider) : Mac.getInstance(macAlgorithmAlias);
+        }
+        mac.init(new SecretKeySpec(keyBytes, "RAW"));
+        return mac;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,249 @@
+package com.lyra.rest.client;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sends a second, hedged call to a payment platform server when the first one has not answered within a percentile
+ * of the recent latencies of the resource, so that a single slow node does not set the tail latency. <p>
+ *
+ * Only the idempotent resources set in the configuration are hedged. The first answer wins and the other call is
+ * aborted. Hedged calls are limited to a ratio of the calls by a {@link ClientRetryBudget}, so that they do not
+ * multiply the load of a degraded platform. No call is hedged until enough latencies have been recorded. <p>
+ *
+ * The calling thread performs the first call, and hedged calls are performed by a pool of daemon threads sized from
+ * the max concurrent calls and the budget ratio. A call is not hedged while all these threads are busy.
+ *
+ * @author Lyra Network
+ */
+class ClientHedgePolicy {
+    //Policies are shared by all the calls to the same server with the same settings, so are their latencies
+    private static final SharedInstances<ClientHedgePolicy> POLICIES = new SharedInstances<>();
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1,
+            runnable -> newDaemonThread(runnable, "rest-api-client-hedge-timer"));
+
+    //Request marking a call whose first attempt has ended, so that no hedged call is started anymore
+    private static final ClientRequest ENDED = ClientRequest.builder().build();
+
+    static {
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final Set<ClientResource> resources;
+    private final ClientRetryBudget budget;
+    private final Map<ClientResource, LatencyWindow> latencies;
+    private final ExecutorService hedges;
+    //Threads of the pool not performing a hedged call, so that hedged calls never wait in its queue
+    private final Semaphore idleThreads;
+
+    /**
+     * @param resources          the hedged resources, all idempotent
+     * @param percentile         percentile of the latencies, between 0 and 100, after which a call is hedged
+     * @param budgetRatio        max ratio of hedged calls to calls
+     * @param maxConcurrentCalls max concurrent calls to the servers, 0 if unlimited
+     */
+    ClientHedgePolicy(Set<ClientResource> resources, double percentile, double budgetRatio, int maxConcurrentCalls) {
+        this.resources = resources;
+        this.budget = new ClientRetryBudget(budgetRatio);
+        int threads = Math.max(1, (int) Math.ceil(budgetRatio
+                * (maxConcurrentCalls > 0 ? maxConcurrentCalls : RestApiClient.DEFAULT_MAX_THREADS)));
+        this.hedges = RestApiClient.newExecutor(threads,
+                runnable -> newDaemonThread(runnable, "rest-api-client-hedge-" + THREAD_COUNTER.incrementAndGet()));
+        this.idleThreads = new Semaphore(threads);
+        Map<ClientResource, LatencyWindow> windows = new EnumMap<>(ClientResource.class);
+        for (ClientResource resource : resources) {
+            windows.put(resource, new LatencyWindow(percentile));
+        }
+        this.latencies = Collections.unmodifiableMap(windows);
+    }
+
+    /**
+     * Returns the policy for the provided server and settings. Calls with other settings get their own policy.
+     *
+     * @param restApiServerName  the server to call
+     * @param resources          the hedged resources, all idempotent
+     * @param percentile         percentile of the latencies, between 0 and 100, after which a call is hedged
+     * @param budgetRatio        max ratio of hedged calls to calls
+     * @param maxConcurrentCalls max concurrent calls to the servers, 0 if unlimited
+     * @return {@link ClientHedgePolicy} shared by all the calls to the server with the same settings
+     */
+    static ClientHedgePolicy forServer(String restApiServerName, Set<ClientResource> resources, double percentile,
+                                       double budgetRatio, int maxConcurrentCalls) {
+        return POLICIES.get(SharedInstances.key(restApiServerName, resources, percentile, budgetRatio, maxConcurrentCalls),
+                () -> new ClientHedgePolicy(resources, percentile, budgetRatio, maxConcurrentCalls));
+    }
+
+    /**
+     * @param resource the resource to call, may be null
+     * @return true if the calls to this resource are hedged
+     */
+    boolean isHedged(ClientResource resource) {
+        return resource != null && resources.contains(resource);
+    }
+
+    /**
+     * Performs a call, hedged if it has not answered after the percentile of the recent latencies.
+     *
+     * @param resource the hedged resource
+     * @param request  the request of the first call
+     * @param requests supplier of the request of the hedged call
+     * @param caller   function performing a call
+     * @param <T>      the type of the result
+     * @return the result of the first successful call
+     * @throws ClientException if the first call fails and the hedged call, if any, fails too
+     */
+    <T> T call(ClientResource resource, ClientRequest request, Supplier<ClientRequest> requests,
+               Function<ClientRequest, T> caller) {
+        budget.deposit();
+        LatencyWindow window = latencies.get(resource);
+        long delay = window.getThreshold();
+        long start = System.nanoTime();
+        if (delay < 0) {
+            T result = caller.apply(request);
+            window.record(System.nanoTime() - start);
+            return result;
+        }
+
+        Hedge<T> hedge = new Hedge<>(request, requests, caller);
+        ScheduledFuture<?> timer = TIMER.schedule(hedge, delay, TimeUnit.NANOSECONDS);
+        try {
+            T result = caller.apply(request);
+            window.record(System.nanoTime() - start);
+            timer.cancel(false);
+            ClientRequest hedgeRequest = hedge.end();
+            if (hedgeRequest != null) {
+                //The hedged call lost
+                hedgeRequest.cancel();
+            }
+            return result;
+        } catch (ClientException ce) {
+            timer.cancel(false);
+            if (request.isCancelled()) {
+                //The first call was aborted as the hedged one won
+                window.record(System.nanoTime() - start);
+            }
+            if (hedge.end() == null) {
+                throw ce;
+            }
+            try {
+                return hedge.result.join();
+            } catch (CompletionException e) {
+                ce.addSuppressed(e.getCause());
+                throw ce;
+            }
+        }
+    }
+
+    private static Thread newDaemonThread(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /*
+    Hedged call, started by the timer unless the first call has ended or all the hedge threads are busy
+     */
+    private final class Hedge<T> implements Runnable {
+        private final ClientRequest firstRequest;
+        private final Supplier<ClientRequest> requests;
+        private final Function<ClientRequest, T> caller;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        //Null until the hedged call is started, or ENDED if the first call ends before
+        private final AtomicReference<ClientRequest> request = new AtomicReference<>();
+
+        Hedge(ClientRequest firstRequest, Supplier<ClientRequest> requests, Function<ClientRequest, T> caller) {
+            this.firstRequest = firstRequest;
+            this.requests = requests;
+            this.caller = caller;
+        }
+
+        @Override
+        public void run() {
+            if (request.get() != null || !idleThreads.tryAcquire()) {
+                return;
+            }
+            ClientRequest hedgeRequest = budget.tryWithdraw() ? requests.get() : null;
+            if (hedgeRequest == null || !request.compareAndSet(null, hedgeRequest)) {
+                idleThreads.release();
+                return;
+            }
+            hedges.execute(() -> {
+                try {
+                    if (result.complete(caller.apply(hedgeRequest))) {
+                        //The first call lost
+                        firstRequest.cancel();
+                    }
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    idleThreads.release();
+                }
+            });
+        }
+
+        /*
+        Ends the first call. Returns the request of the hedged call if it was started
+         */
+        ClientRequest end() {
+            ClientRequest hedgeRequest = request.getAndSet(ENDED);
+            return hedgeRequest != ENDED ? hedgeRequest : null;
+        }
+    }
+
+    /*
+    Latencies of the last calls to a resource, in nanoseconds. The threshold is computed again every few records
+     */
+    static final class LatencyWindow {
+        static final int SIZE = 256;
+        static final int MIN_RECORDS = 32;
+        private static final int REFRESH_INTERVAL = 32;
+
+        private final double percentile;
+        private final AtomicLongArray durations = new AtomicLongArray(SIZE);
+        private final AtomicLong records = new AtomicLong();
+        private volatile long threshold = -1;
+
+        LatencyWindow(double percentile) {
+            this.percentile = percentile;
+        }
+
+        void record(long duration) {
+            long count = records.incrementAndGet();
+            durations.set((int) ((count - 1) & (SIZE - 1)), duration);
+            if (count >= MIN_RECORDS && count % REFRESH_INTERVAL == 0) {
+                int size = (int) Math.min(count, SIZE);
+                long[] sorted = new long[size];
+                for (int i = 0; i < size; i++) {
+                    sorted[i] = durations.get(i);
+                }
+                Arrays.sort(sorted);
+                threshold = sorted[Math.max(Math.min((int) Math.ceil(percentile / 100 * size), size), 1) - 1];
+            }
+        }
+
+        /*
+        Returns -1 until enough latencies have been recorded
+         */
+        long getThreshold() {
+            return threshold;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.lyra.rest.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of durations in nanoseconds, recording values without locking nor allocation. <p>
+ *
+ * As in HdrHistogram, values are counted in buckets whose width doubles with each power of two, each power of two
+ * being split in 16 buckets. Percentiles are then computed with a relative error under 6.25%, whatever the range
+ * of the values, with a fixed memory footprint.
+ *
+ * @author Lyra Network
+ */
+public class ClientLatencyHistogram {
+    //Buckets per power of two, as a power of two
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (63 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration. Negative durations are ignored.
+     *
+     * @param duration the duration in nanoseconds
+     */
+    public void record(long duration) {
+        if (duration < 0) {
+            return;
+        }
+        counts.incrementAndGet(getBucket(duration));
+        count.increment();
+        sum.add(duration);
+        if (duration > max.get()) {
+            max.accumulateAndGet(duration, Math::max);
+        }
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the max recorded duration in nanoseconds, 0 if none
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded durations in nanoseconds, 0 if none
+     */
+    public long getMean() {
+        long recorded = count.sum();
+        return recorded > 0 ? sum.sum() / recorded : 0;
+    }
+
+    /**
+     * Returns the duration under which the provided percentage of the recorded durations are.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration in nanoseconds, 0 if none was recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long recorded = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            recorded += snapshot[i];
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long target = Math.max((long) Math.ceil(percentile / 100 * recorded), 1);
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += snapshot[i];
+            if (cumulated >= target) {
+                return Math.min(getUpperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /* Values under SUB_BUCKETS have their own bucket, others share a bucket with values of the same top bits */
+    static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long getUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
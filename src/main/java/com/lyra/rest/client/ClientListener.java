@@ -0,0 +1,33 @@
+package com.lyra.rest.client;
+
+/**
+ * <p>
+ * Listener notified of the HTTP calls performed by a {@link RestApiClient}, in order to record metrics or traces.</p>
+ * <p>
+ * It is set when building a {@link RestApiClient}. Clients without listener do not measure anything, so that calls
+ * pay no overhead. {@link ClientMetrics} provides a default implementation without any dependency, and other metrics
+ * or tracing libraries can be bound by implementing this interface.</p>
+ * <p>
+ * Listeners are called from the threads performing the calls, so they must be thread-safe and should not block.
+ * Exceptions thrown by listeners are ignored.</p>
+ *
+ * @author Lyra Network
+ */
+public interface ClientListener {
+
+    /**
+     * Called before a call is sent to the payment platform. Each call, including retried and hedged ones, is notified.
+     *
+     * @param request the request to send
+     */
+    default void onCallStart(ClientRequest request) {
+    }
+
+    /**
+     * Called once a call has ended, after its response has been read or its failure.
+     *
+     * @param event the measures of the call
+     */
+    default void onCallEnd(ClientCallEvent event) {
+    }
+}
@@ -0,0 +1,163 @@
+package com.lyra.rest.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * {@link ClientListener} recording the metrics of the calls in memory, without any dependency.</p>
+ * <pre>
+ * ClientMetrics metrics = new ClientMetrics();
+ * RestApiClient client = RestApiClient.builder().listener(metrics).build();
+ * ...
+ * long p99 = metrics.getResource(ClientResource.CREATE_PAYMENT.toString()).getTotalTime().getPercentile(99);
+ * </pre>
+ * <p>
+ * Metrics are kept per resource, and can be exported periodically to any monitoring system.</p>
+ *
+ * @author Lyra Network
+ */
+public class ClientMetrics implements ClientListener {
+    //Max number of distinct resources whose metrics are kept
+    private static final int MAX_RESOURCES = 64;
+
+    private final ConcurrentMap<String, Resource> resources = new ConcurrentHashMap<>();
+    private final AtomicInteger maxLeasedConnections = new AtomicInteger();
+    private volatile ClientPoolStats poolStats;
+
+    @Override
+    public void onCallEnd(ClientCallEvent event) {
+        String name = String.valueOf(event.getResource());
+        Resource resource = resources.get(name);
+        if (resource == null) {
+            if (resources.size() >= MAX_RESOURCES) {
+                return;
+            }
+            resource = resources.computeIfAbsent(name, key -> new Resource());
+        }
+        resource.record(event);
+
+        ClientPoolStats stats = event.getPoolStats();
+        if (stats != null) {
+            poolStats = stats;
+            if (stats.getLeased() > maxLeasedConnections.get()) {
+                maxLeasedConnections.accumulateAndGet(stats.getLeased(), Math::max);
+            }
+        }
+    }
+
+    /**
+     * @param resource the resource, see {@link ClientResource}
+     * @return the metrics of the resource, or null if it has not been called
+     */
+    public Resource getResource(String resource) {
+        return resources.get(resource);
+    }
+
+    /**
+     * @return the metrics of all the called resources, by resource
+     */
+    public Map<String, Resource> getResources() {
+        return Collections.unmodifiableMap(new TreeMap<>(resources));
+    }
+
+    /**
+     * @return the statistics of the connection pool during the last call, or null if the transport does not pool
+     * connections
+     */
+    public ClientPoolStats getPoolStats() {
+        return poolStats;
+    }
+
+    /**
+     * @return the max number of leased connections observed during a call
+     */
+    public int getMaxLeasedConnections() {
+        return maxLeasedConnections.get();
+    }
+
+    /**
+     * Metrics of the calls to a resource. Durations are expressed in nanoseconds and sizes in bytes.
+     */
+    public static class Resource {
+        private final LongAdder calls = new LongAdder();
+        //Calls without a 200 response, including cancelled ones
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder requestBytes = new LongAdder();
+        private final LongAdder responseBytes = new LongAdder();
+        private final ClientLatencyHistogram connectTime = new ClientLatencyHistogram();
+        private final ClientLatencyHistogram firstByteTime = new ClientLatencyHistogram();
+        private final ClientLatencyHistogram totalTime = new ClientLatencyHistogram();
+        private final ConcurrentMap<Integer, LongAdder> statusCodes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, LongAdder> exceptions = new ConcurrentHashMap<>();
+
+        void record(ClientCallEvent event) {
+            calls.increment();
+            if (!event.isSuccess()) {
+                failures.increment();
+            }
+            requestBytes.add(event.getRequestSize());
+            responseBytes.add(event.getResponseSize());
+            connectTime.record(event.getConnectTime());
+            firstByteTime.record(event.getFirstByteTime());
+            totalTime.record(event.getTotalTime());
+            if (event.getStatusCode() > 0) {
+                statusCodes.computeIfAbsent(event.getStatusCode(), key -> new LongAdder()).increment();
+            }
+            if (event.getException() != null) {
+                exceptions.computeIfAbsent(event.getException().getClass().getName(), key -> new LongAdder()).increment();
+            }
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.sum();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+
+        public ClientLatencyHistogram getConnectTime() {
+            return connectTime;
+        }
+
+        public ClientLatencyHistogram getFirstByteTime() {
+            return firstByteTime;
+        }
+
+        public ClientLatencyHistogram getTotalTime() {
+            return totalTime;
+        }
+
+        /**
+         * @return the number of calls, by HTTP status code
+         */
+        public Map<Integer, Long> getStatusCodeCounts() {
+            Map<Integer, Long> counts = new TreeMap<>();
+            statusCodes.forEach((status, count) -> counts.put(status, count.sum()));
+            return counts;
+        }
+
+        /**
+         * @return the number of failed calls without response, by exception class name
+         */
+        public Map<String, Long> getExceptionCounts() {
+            Map<String, Long> counts = new TreeMap<>();
+            exceptions.forEach((exception, count) -> counts.put(exception, count.sum()));
+            return counts;
+        }
+    }
+}
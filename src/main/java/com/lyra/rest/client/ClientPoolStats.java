@@ -0,0 +1,29 @@
+package com.lyra.rest.client;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Snapshot of the state of a connection pool.
+ *
+ * @author Lyra Network
+ */
+@Getter
+@ToString
+public class ClientPoolStats {
+    //Connections currently used by a request
+    private final int leased;
+    //Idle connections ready to be reused
+    private final int available;
+    //Requests waiting for a connection
+    private final int pending;
+    //Maximum number of connections
+    private final int max;
+
+    public ClientPoolStats(int leased, int available, int pending, int max) {
+        this.leased = leased;
+        this.available = available;
+        this.pending = pending;
+        this.max = max;
+    }
+}
@@ -0,0 +1,302 @@
+package com.lyra.rest.client;
+
+import lombok.Builder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Registry of {@link RestApiClient} by merchant, for applications performing calls on behalf of many shops.</p>
+ * <pre>
+ * ClientRegistry registry = ClientRegistry.builder()
+ *         .configurationLoader(merchantId -&gt; loadConfiguration(merchantId))
+ *         .transport(PooledClientTransport.builder().build())
+ *         .maxConcurrentRequestsPerMerchant(20)
+ *         .build();
+ * ...
+ * String result = registry.getClient(merchantId).post(ClientResource.CREATE_PAYMENT.toString(), parameters);
+ * </pre>
+ * <p>
+ * The client of a merchant is created on first use from the configuration returned by the loader, so that its
+ * configuration is resolved, its authorization header built and its hash key initialized only once. All the
+ * clients share the transport, and so its connection pool, as well as the executor and the listener of the
+ * registry. The concurrent calls of each merchant can be limited, so that a single merchant cannot use all the
+ * connections of the pool. A call waits for the quota of its merchant before taking any capacity of the server, so
+ * that a merchant over its quota does not slow down the others.</p>
+ * <p>
+ * Clients not used during the idle timeout are evicted, as well as the least recently used ones once the max number
+ * of merchants is reached, so that memory stays bounded. They are created again on next use, with the configuration
+ * then returned by the loader. All durations are expressed in milliseconds.</p>
+ *
+ * @author Lyra Network
+ */
+public class ClientRegistry implements AutoCloseable {
+    static final int DEFAULT_MAX_MERCHANTS = 10000;
+    static final long DEFAULT_IDLE_TIMEOUT = 3600000;
+    //Max time between two evictions of idle merchants
+    private static final long EVICTION_INTERVAL = 1000;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Function<String, ClientConfiguration> configurationLoader;
+    private final ClientTransport transport;
+    private final Executor executor;
+    private final ClientListener listener;
+    private final int maxConcurrentRequestsPerMerchant;
+    private final int maxMerchants;
+    private final long idleTimeout;
+    private final long evictionInterval;
+
+    //Executor created by this registry, shut down on close
+    private final ExecutorService ownedExecutor;
+
+    private final ConcurrentMap<String, Merchant> merchants = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private volatile long nextEviction;
+
+    /**
+     * @param configurationLoader              function returning the configuration of a merchant, or null if the
+     *                                         merchant is unknown. Mandatory
+     * @param transport                        transport shared by all the merchants. By default a new connection is
+     *                                         opened per call
+     * @param executor                         executor that performs the asynchronous calls. By default a pool of
+     *                                         daemon threads, as many as the max connections of the transport
+     * @param listener                         listener notified of the calls of all the merchants. By default none
+     * @param maxConcurrentRequestsPerMerchant max concurrent calls of a merchant. By default not limited
+     * @param maxMerchants                     max number of merchants whose client is kept
+     * @param idleTimeout                      time after which the client of a merchant not used is evicted
+     */
+    @Builder
+    private ClientRegistry(Function<String, ClientConfiguration> configurationLoader, ClientTransport transport,
+                           Executor executor, ClientListener listener, int maxConcurrentRequestsPerMerchant,
+                           int maxMerchants, long idleTimeout) {
+        if (configurationLoader == null) {
+            throw new ClientException("A configuration loader is required to create a client registry");
+        }
+        this.configurationLoader = configurationLoader;
+        this.transport = transport != null ? transport : Client.DEFAULT_TRANSPORT;
+        this.listener = listener;
+        this.maxConcurrentRequestsPerMerchant = maxConcurrentRequestsPerMerchant;
+        this.maxMerchants = maxMerchants > 0 ? maxMerchants : DEFAULT_MAX_MERCHANTS;
+        this.idleTimeout = TimeUnit.MILLISECONDS.toNanos(idleTimeout > 0 ? idleTimeout : DEFAULT_IDLE_TIMEOUT);
+        this.evictionInterval = Math.min(this.idleTimeout, TimeUnit.MILLISECONDS.toNanos(EVICTION_INTERVAL));
+        this.nextEviction = System.nanoTime() + evictionInterval;
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            this.ownedExecutor = RestApiClient.newExecutor(RestApiClient.getMaxThreads(this.transport), runnable -> {
+                Thread thread = new Thread(runnable, "rest-api-registry-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        }
+    }
+
+    /**
+     * Returns the client of the provided merchant, creating it if necessary.
+     *
+     * @param merchantId the identifier of the merchant, as known by the configuration loader
+     * @return {@link RestApiClient} performing the calls with the configuration of the merchant. It must not be
+     * closed by the caller
+     * @throws ClientException if the merchant is unknown or its configuration is not valid
+     */
+    public RestApiClient getClient(String merchantId) {
+        long now = System.nanoTime();
+        Merchant merchant = merchantId != null ? merchants.get(merchantId) : null;
+        if (merchant == null) {
+            merchant = createMerchant(merchantId);
+            Merchant existing = merchants.putIfAbsent(merchantId, merchant);
+            if (existing != null) {
+                merchant = existing;
+            }
+        }
+        merchant.lastAccess = now;
+
+        if (now - nextEviction >= 0 || merchants.size() > maxMerchants) {
+            evict(now);
+        }
+        return merchant.client;
+    }
+
+    /**
+     * Removes the client of the provided merchant, for example after its credentials have changed. A new client is
+     * created on next use.
+     *
+     * @param merchantId the identifier of the merchant
+     */
+    public void invalidate(String merchantId) {
+        merchants.remove(merchantId);
+    }
+
+    /**
+     * @return the number of merchants whose client is kept
+     */
+    public int size() {
+        return merchants.size();
+    }
+
+    /**
+     * Returns the statistics of the connection pool shared by the merchants.
+     *
+     * @return {@link ClientPoolStats} or null if the transport does not pool connections
+     */
+    public ClientPoolStats getPoolStats() {
+        return transport.getPoolStats();
+    }
+
+    /**
+     * Closes the transport, and the executor if it was created by this registry
+     *
+     * @throws ClientException if the transport cannot be closed
+     */
+    @Override
+    public void close() {
+        merchants.clear();
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        try {
+            transport.close();
+        } catch (IOException ioe) {
+            throw new ClientException("Exception closing client transport", ioe);
+        }
+    }
+
+    /*
+    The configuration is loaded outside of the map, as a loader reading a database would otherwise block other
+    merchants. If two threads create the same merchant, one of the clients is dropped
+     */
+    private Merchant createMerchant(String merchantId) {
+        ClientConfiguration configuration = merchantId != null ? configurationLoader.apply(merchantId) : null;
+        if (configuration == null) {
+            throw new ClientException("No configuration found for merchant " + merchantId);
+        }
+        RestApiClient client = new RestApiClient(configuration, new SharedTransport(transport), executor, listener,
+                maxConcurrentRequestsPerMerchant > 0 ? new MerchantQuota(merchantId, maxConcurrentRequestsPerMerchant) : null);
+        return new Merchant(client);
+    }
+
+    /*
+    Evicts the idle merchants, and then the least recently used ones if there are too many. A tenth of the max
+    merchants are evicted at once, so that the merchants are not sorted on every new merchant
+     */
+    private void evict(long now) {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            nextEviction = now + evictionInterval;
+            List<Map.Entry<String, Merchant>> active = new ArrayList<>();
+            for (Map.Entry<String, Merchant> entry : merchants.entrySet()) {
+                if (now - entry.getValue().lastAccess > idleTimeout) {
+                    merchants.remove(entry.getKey(), entry.getValue());
+                } else {
+                    active.add(entry);
+                }
+            }
+
+            if (active.size() > maxMerchants) {
+                active.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+                int evicted = active.size() - (maxMerchants - maxMerchants / 10);
+                for (int i = 0; i < evicted; i++) {
+                    merchants.remove(active.get(i).getKey(), active.get(i).getValue());
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Merchant {
+        private final RestApiClient client;
+        //Time of the last use, from System.nanoTime()
+        private volatile long lastAccess;
+
+        Merchant(RestApiClient client) {
+            this.client = client;
+        }
+    }
+
+    /*
+    Transport shared by all the merchants. Closing the client of a merchant does not close it
+     */
+    private static final class SharedTransport implements ClientTransport {
+        private final ClientTransport transport;
+
+        SharedTransport(ClientTransport transport) {
+            this.transport = transport;
+        }
+
+        @Override
+        public ClientResponse execute(ClientRequest request) throws IOException {
+            return transport.execute(request);
+        }
+
+        @Override
+        public int preconnect(ClientRequest request, int connections) throws IOException {
+            return transport.preconnect(request, connections);
+        }
+
+        @Override
+        public ClientPoolStats getPoolStats() {
+            return transport.getPoolStats();
+        }
+
+        @Override
+        public void close() {
+            //The transport is closed with the registry
+        }
+    }
+
+    /**
+     * Limits the concurrent calls of a merchant. It is taken by {@link RestApiClient} before the call reaches the
+     * server permits, so the wait neither holds shared capacity nor counts in the latency of the server.
+     */
+    static final class MerchantQuota {
+        private final String merchantId;
+        private final int maxConcurrentRequests;
+        private final Semaphore permits;
+
+        MerchantQuota(String merchantId, int maxConcurrentRequests) {
+            this.merchantId = merchantId;
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            this.permits = new Semaphore(maxConcurrentRequests);
+        }
+
+        /**
+         * Waits for a free slot like the bulkhead of a server.
+         *
+         * @param timeout max time to wait in milliseconds, 0 meaning no timeout
+         * @throws ClientException if no slot is freed before the timeout or if the thread is interrupted
+         */
+        void acquire(long timeout) {
+            try {
+                if (!permits.tryAcquire(timeout > 0 ? timeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                    throw new ClientRejectedException("Too many concurrent calls for merchant " + merchantId
+                            + ". Max allowed: " + maxConcurrentRequests);
+                }
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                throw new ClientRejectedException("Interrupted while waiting to call payment platform server", ie);
+            }
+        }
+
+        void release() {
+            permits.release();
+        }
+    }
+}
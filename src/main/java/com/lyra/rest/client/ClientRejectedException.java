@@ -0,0 +1,38 @@
+package com.lyra.rest.client;
+
+/**
+ * {@link ClientException} launched when a call is rejected before being sent, for example when a local quota is
+ * reached or when the circuit breaker of the server is open. The call tells nothing about the health of the server,
+ * so it is not counted by its circuit breaker and adaptive concurrency limit. <p>
+ *
+ * A call rejected because the server is unavailable can be sent to another endpoint of the payment platform.
+ *
+ * @author Lyra Network
+ */
+class ClientRejectedException extends ClientException {
+    private static final long serialVersionUID = 1L;
+
+    //True if the call was rejected because of the health of the server, rather than a limit of the caller
+    private final boolean serverUnavailable;
+
+    ClientRejectedException(String message) {
+        this(message, false);
+    }
+
+    ClientRejectedException(String message, boolean serverUnavailable) {
+        super(message);
+        this.serverUnavailable = serverUnavailable;
+    }
+
+    ClientRejectedException(String message, Throwable cause) {
+        super(message, cause);
+        this.serverUnavailable = false;
+    }
+
+    /**
+     * @return true if another endpoint can be called instead
+     */
+    boolean isServerUnavailable() {
+        return serverUnavailable;
+    }
+}
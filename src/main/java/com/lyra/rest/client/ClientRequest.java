@@ -0,0 +1,81 @@
+package com.lyra.rest.client;
+
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.Proxy;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This bean class encapsulates the data of an HTTP call to the payment platform, as handed to a {@link ClientTransport}.
+ *
+ * Timeouts are expressed in milliseconds, 0 meaning no timeout. The proxy, if any, must not be used by the transport
+ * when the target host is local. The body must be sent according to the streaming mode.
+ *
+ * A call in progress may be cancelled by the SDK, for example when a hedged call has already answered. Transports
+ * register with {@link #onCancel(Closeable)} the action aborting the call.
+ *
+ * @author Lyra Network
+ */
+@Builder(toBuilder = true)
+@Getter
+public class ClientRequest {
+    private static final Closeable CANCELLED = () -> {
+    };
+
+    //Resource targeted by the call, see ClientResource
+    private String resource;
+    private String url;
+    private Map<String, String> headers;
+    private ClientRequestBody body;
+    @Builder.Default
+    private RequestStreamingMode streamingMode = RequestStreamingMode.BUFFERED;
+    private Proxy proxy;
+    private int connectionTimeout;
+    private int requestTimeout;
+
+    //Action aborting the call, or CANCELLED once the call has been cancelled
+    @Getter(AccessLevel.NONE)
+    private final AtomicReference<Closeable> abortAction = new AtomicReference<>();
+
+    /**
+     * Registers the action aborting the call while it is in progress. Only the first registered action is kept. It is
+     * run at once if the call has already been cancelled.
+     *
+     * @param action the action aborting the call, for example disconnecting the connection
+     */
+    public void onCancel(Closeable action) {
+        if (!abortAction.compareAndSet(null, action) && abortAction.get() == CANCELLED) {
+            abort(action);
+        }
+    }
+
+    /**
+     * @return true if the call has been cancelled by the SDK
+     */
+    public boolean isCancelled() {
+        return abortAction.get() == CANCELLED;
+    }
+
+    /*
+    Cancels the call, aborting it if it is in progress
+     */
+    void cancel() {
+        Closeable action = abortAction.getAndSet(CANCELLED);
+        if (action != null && action != CANCELLED) {
+            abort(action);
+        }
+    }
+
+    private static void abort(Closeable action) {
+        try {
+            action.close();
+        } catch (IOException ioe) {
+            //The call fails anyway
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Body of a {@link ClientRequest}. <p>
+ *
+ * The body is written by the transport directly to the connection, so that the payload does not need to be
+ * materialized before being sent. It can be written several times, for example if the call is retried.
+ *
+ * @author Lyra Network
+ */
+public interface ClientRequestBody {
+
+    /**
+     * Writes the body to the provided stream. The stream is not closed.
+     *
+     * @param out the stream to write to
+     * @throws IOException if the body cannot be written
+     */
+    void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * Returns the length of the body in bytes. The body may need to be serialized in order to know it.
+     *
+     * @return the length of the body in bytes
+     */
+    long getContentLength();
+}
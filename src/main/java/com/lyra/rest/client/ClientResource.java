@@ -1,22 +1,82 @@
 package com.lyra.rest.client;
 
+import com.google.gson.reflect.TypeToken;
+import com.lyra.rest.client.model.ApiResponse;
+import com.lyra.rest.client.model.CreatePaymentRequest;
+import com.lyra.rest.client.model.CreateTokenRequest;
+import com.lyra.rest.client.model.FormTokenAnswer;
+import com.lyra.rest.client.model.SdkTestAnswer;
+import com.lyra.rest.client.model.SdkTestRequest;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * <p>
  * Enum that contains the different resources from Rest API that can be called</p>
  *
- * Note that the {@link #toString()} method is overridden and returns the exact value of REST resource
+ * Note that the {@link #toString()} method is overridden and returns the exact value of REST resource. Each resource
+ * also defines the type of its typed request, the type of its typed response and whether it is idempotent.
  *
  * @author Lyra Network
  */
 public enum ClientResource {
-    CREATE_PAYMENT("Charge/CreatePayment"),
-    CREATE_TOKEN("Charge/CreateToken"),
-    SDK_TEST("Charge/SDKTest");
+    CREATE_PAYMENT("Charge/CreatePayment", CreatePaymentRequest.class, FormTokenAnswer.class, false),
+    CREATE_TOKEN("Charge/CreateToken", CreateTokenRequest.class, FormTokenAnswer.class, false),
+    SDK_TEST("Charge/SDKTest", SdkTestRequest.class, SdkTestAnswer.class, true);
+
+    //Resources by value
+    private static final Map<String, ClientResource> RESOURCES = new HashMap<>();
+
+    static {
+        for (ClientResource resource : values()) {
+            RESOURCES.put(resource.value, resource);
+        }
+    }
 
     private String value;
+    private Class<?> requestType;
+    private Type responseType;
+    private boolean idempotent;
 
-    ClientResource(String value) {
+    ClientResource(String value, Class<?> requestType, Class<?> answerType, boolean idempotent) {
            this.value = value;
+           this.requestType = requestType;
+           this.responseType = TypeToken.getParameterized(ApiResponse.class, answerType).getType();
+           this.idempotent = idempotent;
+    }
+
+    /**
+     * Returns the resource of the provided value
+     *
+     * @param value the exact value of the REST resource
+     * @return the {@link ClientResource}, or null if it is not defined by this enum
+     */
+    public static ClientResource forValue(String value) {
+        return value != null ? RESOURCES.get(value) : null;
+    }
+
+    /**
+     * @return true if calling this resource several times has the same effect as calling it once, so that calls
+     * can be retried even if the platform may have received them
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    /**
+     * @return the type of the typed request of this resource
+     */
+    public Class<?> getRequestType() {
+        return requestType;
+    }
+
+    /**
+     * @return the type of the typed response of this resource, an {@link ApiResponse} of the answer type
+     */
+    public Type getResponseType() {
+        return responseType;
     }
 
     @Override
@@ -24,4 +84,3 @@ public enum ClientResource {
         return value;
     }
 }
-
@@ -0,0 +1,63 @@
+package com.lyra.rest.client;
+
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Response returned by a {@link ClientTransport}. <p>
+ *
+ * It must always be closed once the body has been read, so that the underlying connection can be reused. The body is
+ * returned as received: if it is compressed, the transport reports its Content-Encoding and the SDK decompresses it.
+ *
+ * @author Lyra Network
+ */
+@Getter
+public class ClientResponse implements Closeable {
+    private final int statusCode;
+    private final InputStream body;
+    private final Closeable resource;
+    //Null if the body is not compressed
+    private final String contentEncoding;
+
+    public ClientResponse(int statusCode, InputStream body) {
+        this(statusCode, body, null);
+    }
+
+    /**
+     * @param statusCode the HTTP status code
+     * @param body       the response body, may be null
+     * @param resource   additional resource to release when the response is closed, may be null
+     */
+    public ClientResponse(int statusCode, InputStream body, Closeable resource) {
+        this(statusCode, body, resource, null);
+    }
+
+    /**
+     * @param statusCode      the HTTP status code
+     * @param body            the response body as received, may be null
+     * @param resource        additional resource to release when the response is closed, may be null
+     * @param contentEncoding the Content-Encoding header of the response, null if the body is not compressed
+     */
+    public ClientResponse(int statusCode, InputStream body, Closeable resource, String contentEncoding) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.resource = resource;
+        this.contentEncoding = contentEncoding;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (body != null) {
+                body.close();
+            }
+        } finally {
+            if (resource != null) {
+                resource.close();
+            }
+        }
+    }
+}
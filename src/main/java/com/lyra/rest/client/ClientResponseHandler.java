@@ -0,0 +1,26 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the body of a successful response from the payment platform. <p>
+ *
+ * The body is read directly from the connection. It must not be used once the handler has returned, as the connection
+ * is then released.
+ *
+ * @param <T> the type of the result
+ * @author Lyra Network
+ */
+@FunctionalInterface
+public interface ClientResponseHandler<T> {
+
+    /**
+     * Reads the body of the response
+     *
+     * @param body the response body, empty if there is no body
+     * @return the result of the call
+     * @throws IOException if the body cannot be read
+     */
+    T handle(InputStream body) throws IOException;
+}
@@ -0,0 +1,67 @@
+package com.lyra.rest.client;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the retries to a payment platform server to a ratio of the calls, so that retries do not multiply the load
+ * of a degraded platform. <p>
+ *
+ * Each call deposits a fraction of a token and each retry withdraws a whole token. A few tokens are available at
+ * start, so that retries are possible even with low traffic.
+ *
+ * @author Lyra Network
+ */
+class ClientRetryBudget {
+    //Budgets are shared by all the calls to the same server with the same settings
+    private static final SharedInstances<ClientRetryBudget> BUDGETS = new SharedInstances<>();
+
+    //Tokens are counted in thousandths
+    private static final long TOKEN = 1000;
+    //Max retries that can be saved, and available at start
+    private static final long MAX_SAVED_RETRIES = 10;
+
+    private final double ratio;
+    private final long deposit;
+    private final AtomicLong balance = new AtomicLong(MAX_SAVED_RETRIES * TOKEN);
+
+    ClientRetryBudget(double ratio) {
+        this.ratio = ratio;
+        this.deposit = (long) (ratio * TOKEN);
+    }
+
+    /**
+     * Returns the budget for the provided server and settings. Calls with other settings get their own budget.
+     *
+     * @param restApiServerName the server to call
+     * @param ratio             the max ratio of retries to calls
+     * @return {@link ClientRetryBudget} shared by all the calls to the server with the same settings
+     */
+    static ClientRetryBudget forServer(String restApiServerName, double ratio) {
+        return BUDGETS.get(SharedInstances.key(restApiServerName, ratio), () -> new ClientRetryBudget(ratio));
+    }
+
+    /**
+     * Deposits the share of a call
+     */
+    void deposit() {
+        if (balance.get() < MAX_SAVED_RETRIES * TOKEN) {
+            balance.accumulateAndGet(deposit, (current, added) -> Math.min(current + added, MAX_SAVED_RETRIES * TOKEN));
+        }
+    }
+
+    /**
+     * Withdraws the token of a retry
+     *
+     * @return false if there are not enough tokens, in which case the call must not be retried
+     */
+    boolean tryWithdraw() {
+        long current;
+        do {
+            current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!balance.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+}
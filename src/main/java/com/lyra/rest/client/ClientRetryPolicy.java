@@ -0,0 +1,92 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether a failed call to the payment platform is retried, and waits before the retry. <p>
+ *
+ * A call is retried if it failed with a network error before its request was sent. Calls to idempotent resources,
+ * see {@link ClientResource#isIdempotent()}, are also retried after a network error once the request was sent, and on
+ * 502, 503 and 504 responses. Retries wait an exponential backoff with jitter, and are limited by a
+ * {@link ClientRetryBudget}.
+ *
+ * @author Lyra Network
+ */
+class ClientRetryPolicy {
+    private static final int HTTP_RESPONSE_BAD_GATEWAY = 502;
+    private static final int HTTP_RESPONSE_SERVICE_UNAVAILABLE = 503;
+    private static final int HTTP_RESPONSE_GATEWAY_TIMEOUT = 504;
+
+    private final int maxAttempts;
+    private final long backoff;
+    private final long maxBackoff;
+    //Null if retries are not limited
+    private final ClientRetryBudget budget;
+
+    /**
+     * @param maxAttempts max number of attempts of a call, including the first one
+     * @param backoff     wait before the first retry in milliseconds, doubled on each retry
+     * @param maxBackoff  max wait before a retry in milliseconds
+     * @param budget      budget limiting the retries, or null
+     */
+    ClientRetryPolicy(int maxAttempts, long backoff, long maxBackoff, ClientRetryBudget budget) {
+        this.maxAttempts = maxAttempts;
+        this.backoff = backoff;
+        this.maxBackoff = Math.max(backoff, maxBackoff);
+        this.budget = budget;
+    }
+
+    /**
+     * Called once per call, before the first attempt
+     */
+    void onCall() {
+        if (budget != null) {
+            budget.deposit();
+        }
+    }
+
+    /**
+     * Decides whether the failed attempt is retried and, if so, waits before the retry.
+     *
+     * @param attempt     number of the failed attempt, starting at 1
+     * @param idempotent  true if the resource can be called several times with the same effect
+     * @param requestSent true if the request may have reached the server
+     * @param failure     the failure of the attempt
+     * @return true if the call must be retried
+     */
+    boolean awaitRetry(int attempt, boolean idempotent, boolean requestSent, ClientException failure) {
+        if (attempt >= maxAttempts || Thread.currentThread().isInterrupted()
+                || !isRetryable(idempotent, requestSent, failure)
+                || (budget != null && !budget.tryWithdraw())) {
+            return false;
+        }
+
+        try {
+            Thread.sleep(getBackoff(attempt));
+            return true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /*
+    Returns the wait before the retry of the provided attempt: half of the exponential backoff plus a random jitter
+    of up to the other half, so that clients failing together do not retry together
+     */
+    long getBackoff(int attempt) {
+        long exponentialBackoff = backoff << Math.min(attempt - 1, 30);
+        long wait = exponentialBackoff > 0 ? Math.min(exponentialBackoff, maxBackoff) : maxBackoff;
+        return wait / 2 + ThreadLocalRandom.current().nextLong(wait / 2 + 1);
+    }
+
+    private static boolean isRetryable(boolean idempotent, boolean requestSent, ClientException failure) {
+        if (failure.getCause() instanceof IOException) {
+            return !requestSent || idempotent;
+        }
+        int responseCode = failure.getResponseCode();
+        return idempotent && (responseCode == HTTP_RESPONSE_BAD_GATEWAY || responseCode == HTTP_RESPONSE_SERVICE_UNAVAILABLE
+                || responseCode == HTTP_RESPONSE_GATEWAY_TIMEOUT);
+    }
+}
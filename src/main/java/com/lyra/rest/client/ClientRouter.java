@@ -0,0 +1,340 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+
+/**
+ * Routes the calls between several endpoints of the payment platform, set as a list of server names. <p>
+ *
+ * Each call picks two random healthy endpoints and goes to the one with the lowest cost, its exponentially weighted
+ * moving average latency multiplied by its calls in flight (power of two choices). Slow or busy endpoints therefore
+ * receive less calls, without all the callers rushing to the same endpoint. <p>
+ *
+ * A call that cannot connect to an endpoint is sent to another one, as the platform has not received it, and the
+ * endpoint is ejected for a health check interval. A call rejected by the circuit breaker or the adaptive
+ * concurrency limit of an endpoint is also sent to another one. Endpoints are also checked actively by opening a TCP
+ * connection at each interval, unless a proxy is used. If no endpoint is healthy, all of them are tried. <p>
+ *
+ * Routers are shared by all the calls to the same server names with the same settings. A single daemon thread
+ * schedules the health checks, and a few others open the connections, each one bounded by the check interval, so
+ * that an endpoint that does not answer does not delay the checks of the others. The health checks of a router
+ * stop once no configuration references it anymore.
+ *
+ * @author Lyra Network
+ */
+class ClientRouter {
+    //Ejection of an endpoint that failed when health checks are disabled
+    static final long DEFAULT_EJECTION_DURATION = 10000;
+    //Weight of the last latency in the average
+    private static final double EWMA_WEIGHT = 0.2;
+
+    //Routers are shared by all the configurations with the same server names and settings
+    static final int MAX_ROUTERS = 64;
+    private static final SharedInstances<ClientRouter> ROUTERS = new SharedInstances<>(MAX_ROUTERS);
+    private static final ScheduledThreadPoolExecutor HEALTH_CHECKS = new ScheduledThreadPoolExecutor(1, runnable -> {
+        Thread thread = new Thread(runnable, "rest-api-client-health-check");
+        thread.setDaemon(true);
+        return thread;
+    });
+    //Threads opening the health check connections
+    private static final int PROBE_THREADS = 4;
+    private static final AtomicInteger PROBE_COUNTER = new AtomicInteger();
+    private static final ExecutorService PROBES = RestApiClient.newExecutor(PROBE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "rest-api-client-health-probe-" + PROBE_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        HEALTH_CHECKS.setRemoveOnCancelPolicy(true);
+    }
+
+    private final List<Endpoint> endpoints;
+    private final long ejectionDuration;
+    //Null if endpoints are not checked actively
+    private final ScheduledFuture<?> healthCheck;
+
+    /**
+     * @param servers             the server names of the endpoints
+     * @param healthCheckInterval time in milliseconds between two health checks, 0 to disable them
+     * @param connectionTimeout   timeout in milliseconds of the health checks, bounded by their interval
+     * @param activeChecks        false if the endpoints cannot be checked directly, for example behind a proxy
+     */
+    ClientRouter(List<String> servers, long healthCheckInterval, int connectionTimeout, boolean activeChecks) {
+        List<Endpoint> list = new ArrayList<>();
+        for (String server : servers) {
+            list.add(new Endpoint(server));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.ejectionDuration = TimeUnit.MILLISECONDS.toNanos(healthCheckInterval > 0 ? healthCheckInterval : DEFAULT_EJECTION_DURATION);
+        this.healthCheck = activeChecks && healthCheckInterval > 0
+                ? HealthCheck.schedule(this, healthCheckInterval, connectionTimeout) : null;
+    }
+
+    /**
+     * Returns the router for the provided server names and settings. Calls with other settings get their own router.
+     *
+     * @param restApiServerName   the configured list of server names
+     * @param servers             the server names of the endpoints
+     * @param healthCheckInterval time in milliseconds between two health checks, 0 to disable them
+     * @param connectionTimeout   timeout in milliseconds of the health checks
+     * @param activeChecks        false if the endpoints cannot be checked directly
+     * @return {@link ClientRouter} shared by all the calls to the servers with the same settings
+     */
+    static ClientRouter forServers(String restApiServerName, List<String> servers, long healthCheckInterval,
+                                   int connectionTimeout, boolean activeChecks) {
+        return ROUTERS.get(SharedInstances.key(restApiServerName, healthCheckInterval, connectionTimeout, activeChecks),
+                () -> new ClientRouter(servers, healthCheckInterval, connectionTimeout, activeChecks));
+    }
+
+    /**
+     * Performs a call on the best endpoint, and on the next ones as long as the endpoints cannot be connected to or
+     * reject the call as unavailable.
+     *
+     * @param request the request, whose url is replaced by the one of the endpoint
+     * @param caller  function performing a call, from the server name of the endpoint and the routed request
+     * @param <T>     the type of the result
+     * @return the result of the call
+     * @throws ClientException if the call fails, or if no endpoint can be called
+     */
+    <T> T call(ClientRequest request, BiFunction<String, ClientRequest, T> caller) {
+        //The call in progress is aborted if the request is cancelled, for example by a hedged call
+        AtomicReference<ClientRequest> current = new AtomicReference<>();
+        request.onCancel(() -> {
+            ClientRequest routed = current.get();
+            if (routed != null) {
+                routed.cancel();
+            }
+        });
+
+        List<Endpoint> tried = new ArrayList<>(endpoints.size());
+        while (true) {
+            Endpoint endpoint = select(tried);
+            tried.add(endpoint);
+            TrackedRequestBody body = new TrackedRequestBody(request.getBody());
+            ClientRequest routed = request.toBuilder().url(endpoint.getUrl(request.getResource())).body(body).build();
+            current.set(routed);
+            if (request.isCancelled()) {
+                routed.cancel();
+            }
+
+            endpoint.inFlight.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = caller.apply(endpoint.server, routed);
+                endpoint.record(System.nanoTime() - start);
+                return result;
+            } catch (ClientException ce) {
+                //The platform has not received the call if it was rejected locally or if its body has not been sent
+                boolean unavailable = ce instanceof ClientRejectedException
+                        && ((ClientRejectedException) ce).isServerUnavailable();
+                boolean notConnected = !unavailable && ce.getCause() instanceof IOException && !body.isWritten()
+                        && !routed.isCancelled();
+                if (!unavailable && !notConnected) {
+                    endpoint.record(System.nanoTime() - start);
+                    throw ce;
+                }
+                //The circuit breaker of an unavailable endpoint already stops its calls
+                if (notConnected) {
+                    endpoint.eject(ejectionDuration);
+                }
+                if (tried.size() == endpoints.size() || request.isCancelled()) {
+                    throw ce;
+                }
+            } finally {
+                endpoint.inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param server the server name of an endpoint
+     * @return true if the endpoint is not ejected
+     */
+    boolean isHealthy(String server) {
+        long now = System.nanoTime();
+        for (Endpoint endpoint : endpoints) {
+            if (endpoint.server.equals(server)) {
+                return endpoint.isHealthy(now);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the scheduled health checks of this router, null if its endpoints are not checked actively
+     */
+    ScheduledFuture<?> getHealthCheck() {
+        return healthCheck;
+    }
+
+    /*
+    Picks the cheapest of two random healthy endpoints not tried yet
+     */
+    private Endpoint select(List<Endpoint> tried) {
+        long now = System.nanoTime();
+        List<Endpoint> candidates = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            if (!tried.contains(endpoint) && endpoint.isHealthy(now)) {
+                candidates.add(endpoint);
+            }
+        }
+        if (candidates.isEmpty()) {
+            for (Endpoint endpoint : endpoints) {
+                if (!tried.contains(endpoint)) {
+                    candidates.add(endpoint);
+                }
+            }
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        Endpoint a = candidates.get(first);
+        Endpoint b = candidates.get(second);
+        return a.getCost() <= b.getCost() ? a : b;
+    }
+
+    /*
+    Health checks of the endpoints of a router. The router is only weakly referenced, so that the checks stop once
+    it is no longer used
+     */
+    private static final class HealthCheck implements Runnable {
+        private final WeakReference<ClientRouter> router;
+        private final List<Endpoint> endpoints;
+        private final int timeout;
+        private final long ejection;
+        private volatile ScheduledFuture<?> future;
+
+        private HealthCheck(ClientRouter router, long interval, int connectionTimeout) {
+            this.router = new WeakReference<>(router);
+            this.endpoints = router.endpoints;
+            this.timeout = (int) (connectionTimeout > 0 ? Math.min(connectionTimeout, interval) : interval);
+            //Failed endpoints stay ejected until the result of the next check, even if it times out
+            this.ejection = TimeUnit.MILLISECONDS.toNanos(interval * 2 + timeout);
+        }
+
+        static ScheduledFuture<?> schedule(ClientRouter router, long interval, int connectionTimeout) {
+            HealthCheck check = new HealthCheck(router, interval, connectionTimeout);
+            check.future = HEALTH_CHECKS.scheduleWithFixedDelay(check, 0, interval, TimeUnit.MILLISECONDS);
+            return check.future;
+        }
+
+        /*
+        Opens a TCP connection to each endpoint in parallel. An endpoint still checked is skipped
+         */
+        @Override
+        public void run() {
+            if (router.get() == null) {
+                ScheduledFuture<?> scheduled = future;
+                if (scheduled != null) {
+                    scheduled.cancel(false);
+                }
+                return;
+            }
+            for (Endpoint endpoint : endpoints) {
+                if (endpoint.probing.compareAndSet(false, true)) {
+                    try {
+                        PROBES.execute(() -> endpoint.probe(timeout, ejection));
+                    } catch (RejectedExecutionException ree) {
+                        endpoint.probing.set(false);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Endpoint {
+        //Max number of distinct resources whose url is kept
+        private static final int MAX_CACHED_URLS = 64;
+
+        private final String server;
+        private final String host;
+        private final int port;
+        private final ConcurrentMap<String, String> urls = new ConcurrentHashMap<>();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        //True while a health check connection is being opened
+        private final AtomicBoolean probing = new AtomicBoolean();
+        //Average latency in nanoseconds, stored as the bits of a double
+        private final AtomicLong latency = new AtomicLong(Double.doubleToLongBits(0));
+        //Time until which the endpoint is ejected, from System.nanoTime()
+        private volatile long unhealthyUntil = System.nanoTime();
+
+        Endpoint(String server) {
+            URI uri = URI.create(server);
+            this.server = server;
+            this.host = uri.getHost();
+            this.port = uri.getPort() > 0 ? uri.getPort() : "http".equalsIgnoreCase(uri.getScheme()) ? 80 : 443;
+        }
+
+        String getUrl(String resource) {
+            String url = urls.get(resource);
+            if (url == null) {
+                url = Client.generateChargeUrl(resource, server);
+                if (urls.size() < MAX_CACHED_URLS) {
+                    urls.putIfAbsent(resource, url);
+                }
+            }
+            return url;
+        }
+
+        boolean isHealthy(long now) {
+            return now - unhealthyUntil >= 0;
+        }
+
+        void eject(long duration) {
+            unhealthyUntil = System.nanoTime() + duration;
+        }
+
+        //Endpoints that cannot be connected to are ejected until the next check
+        void probe(int timeout, long ejection) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(host, port), timeout);
+                unhealthyUntil = System.nanoTime();
+            } catch (IOException | RuntimeException e) {
+                eject(ejection);
+            } finally {
+                probing.set(false);
+            }
+        }
+
+        void record(long duration) {
+            long current;
+            long updated;
+            do {
+                current = latency.get();
+                double average = Double.longBitsToDouble(current);
+                updated = Double.doubleToLongBits(average + EWMA_WEIGHT * (duration - average));
+            } while (!latency.compareAndSet(current, updated));
+        }
+
+        double getCost() {
+            return Double.longBitsToDouble(latency.get()) * (inFlight.get() + 1);
+        }
+    }
+}
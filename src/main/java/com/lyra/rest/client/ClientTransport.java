@@ -0,0 +1,61 @@
+package com.lyra.rest.client;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * <p>
+ * Transport used to perform the HTTP calls to the payment platform.</p>
+ * <p>
+ * The default transport, used by the static {@link Client}, opens a new {@link java.net.HttpURLConnection} per call.
+ * A pooled implementation with keep-alive connections is provided by {@link PooledClientTransport}, one with
+ * multiplexed HTTP/2 connections by {@link Http2ClientTransport}, and it is possible to plug any other implementation
+ * in a {@link RestApiClient}.</p>
+ * <p>
+ * If the responseCompression parameter is enabled, the request headers accept compressed responses. Implementations
+ * return the response body as received, with its Content-Encoding header, and the SDK decompresses it.</p>
+ *
+ * @author Lyra Network
+ */
+public interface ClientTransport extends Closeable {
+
+    /**
+     * Sends the request to the payment platform.
+     *
+     * @param request the request to send
+     * @return {@link ClientResponse} that must be closed by the caller once the body has been read
+     * @throws IOException if a communication error occurs
+     */
+    ClientResponse execute(ClientRequest request) throws IOException;
+
+    /**
+     * Opens connections to the server of the request in advance, so that the first calls do not pay for the TCP and
+     * TLS handshakes. By default no connection is opened.
+     *
+     * @param request     the request whose url, proxy and connection timeout are used
+     * @param connections the number of connections to open
+     * @return the number of connections open and kept for the next calls
+     * @throws IOException if a connection cannot be opened
+     */
+    default int preconnect(ClientRequest request, int connections) throws IOException {
+        return 0;
+    }
+
+    /**
+     * Returns the statistics of the connection pool used by this transport.
+     *
+     * @return {@link ClientPoolStats} or null if the transport does not pool connections
+     */
+    default ClientPoolStats getPoolStats() {
+        return null;
+    }
+
+    /**
+     * Releases the resources held by this transport.
+     *
+     * @throws IOException if an error occurs releasing the resources
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,137 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonObject;
+import com.google.gson.reflect.TypeToken;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * Result of the warm-up of a client, performed at startup so that the first calls do not pay for the initialization
+ * of the SDK:</p>
+ * <ul>
+ * <li>the default configuration is read and the configuration of the client resolved</li>
+ * <li>the JSON adapters of the typed requests and responses are created</li>
+ * <li>the Mac of each hash algorithm is created for the hash key, if any</li>
+ * <li>the server name of each endpoint is resolved, unless a proxy is used</li>
+ * <li>connections are opened to each endpoint by the transport, for example {@link PooledClientTransport}. Otherwise
+ * a TLS handshake is performed once, so that the next connections resume its TLS session</li>
+ * </ul>
+ * <p>
+ * No call is performed on the payment platform. Durations are expressed in milliseconds.</p>
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+@ToString
+public class ClientWarmUp {
+    //True if all the steps succeeded
+    private final boolean ready;
+    //Number of connections open in the pool of the transport, for all the endpoints
+    private final int connections;
+    private final long duration;
+    //Exception of the step that failed, null if ready
+    private final ClientException exception;
+
+    /*
+    Warms up the SDK for the provided configuration. Failures are reported in the result rather than thrown
+     */
+    static ClientWarmUp run(ClientTransport transport, ResolvedConfiguration configuration, int connections) {
+        long start = System.nanoTime();
+        int opened = 0;
+        ClientException exception = null;
+        try {
+            initializeSerialization();
+            initializeHashes(configuration);
+            for (String server : configuration.getRestApiServerNames()) {
+                opened += connect(transport, configuration, server, connections);
+            }
+        } catch (ClientException ce) {
+            exception = ce;
+        } catch (IOException ioe) {
+            exception = new ClientException("Exception connecting to payment platform server", ioe);
+        }
+        return ClientWarmUp.builder()
+                .ready(exception == null)
+                .connections(opened)
+                .duration(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+                .exception(exception)
+                .build();
+    }
+
+    private static void initializeSerialization() {
+        Client.GSON.getAdapter(JsonObject.class);
+        for (ClientResource resource : ClientResource.values()) {
+            Client.GSON.getAdapter(resource.getRequestType());
+            Client.GSON.getAdapter(TypeToken.get(resource.getResponseType()));
+        }
+    }
+
+    //Answers can only be verified with a hash key
+    private static void initializeHashes(ResolvedConfiguration configuration) {
+        if (configuration.getHashKey() == null || configuration.getHashKey().isEmpty()) {
+            return;
+        }
+        for (ClientHashAlgorithm algorithm : ClientHashAlgorithm.values()) {
+            configuration.getAnswerVerifier().calculateHash("", algorithm);
+        }
+    }
+
+    private static int connect(ClientTransport transport, ResolvedConfiguration configuration, String server,
+                               int connections) throws IOException {
+        ClientRequest request = ClientRequest.builder()
+                .resource(ClientResource.SDK_TEST.toString())
+                .url(Client.generateChargeUrl(ClientResource.SDK_TEST.toString(), server))
+                .headers(configuration.getHeaders())
+                .proxy(configuration.getProxy())
+                .connectionTimeout(configuration.getConnectionTimeout())
+                .requestTimeout(configuration.getRequestTimeout())
+                .build();
+        URI uri;
+        try {
+            uri = URI.create(request.getUrl());
+        } catch (IllegalArgumentException iae) {
+            throw new ClientException("Invalid server name: " + server, iae);
+        }
+        if (uri.getHost() == null) {
+            throw new ClientException("Invalid server name: " + server);
+        }
+
+        //The proxy resolves the server name and opens the TLS session itself
+        boolean direct = request.getProxy() == null || !Client.couldUseProxy(uri.getHost());
+        if (direct) {
+            InetAddress.getAllByName(uri.getHost());
+        }
+        int opened = connections > 0 ? transport.preconnect(request, connections) : 0;
+        if (opened == 0 && direct && "https".equalsIgnoreCase(uri.getScheme())) {
+            handshake(uri, configuration.getConnectionTimeout());
+        }
+        return opened;
+    }
+
+    /*
+    Performs a TLS handshake with the default factory of HttpURLConnection, whose sessions are then resumed
+     */
+    private static void handshake(URI uri, int timeout) throws IOException {
+        int port = uri.getPort() > 0 ? uri.getPort() : 443;
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(uri.getHost(), port), timeout);
+            socket.setSoTimeout(timeout);
+            try (SSLSocket sslSocket = (SSLSocket) HttpsURLConnection.getDefaultSSLSocketFactory()
+                    .createSocket(socket, uri.getHost(), port, true)) {
+                sslSocket.startHandshake();
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.lyra.rest.client;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Immutable default configuration, as read once from the configuration files and source. <p>
+ *
+ * A new snapshot is published each time the configuration is reloaded. It keeps the configurations resolved with its
+ * default values, so that they are resolved again with the new values once a new snapshot is published, while calls
+ * in progress end with the old ones.
+ *
+ * @author Lyra Network
+ */
+final class ConfigurationSnapshot {
+    //Max number of distinct configurations resolved with the same defaults
+    private static final int MAX_RESOLVED_CONFIGURATIONS = 1024;
+
+    private final Map<String, String> defaults;
+    private final ConcurrentMap<ClientConfiguration, ResolvedConfiguration> resolved = new ConcurrentHashMap<>();
+
+    ConfigurationSnapshot(Properties properties) {
+        Map<String, String> values = new HashMap<>();
+        properties.stringPropertyNames().forEach(name -> values.put(name, properties.getProperty(name)));
+        this.defaults = Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * @param key the name of the parameter, see {@link ClientConfiguration}
+     * @return the default value of the parameter, null if not set
+     */
+    String get(String key) {
+        return defaults.get(key);
+    }
+
+    Map<String, String> getDefaults() {
+        return defaults;
+    }
+
+    /**
+     * Returns the memoized resolution of the provided configuration, so that identical configurations are only
+     * resolved once per snapshot.
+     *
+     * @param configuration the configuration overriding the defaults
+     * @param resolver      function resolving the configuration with the defaults of this snapshot
+     * @return the resolved configuration
+     */
+    ResolvedConfiguration resolve(ClientConfiguration configuration,
+                                  Function<ClientConfiguration, ResolvedConfiguration> resolver) {
+        ResolvedConfiguration resolvedConfiguration = resolved.get(configuration);
+        if (resolvedConfiguration == null) {
+            //Avoid unbounded growth when configurations are built per call with distinct values
+            if (resolved.size() >= MAX_RESOLVED_CONFIGURATIONS) {
+                resolved.clear();
+            }
+            resolvedConfiguration = resolved.computeIfAbsent(configuration, resolver);
+        }
+        return resolvedConfiguration;
+    }
+}
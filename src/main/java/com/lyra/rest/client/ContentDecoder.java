@@ -0,0 +1,81 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes the response bodies compressed by the payment platform according to their Content-Encoding header. <p>
+ *
+ * Bodies are decompressed while they are read, so that they can be parsed directly without being inflated in
+ * memory first.
+ *
+ * @author Lyra Network
+ */
+final class ContentDecoder {
+    private static final int BUFFER_SIZE = 4096;
+
+    //Private constructor as all methods are static
+    private ContentDecoder() {
+    }
+
+    /**
+     * @param encoding the Content-Encoding of the body, null if not compressed
+     * @param body     the body as received
+     * @return the decompressed body
+     * @throws IOException if the encoding is not supported or the body is not valid
+     */
+    static InputStream decode(String encoding, InputStream body) throws IOException {
+        if (body == null || encoding == null) {
+            return body;
+        }
+
+        switch (encoding.trim().toLowerCase(Locale.ROOT)) {
+            case "":
+            case "identity":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case "deflate":
+                return inflate(body);
+            default:
+                throw new IOException("Unsupported content encoding: " + encoding);
+        }
+    }
+
+    /*
+    Deflate bodies should be zlib streams, but some servers send raw deflate data. The zlib header is checked in
+    order to read both
+     */
+    private static InputStream inflate(InputStream body) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(body, 2);
+        int first = pushback.read();
+        int second = first != -1 ? pushback.read() : -1;
+        if (second != -1) {
+            pushback.unread(second);
+        }
+        if (first != -1) {
+            pushback.unread(first);
+        }
+        boolean zlib = (first & 0x0f) == Deflater.DEFLATED && second != -1 && ((first << 8) | second) % 31 == 0;
+
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(pushback, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    //Provided inflaters are not released by InflaterInputStream
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
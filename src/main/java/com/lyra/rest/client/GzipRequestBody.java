@@ -0,0 +1,81 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * {@link ClientRequestBody} that compresses another body with gzip while it is written to the output stream. <p>
+ *
+ * The gzip header and trailer are written around a raw {@link DeflaterOutputStream}, as GZIPOutputStream holds a
+ * monitor while writing, which would pin virtual threads during network writes.
+ *
+ * @author Lyra Network
+ */
+class GzipRequestBody implements ClientRequestBody {
+    //Magic number, deflate method, no flags, no modification time, no extra flags, unknown OS
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int BUFFER_SIZE = 4096;
+
+    private final ClientRequestBody body;
+
+    //Compressed content, only when its length has been requested
+    private volatile JsonRequestBody.Buffer buffer;
+
+    GzipRequestBody(ClientRequestBody body) {
+        this.body = body;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        JsonRequestBody.Buffer compressed = buffer;
+        if (compressed != null) {
+            compressed.writeTo(out);
+        } else {
+            compress(out);
+        }
+        out.flush();
+    }
+
+    @Override
+    public long getContentLength() {
+        JsonRequestBody.Buffer compressed = buffer;
+        if (compressed == null) {
+            compressed = new JsonRequestBody.Buffer();
+            try {
+                compress(compressed);
+            } catch (IOException ioe) {
+                throw new ClientException("Unexpected error compressing request", ioe);
+            }
+            buffer = compressed;
+        }
+        return compressed.size();
+    }
+
+    private void compress(OutputStream out) throws IOException {
+        out.write(HEADER);
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, BUFFER_SIZE);
+            body.writeTo(new CheckedOutputStream(deflated, crc));
+            //Finishes the compressed data without closing the output stream
+            deflated.finish();
+            writeInt(out, crc.getValue());
+            writeInt(out, deflater.getBytesRead());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    //Gzip integers are written in little endian order
+    private static void writeInt(OutputStream out, long value) throws IOException {
+        out.write((int) value & 0xff);
+        out.write((int) (value >> 8) & 0xff);
+        out.write((int) (value >> 16) & 0xff);
+        out.write((int) (value >> 24) & 0xff);
+    }
+}
@@ -0,0 +1,369 @@
+package com.lyra.rest.client;
+
+import lombok.Builder;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.nio.support.classic.ContentInputStream;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * <p>
+ * {@link ClientTransport} that negotiates HTTP/2 with the payment platform, so that concurrent calls share a few
+ * multiplexed connections instead of holding one connection each. It falls back to HTTP/1.1 with a pool of
+ * keep-alive connections if the server or the proxy does not support HTTP/2, as well as for plain http servers
+ * unless HTTP/2 is used with prior knowledge.</p>
+ * <p>
+ * It is based on Apache HttpClient 5, which must be added to the classpath of the application in order to use this
+ * transport. HTTP/2 over TLS requires ALPN, available from Java 8u252. All durations are expressed in milliseconds.
+ * Unset values take the default ones.</p>
+ * <p>
+ * The connection timeout and the proxy are the ones of each request. The request body is serialized once the
+ * connection is established. The response is handed to the SDK once its head is received, and its body is streamed
+ * through a buffer of {@link #RESPONSE_BUFFER_SIZE} bytes: the server is only read while the buffer has room. Callers
+ * wait for the response without holding any monitor, so that the transport can be used from virtual threads.</p>
+ * <p>
+ * The transport must be closed when it is no longer needed in order to release its connections and I/O threads.</p>
+ *
+ * @author Lyra Network
+ */
+public class Http2ClientTransport implements ClientTransport {
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 50;
+    static final long DEFAULT_IDLE_EVICTION_TIMEOUT = 30000;
+    static final long DEFAULT_CONNECTION_TIME_TO_LIVE = 300000;
+    //Bytes of a response body received ahead of the SDK reading them
+    static final int RESPONSE_BUFFER_SIZE = 65536;
+    private static final String PROXY_ATTRIBUTE = "com.lyra.rest.client.proxy";
+
+    private final PoolingAsyncClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient httpClient;
+
+    /**
+     * @param maxConnectionsPerRoute max connections to the same server. Concurrent calls share an established HTTP/2
+     *                               connection, while HTTP/1.1 calls wait for a free one once the limit is reached
+     * @param maxConnectionsTotal    max connections of the pool
+     * @param idleEvictionTimeout    time after which an idle connection is closed
+     * @param connectionTimeToLive   max lifetime of a connection, after which it is not reused anymore
+     * @param priorKnowledge         true to use HTTP/2 without negotiation, also with plain http servers. The calls fail
+     *                               if the server does not support HTTP/2
+     * @param dnsCacheTtl            time during which the addresses of a server are used before being resolved again
+     *                               in the background. It must not be shorter than the networkaddress.cache.ttl
+     *                               property of the JVM. By default servers are resolved by the JVM on each connection
+     * @throws IllegalArgumentException if dnsCacheTtl is shorter than the time to live of the JVM cache
+     */
+    @Builder
+    private Http2ClientTransport(int maxConnectionsPerRoute, int maxConnectionsTotal, long idleEvictionTimeout,
+                                 long connectionTimeToLive, boolean priorKnowledge, long dnsCacheTtl) {
+        connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setDnsResolver(dnsCacheTtl > 0 ? new CachingDnsResolver(new ClientDnsCache(dnsCacheTtl)) : null)
+                .setMaxConnPerRoute(maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : DEFAULT_MAX_CONNECTIONS_PER_ROUTE)
+                .setMaxConnTotal(maxConnectionsTotal > 0 ? maxConnectionsTotal : DEFAULT_MAX_CONNECTIONS_TOTAL)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setTimeToLive(TimeValue.ofMilliseconds(connectionTimeToLive > 0
+                                ? connectionTimeToLive : DEFAULT_CONNECTION_TIME_TO_LIVE))
+                        .build())
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(priorKnowledge ? HttpVersionPolicy.FORCE_HTTP_2 : HttpVersionPolicy.NEGOTIATE)
+                        .build())
+                //HTTP/2 connections are shared by concurrent calls instead of being leased by each one
+                .setMessageMultiplexing(true)
+                .build();
+
+        httpClient = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setRoutePlanner(new RequestRoutePlanner())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(idleEvictionTimeout > 0 ? idleEvictionTimeout : DEFAULT_IDLE_EVICTION_TIMEOUT))
+                .disableCookieManagement()
+                .disableRedirectHandling()
+                //Calls are retried by the SDK according to the configuration
+                .disableAutomaticRetries()
+                .build();
+        httpClient.start();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public ClientResponse execute(ClientRequest request) throws IOException {
+        URI uri = URI.create(request.getUrl());
+        BasicHttpRequest post = new BasicHttpRequest(Method.POST, uri);
+        request.getHeaders().forEach(post::addHeader);
+
+        //The connect timeout of the request overrides the one of the connection manager, only set for all the requests
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(request.getConnectionTimeout()))
+                .setResponseTimeout(Timeout.ofMilliseconds(request.getRequestTimeout()))
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(request.getConnectionTimeout()))
+                .build());
+        if (request.getProxy() != null && Client.couldUseProxy(uri.getHost())) {
+            InetSocketAddress proxyAddress = (InetSocketAddress) request.getProxy().address();
+            context.setAttribute(PROXY_ATTRIBUTE, new HttpHost(proxyAddress.getHostString(), proxyAddress.getPort()));
+        }
+
+        //The response is awaited on a CompletableFuture, as the future of HttpClient waits holding a monitor
+        StreamingResponseConsumer consumer = new StreamingResponseConsumer();
+        Future<HttpResponse> call = httpClient.execute(
+                new BasicRequestProducer(post, new RequestBodyProducer(request.getBody(),
+                        request.getStreamingMode() == RequestStreamingMode.CHUNKED)),
+                consumer, context,
+                new FutureCallback<HttpResponse>() {
+                    @Override
+                    public void completed(HttpResponse response) {
+                        consumer.head.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Exception e) {
+                        consumer.head.completeExceptionally(e);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        consumer.head.cancel(false);
+                    }
+                });
+        request.onCancel(() -> call.cancel(true));
+
+        HttpResponse response;
+        try {
+            response = consumer.head.get();
+        } catch (InterruptedException ie) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for payment platform server");
+        } catch (CancellationException ce) {
+            throw new IOException("Call to payment platform server cancelled", ce);
+        } catch (ExecutionException ee) {
+            throw ee.getCause() instanceof IOException ? (IOException) ee.getCause() : new IOException(ee.getCause());
+        }
+
+        Header contentEncoding = response.getFirstHeader("Content-Encoding");
+        return new ClientResponse(response.getCode(), consumer.hasBody ? new ContentInputStream(consumer.buffer) : null, null,
+                contentEncoding != null ? contentEncoding.getValue() : null);
+    }
+
+    @Override
+    public ClientPoolStats getPoolStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        return new ClientPoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending(), stats.getMax());
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /*
+    Resolver of the servers through the DNS cache of the transport
+     */
+    private static final class CachingDnsResolver extends SystemDefaultDnsResolver {
+        private final ClientDnsCache dnsCache;
+
+        CachingDnsResolver(ClientDnsCache dnsCache) {
+            this.dnsCache = dnsCache;
+        }
+
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            return dnsCache.resolve(host);
+        }
+    }
+
+    /*
+    Route planner using the proxy of each request
+     */
+    private static final class RequestRoutePlanner extends DefaultRoutePlanner {
+        RequestRoutePlanner() {
+            super(DefaultSchemePortResolver.INSTANCE);
+        }
+
+        @Override
+        protected HttpHost determineProxy(HttpHost target, HttpContext context) {
+            return (HttpHost) context.getAttribute(PROXY_ATTRIBUTE);
+        }
+    }
+
+    /*
+    Consumer handing the response to the SDK once its head is received. The body is then received into a buffer read
+    by the SDK, the server being only read while the buffer has room. The call itself only completes at the end of the
+    body, so that it can still be cancelled while the body is read
+     */
+    private static final class StreamingResponseConsumer implements AsyncResponseConsumer<HttpResponse> {
+        private final CompletableFuture<HttpResponse> head = new CompletableFuture<>();
+        private final SharedInputBuffer buffer = new SharedInputBuffer(RESPONSE_BUFFER_SIZE);
+        private volatile HttpResponse response;
+        private volatile FutureCallback<HttpResponse> resultCallback;
+        private volatile boolean hasBody;
+        //True once the whole body has been received, even if it has not been read yet
+        private volatile boolean received;
+
+        @Override
+        public void consumeResponse(HttpResponse response, EntityDetails entityDetails, HttpContext context,
+                                    FutureCallback<HttpResponse> resultCallback) {
+            this.response = response;
+            this.resultCallback = resultCallback;
+            hasBody = entityDetails != null;
+            head.complete(response);
+            if (!hasBody) {
+                streamEnd(null);
+            }
+        }
+
+        @Override
+        public void informationResponse(HttpResponse response, HttpContext context) {
+            //Intermediate responses are followed by the final one
+        }
+
+        @Override
+        public void updateCapacity(CapacityChannel capacityChannel) throws IOException {
+            buffer.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public void consume(ByteBuffer src) throws IOException {
+            buffer.fill(src);
+        }
+
+        @Override
+        public void streamEnd(List<? extends Header> trailers) {
+            received = true;
+            resultCallback.completed(response);
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            head.completeExceptionally(cause);
+            buffer.abort();
+        }
+
+        @Override
+        public void releaseResources() {
+            //The end of the body is only seen by the SDK once the connection is back in the pool, for the next call
+            if (received) {
+                buffer.markEndStream();
+            } else {
+                buffer.abort();
+            }
+        }
+    }
+
+    /*
+    Producer of the request body. The body is serialized once the connection is established, so that a call that
+    cannot connect is not seen as sent. Its content type and encoding are set by the headers of the request
+     */
+    private static final class RequestBodyProducer implements AsyncEntityProducer {
+        private final ClientRequestBody body;
+        private final boolean chunked;
+        private volatile ByteBuffer content;
+
+        RequestBodyProducer(ClientRequestBody body, boolean chunked) {
+            this.body = body;
+            this.chunked = chunked;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return chunked ? -1 : body.getContentLength();
+        }
+
+        @Override
+        public String getContentType() {
+            return null;
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return chunked;
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public int available() {
+            ByteBuffer buffer = content;
+            return buffer != null ? buffer.remaining() : Integer.MAX_VALUE;
+        }
+
+        @Override
+        public void produce(DataStreamChannel channel) throws IOException {
+            ByteBuffer buffer = content;
+            if (buffer == null) {
+                JsonRequestBody.Buffer serialized = new JsonRequestBody.Buffer();
+                body.writeTo(serialized);
+                buffer = serialized.toByteBuffer();
+                content = buffer;
+            }
+            while (buffer.hasRemaining() && channel.write(buffer) > 0) {
+                //Written as long as the channel accepts data
+            }
+            if (!buffer.hasRemaining()) {
+                channel.endStream();
+            }
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            releaseResources();
+        }
+
+        @Override
+        public void releaseResources() {
+            content = null;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.lyra.rest.client;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * {@link ClientRequestBody} that serializes its content as JSON with a Gson {@link JsonWriter}, writing UTF-8 bytes
+ * directly to the output stream instead of building the whole payload as a String first.
+ *
+ * @author Lyra Network
+ */
+class JsonRequestBody implements ClientRequestBody {
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private final Gson gson;
+    private final Object content;
+
+    //Serialized content, only when its length has been requested
+    private volatile Buffer buffer;
+
+    JsonRequestBody(Gson gson, Object content) {
+        this.gson = gson;
+        this.content = content;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        Buffer serialized = buffer;
+        if (serialized != null) {
+            serialized.writeTo(out);
+        } else {
+            serialize(out);
+        }
+        out.flush();
+    }
+
+    @Override
+    public long getContentLength() {
+        Buffer serialized = buffer;
+        if (serialized == null) {
+            serialized = new Buffer();
+            try {
+                serialize(serialized);
+            } catch (IOException ioe) {
+                throw new ClientException("Unexpected error serializing request", ioe);
+            }
+            buffer = serialized;
+        }
+        return serialized.size();
+    }
+
+    private void serialize(OutputStream out) throws IOException {
+        JsonWriter writer = gson.newJsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (content == null) {
+            writer.nullValue();
+        } else {
+            gson.toJson(content, content.getClass(), writer);
+        }
+        writer.flush();
+    }
+
+    /*
+    Growable byte buffer. Unlike ByteArrayOutputStream, it does not hold a monitor while being written to a stream
+     */
+    static final class Buffer extends OutputStream {
+        private byte[] bytes = new byte[INITIAL_BUFFER_SIZE];
+        private int count;
+
+        @Override
+        public void write(int b) {
+            ensureCapacity(count + 1);
+            bytes[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(count + len);
+            System.arraycopy(b, off, bytes, count, len);
+            count += len;
+        }
+
+        void writeTo(OutputStream out) throws IOException {
+            out.write(bytes, 0, count);
+        }
+
+        int size() {
+            return count;
+        }
+
+        ByteBuffer toByteBuffer() {
+            return ByteBuffer.wrap(bytes, 0, count);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(capacity, bytes.length << 1));
+            }
+        }
+    }
+}
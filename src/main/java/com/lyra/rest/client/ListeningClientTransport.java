@@ -0,0 +1,214 @@
+package com.lyra.rest.client;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link ClientTransport} measuring the calls performed by another transport and notifying a {@link ClientListener}.
+ * <p>
+ * The request body and the response body are wrapped in order to time the steps of the call and count the bytes
+ * sent and received. The call ends once its response is closed, or when the transport fails.
+ *
+ * @author Lyra Network
+ */
+class ListeningClientTransport implements ClientTransport {
+    private final ClientTransport transport;
+    private final ClientListener listener;
+
+    ListeningClientTransport(ClientTransport transport, ClientListener listener) {
+        this.transport = transport;
+        this.listener = listener;
+    }
+
+    @Override
+    public ClientResponse execute(ClientRequest request) throws IOException {
+        Call call = new Call(request);
+        notifyStart(request);
+
+        //Cancelling the call aborts the measured request, on which the transport registers
+        MeasuredBody body = new MeasuredBody(request.getBody(), call);
+        ClientRequest measuredRequest = request.toBuilder().body(body).build();
+        request.onCancel(measuredRequest::cancel);
+
+        ClientResponse response;
+        try {
+            response = transport.execute(measuredRequest);
+        } catch (IOException | RuntimeException e) {
+            call.end(0, e);
+            throw e;
+        }
+        call.firstByteTime = System.nanoTime() - call.start;
+        call.poolStats = transport.getPoolStats();
+        int statusCode = response.getStatusCode();
+        InputStream content = response.getBody();
+        return new ClientResponse(statusCode, content != null ? new MeasuredInputStream(content, call) : null, () -> {
+            try {
+                response.close();
+            } finally {
+                call.end(statusCode, null);
+            }
+        }, response.getContentEncoding());
+    }
+
+    @Override
+    public int preconnect(ClientRequest request, int connections) throws IOException {
+        return transport.preconnect(request, connections);
+    }
+
+    @Override
+    public ClientPoolStats getPoolStats() {
+        return transport.getPoolStats();
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.close();
+    }
+
+    private void notifyStart(ClientRequest request) {
+        try {
+            listener.onCallStart(request);
+        } catch (RuntimeException e) {
+            //Listeners must not break the calls
+        }
+    }
+
+    /*
+    Measures of a call in progress
+     */
+    private final class Call {
+        private final ClientRequest request;
+        private final long start = System.nanoTime();
+        private final AtomicBoolean ended = new AtomicBoolean();
+        //Updated by the thread performing the call
+        private long connectTime = -1;
+        private long requestSentTime = -1;
+        private long firstByteTime = -1;
+        private long requestSize;
+        private long responseSize;
+        private ClientPoolStats poolStats;
+
+        Call(ClientRequest request) {
+            this.request = request;
+        }
+
+        void end(int statusCode, Throwable exception) {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            long totalTime = System.nanoTime() - start;
+            try {
+                listener.onCallEnd(ClientCallEvent.builder()
+                        .resource(request.getResource())
+                        .request(request)
+                        .statusCode(statusCode)
+                        .exception(exception)
+                        .cancelled(request.isCancelled())
+                        .connectTime(connectTime)
+                        .requestSentTime(requestSentTime)
+                        .firstByteTime(firstByteTime)
+                        .totalTime(totalTime)
+                        .requestSize(requestSize)
+                        .responseSize(responseSize)
+                        .poolStats(poolStats != null ? poolStats : transport.getPoolStats())
+                        .build());
+            } catch (RuntimeException e) {
+                //Listeners must not break the calls
+            }
+        }
+    }
+
+    /*
+    Body timing its writing and counting the bytes written
+     */
+    private static final class MeasuredBody implements ClientRequestBody {
+        private final ClientRequestBody body;
+        private final Call call;
+
+        MeasuredBody(ClientRequestBody body, Call call) {
+            this.body = body;
+            this.call = call;
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            long writeStart = System.nanoTime();
+            if (call.connectTime < 0) {
+                call.connectTime = writeStart - call.start;
+            }
+            MeasuredOutputStream measured = new MeasuredOutputStream(out);
+            body.writeTo(measured);
+            call.requestSize = measured.count;
+            call.requestSentTime = System.nanoTime() - call.start;
+        }
+
+        @Override
+        public long getContentLength() {
+            return body.getContentLength();
+        }
+    }
+
+    /*
+    Stream counting the bytes written
+     */
+    private static final class MeasuredOutputStream extends FilterOutputStream {
+        private long count;
+
+        MeasuredOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /*
+    Response body counting the bytes read
+     */
+    private static final class MeasuredInputStream extends FilterInputStream {
+        private final Call call;
+
+        MeasuredInputStream(InputStream in, Call call) {
+            super(in);
+            this.call = call;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                call.responseSize++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = in.read(b, off, len);
+            if (read > 0) {
+                call.responseSize += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = in.skip(n);
+            call.responseSize += skipped;
+            return skipped;
+        }
+    }
+}
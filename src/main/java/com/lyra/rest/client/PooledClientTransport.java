@@ -0,0 +1,296 @@
+package com.lyra.rest.client;
+
+import lombok.Builder;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>
+ * {@link ClientTransport} that keeps a bounded pool of keep-alive connections to the payment platform, so that
+ * TCP and TLS handshakes are only paid when a new connection is opened.</p>
+ * <p>
+ * It is based on Apache HttpClient, which must be added to the classpath of the application in order to use this
+ * transport. All durations are expressed in milliseconds. Unset values take the default ones.</p>
+ * <p>
+ * Callers wait for a free connection on semaphores rather than inside the pool of HttpClient, which waits holding a
+ * monitor. This way the transport can be used from virtual threads without pinning their carrier threads.</p>
+ * <p>
+ * The transport must be closed when it is no longer needed in order to release the pooled connections.</p>
+ *
+ * @author Lyra Network
+ */
+public class PooledClientTransport implements ClientTransport {
+    static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 20;
+    static final int DEFAULT_MAX_CONNECTIONS_TOTAL = 50;
+    static final long DEFAULT_IDLE_EVICTION_TIMEOUT = 30000;
+    static final long DEFAULT_CONNECTION_TIME_TO_LIVE = 300000;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final int leaseTimeout;
+    private final int maxConnectionsPerRoute;
+    private final Semaphore totalPermits;
+    private final ConcurrentMap<String, Semaphore> routePermits = new ConcurrentHashMap<>();
+
+    /**
+     * @param maxConnectionsPerRoute max connections to the same server
+     * @param maxConnectionsTotal    max connections of the pool
+     * @param idleEvictionTimeout    time after which an idle connection is closed
+     * @param connectionTimeToLive   max lifetime of a connection, after which it is not reused anymore
+     * @param leaseTimeout           max time to wait for a free connection. By default the connection timeout of the request
+     * @param dnsCacheTtl            time during which the addresses of a server are used before being resolved again
+     *                               in the background. It must not be shorter than the networkaddress.cache.ttl
+     *                               property of the JVM. By default servers are resolved by the JVM on each connection
+     * @throws IllegalArgumentException if dnsCacheTtl is shorter than the time to live of the JVM cache
+     */
+    @Builder
+    private PooledClientTransport(int maxConnectionsPerRoute, int maxConnectionsTotal, long idleEvictionTimeout,
+                                  long connectionTimeToLive, int leaseTimeout, long dnsCacheTtl) {
+        long timeToLive = connectionTimeToLive > 0 ? connectionTimeToLive : DEFAULT_CONNECTION_TIME_TO_LIVE;
+        if (dnsCacheTtl > 0) {
+            ClientDnsCache dnsCache = new ClientDnsCache(dnsCacheTtl);
+            connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                    .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                    .register("https", SSLConnectionSocketFactory.getSocketFactory())
+                    .build(), null, null, dnsCache::resolve, timeToLive, TimeUnit.MILLISECONDS);
+        } else {
+            connectionManager = new PoolingHttpClientConnectionManager(timeToLive, TimeUnit.MILLISECONDS);
+        }
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute > 0 ? maxConnectionsPerRoute : DEFAULT_MAX_CONNECTIONS_PER_ROUTE;
+        int maxTotal = maxConnectionsTotal > 0 ? maxConnectionsTotal : DEFAULT_MAX_CONNECTIONS_TOTAL;
+        connectionManager.setDefaultMaxPerRoute(this.maxConnectionsPerRoute);
+        connectionManager.setMaxTotal(maxTotal);
+        totalPermits = new Semaphore(maxTotal);
+
+        httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleEvictionTimeout > 0 ? idleEvictionTimeout : DEFAULT_IDLE_EVICTION_TIMEOUT, TimeUnit.MILLISECONDS)
+                .disableCookieManagement()
+                //Calls are retried by the SDK according to the configuration
+                .disableAutomaticRetries()
+                //Responses are decompressed by the SDK according to the configuration
+                .disableContentCompression()
+                .build();
+        this.leaseTimeout = leaseTimeout;
+    }
+
+    @Override
+    public ClientResponse execute(ClientRequest request) throws IOException {
+        HttpPost post = new HttpPost(request.getUrl());
+        request.getHeaders().forEach(post::setHeader);
+        post.setEntity(new RequestBodyEntity(request.getBody(), request.getStreamingMode() == RequestStreamingMode.CHUNKED));
+
+        RequestConfig.Builder requestConfig = RequestConfig.custom()
+                .setConnectTimeout(request.getConnectionTimeout())
+                .setSocketTimeout(request.getRequestTimeout())
+                .setConnectionRequestTimeout(leaseTimeout > 0 ? leaseTimeout : request.getConnectionTimeout());
+        if (request.getProxy() != null && Client.couldUseProxy(post.getURI().getHost())) {
+            InetSocketAddress proxyAddress = (InetSocketAddress) request.getProxy().address();
+            requestConfig.setProxy(new HttpHost(proxyAddress.getHostString(), proxyAddress.getPort()));
+        }
+        RequestConfig config = requestConfig.build();
+        post.setConfig(config);
+
+        //Wait for a free connection, both for the server and the whole pool
+        int timeout = leaseTimeout > 0 ? leaseTimeout : request.getConnectionTimeout();
+        Semaphore route = routePermits.computeIfAbsent(getRouteKey(post.getURI(), config.getProxy()),
+                key -> new Semaphore(maxConnectionsPerRoute));
+        acquire(route, timeout);
+        try {
+            acquire(totalPermits, timeout);
+        } catch (IOException ioe) {
+            route.release();
+            throw ioe;
+        }
+
+        try {
+            request.onCancel(post::abort);
+            CloseableHttpResponse response = httpClient.execute(post);
+            HttpEntity entity = response.getEntity();
+            //The connection is back in the pool once the response is closed
+            return new ClientResponse(response.getStatusLine().getStatusCode(),
+                    entity != null ? entity.getContent() : null, () -> {
+                try {
+                    response.close();
+                } finally {
+                    totalPermits.release();
+                    route.release();
+                }
+            }, entity != null && entity.getContentEncoding() != null ? entity.getContentEncoding().getValue() : null);
+        } catch (IOException | RuntimeException e) {
+            totalPermits.release();
+            route.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens connections to the server of the request and puts them in the pool, including the TLS handshake. The
+     * idle connections already in the pool are counted. Connections through a proxy are not opened in advance, as
+     * their tunnel is only opened by a call.
+     *
+     * @param request     the request whose url, proxy and connection timeout are used
+     * @param connections the number of connections to open, at most the max connections to the same server
+     * @return the number of connections open in the pool for the server
+     * @throws IOException if a connection cannot be opened
+     */
+    @Override
+    public int preconnect(ClientRequest request, int connections) throws IOException {
+        URI uri = URI.create(request.getUrl());
+        if (request.getProxy() != null && Client.couldUseProxy(uri.getHost())) {
+            return 0;
+        }
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        HttpRoute route = new HttpRoute(new HttpHost(uri.getHost(), uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80,
+                uri.getScheme()), null, secure);
+        Semaphore routePermit = routePermits.computeIfAbsent(getRouteKey(uri, null), key -> new Semaphore(maxConnectionsPerRoute));
+
+        //All the connections are leased at once, so that the pool does not hand the same one again. Connections in
+        //use by calls are not waited for
+        List<HttpClientConnection> leased = new ArrayList<>();
+        try {
+            while (leased.size() < connections && routePermit.tryAcquire()) {
+                if (!totalPermits.tryAcquire()) {
+                    routePermit.release();
+                    break;
+                }
+                try {
+                    leased.add(lease(route, request.getConnectionTimeout()));
+                } catch (IOException | RuntimeException e) {
+                    totalPermits.release();
+                    routePermit.release();
+                    throw e;
+                }
+            }
+
+            HttpClientContext context = HttpClientContext.create();
+            for (HttpClientConnection connection : leased) {
+                if (!connection.isOpen()) {
+                    connectionManager.connect(connection, route, request.getConnectionTimeout(), context);
+                    connectionManager.routeComplete(connection, route, context);
+                }
+            }
+            return leased.size();
+        } finally {
+            for (HttpClientConnection connection : leased) {
+                connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+                totalPermits.release();
+                routePermit.release();
+            }
+        }
+    }
+
+    private HttpClientConnection lease(HttpRoute route, int timeout) throws IOException {
+        try {
+            return connectionManager.requestConnection(route, null).get(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a pooled connection");
+        } catch (ExecutionException ee) {
+            throw new IOException("Could not lease a pooled connection", ee.getCause());
+        }
+    }
+
+    private static String getRouteKey(URI uri, HttpHost proxy) {
+        return uri.getScheme() + "://" + uri.getHost() + ":" + uri.getPort() + (proxy != null ? " via " + proxy : "");
+    }
+
+    private static void acquire(Semaphore permits, int timeout) throws IOException {
+        try {
+            if (!permits.tryAcquire(timeout > 0 ? timeout : Long.MAX_VALUE, TimeUnit.MILLISECONDS)) {
+                throw new ConnectionPoolTimeoutException("Timeout waiting for a pooled connection");
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a pooled connection");
+        }
+    }
+
+    @Override
+    public ClientPoolStats getPoolStats() {
+        PoolStats stats = connectionManager.getTotalStats();
+        int waiting = totalPermits.getQueueLength();
+        for (Semaphore route : routePermits.values()) {
+            waiting += route.getQueueLength();
+        }
+        return new ClientPoolStats(stats.getLeased(), stats.getAvailable(), stats.getPending() + waiting, stats.getMax());
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    /*
+    Entity writing the request body directly to the connection. Chunked entities are streamed without being
+    serialized first
+     */
+    private static final class RequestBodyEntity extends AbstractHttpEntity {
+        private final ClientRequestBody body;
+
+        RequestBodyEntity(ClientRequestBody body, boolean chunked) {
+            this.body = body;
+            setChunked(chunked);
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public long getContentLength() {
+            return isChunked() ? -1 : body.getContentLength();
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            body.writeTo(content);
+            return new ByteArrayInputStream(content.toByteArray());
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            body.writeTo(out);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.lyra.rest.client;
+
+/**
+ * <p>
+ * Enum that contains the different ways of compressing the request body sent to the payment platform</p>
+ *
+ * It is set with the requestCompression configuration parameter, using the name of the constant.
+ *
+ * @author Lyra Network
+ */
+public enum RequestCompression {
+    //The body is sent as is. Default mode
+    NONE,
+    //The body is compressed with gzip while it is written, and sent with a Content-Encoding: gzip header
+    GZIP
+}
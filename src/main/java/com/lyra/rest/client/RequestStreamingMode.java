@@ -0,0 +1,18 @@
+package com.lyra.rest.client;
+
+/**
+ * <p>
+ * Enum that contains the different ways of sending the request body to the payment platform</p>
+ *
+ * It is set with the requestStreamingMode configuration parameter, using the name of the constant.
+ *
+ * @author Lyra Network
+ */
+public enum RequestStreamingMode {
+    //The body is buffered by the transport before being sent. Default mode
+    BUFFERED,
+    //The body is serialized once in order to send its length, and then sent without being buffered by the transport
+    FIXED_LENGTH,
+    //The body is serialized directly to the connection, using chunked transfer encoding
+    CHUNKED
+}
@@ -0,0 +1,359 @@
+package com.lyra.rest.client;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.security.Provider;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable configuration used to perform the calls. <p>
+ *
+ * It is resolved once from the final configuration (the default one overridden by a {@link ClientConfiguration}),
+ * so that numeric values are parsed and validated, and the proxy, headers and urls are built only once instead of
+ * on every call.
+ *
+ * @author Lyra Network
+ */
+@Getter
+class ResolvedConfiguration {
+    //Max number of distinct resources whose url is kept
+    private static final int MAX_CACHED_URLS = 64;
+
+    private final String username;
+    private final String password;
+    private final String restApiServerName;
+    //Server names of the endpoints, a single one unless a list is configured
+    private final List<String> restApiServerNames;
+    private final String hashKey;
+    private final ClientAnswerVerifier answerVerifier;
+    private final Proxy proxy;
+    private final int connectionTimeout;
+    private final int requestTimeout;
+    //Max concurrent calls to each endpoint, 0 if not limited
+    private final int maxConcurrentRequests;
+    //Bulkheads by endpoint server name, empty if concurrent calls are not limited
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ClientBulkhead> bulkheads;
+    private final RequestStreamingMode requestStreamingMode;
+    private final RequestCompression requestCompression;
+    //Null if calls are not retried
+    private final ClientRetryPolicy retryPolicy;
+    //Circuit breakers by endpoint server name, empty if calls are not stopped when a server keeps failing
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ClientCircuitBreaker> circuitBreakers;
+    //Concurrency limiters by endpoint server name, empty if concurrent calls are not adapted to the health of the servers
+    @Getter(AccessLevel.NONE)
+    private final Map<String, ClientConcurrencyLimiter> concurrencyLimiters;
+    //Null if no resource is hedged
+    private final ClientHedgePolicy hedgePolicy;
+    //Null if no resource is coalesced
+    private final ClientCoalescer coalescer;
+    //Null if a single endpoint is configured
+    private final ClientRouter router;
+    private final Map<String, String> headers;
+
+    //Default configuration this configuration was resolved with
+    @Getter(AccessLevel.NONE)
+    private final ConfigurationSnapshot defaults;
+    @Getter(AccessLevel.NONE)
+    private final ConcurrentMap<String, String> urls = new ConcurrentHashMap<>();
+
+    /**
+     * @param configuration final configuration, as returned by {@link Client}
+     * @param defaults      default configuration the final configuration was computed with
+     * @throws ClientException if a value is not valid
+     */
+    ResolvedConfiguration(Map<String, String> configuration, ConfigurationSnapshot defaults) {
+        this.defaults = defaults;
+        username = configuration.get(ClientConfiguration.CONFIGURATION_KEY_USERNAME);
+        password = configuration.get(ClientConfiguration.CONFIGURATION_KEY_PASSWORD);
+        restApiServerName = configuration.get(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME);
+        hashKey = configuration.get(ClientConfiguration.CONFIGURATION_KEY_HASH_KEY);
+        answerVerifier = ClientAnswerVerifier.forKey(hashKey,
+                parseProviders(configuration.get(ClientConfiguration.CONFIGURATION_KEY_HASH_ALGORITHM_PROVIDERS)));
+
+        //Set proxy if necessary
+        String proxyHost = configuration.get(ClientConfiguration.CONFIGURATION_KEY_PROXY_HOST);
+        int proxyPort = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_PROXY_PORT);
+        proxy = (proxyHost != null && !proxyHost.isEmpty()) && proxyPort > 0
+                ? new Proxy(Proxy.Type.HTTP, InetSocketAddress.createUnresolved(proxyHost, proxyPort)) : null;
+
+        //Timeouts not set are infinite
+        connectionTimeout = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_CONNECTION_TIMEOUT);
+        requestTimeout = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_REQUEST_TIMEOUT);
+
+        //Several endpoints can be set as a list of server names
+        restApiServerNames = parseServerNames(restApiServerName);
+        router = restApiServerNames.size() > 1 ? ClientRouter.forServers(restApiServerName, restApiServerNames,
+                parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_HEALTH_CHECK_INTERVAL), connectionTimeout,
+                proxy == null) : null;
+
+        maxConcurrentRequests = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_MAX_CONCURRENT_REQUESTS);
+
+        requestStreamingMode = parseStreamingMode(configuration.get(ClientConfiguration.CONFIGURATION_KEY_REQUEST_STREAMING_MODE));
+        requestCompression = parseCompression(configuration.get(ClientConfiguration.CONFIGURATION_KEY_REQUEST_COMPRESSION));
+        boolean responseCompression = parseBoolean(configuration, ClientConfiguration.CONFIGURATION_KEY_RESPONSE_COMPRESSION);
+
+        int maxAttempts = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_MAX_ATTEMPTS);
+        double retryBudgetRatio = parseDouble(configuration, ClientConfiguration.CONFIGURATION_KEY_RETRY_BUDGET_RATIO);
+        retryPolicy = maxAttempts > 1 ? new ClientRetryPolicy(maxAttempts,
+                parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_RETRY_BACKOFF),
+                parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_RETRY_MAX_BACKOFF),
+                retryBudgetRatio > 0 ? ClientRetryBudget.forServer(restApiServerName, retryBudgetRatio) : null) : null;
+
+        int slowCallThreshold = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_SLOW_CALL_THRESHOLD);
+        double failureRatio = parseDouble(configuration, ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_FAILURE_RATIO);
+        if (failureRatio > 1) {
+            throw new ClientException("Invalid value for configuration parameter "
+                    + ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_FAILURE_RATIO + ": " + failureRatio);
+        }
+        int windowSize = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_WINDOW_SIZE);
+        if (failureRatio > 0 && windowSize <= 0) {
+            throw new ClientException("Invalid value for configuration parameter "
+                    + ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_WINDOW_SIZE + ": " + windowSize);
+        }
+        int openDuration = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_CIRCUIT_BREAKER_OPEN_DURATION);
+        int adaptiveMaxConcurrentRequests = parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_ADAPTIVE_MAX_CONCURRENT_REQUESTS);
+
+        //Each endpoint has its own limits and health, so that a failing one does not stop the calls to the others
+        Map<String, ClientCircuitBreaker> breakers = new HashMap<>();
+        Map<String, ClientConcurrencyLimiter> limiters = new HashMap<>();
+        Map<String, ClientBulkhead> serverBulkheads = new HashMap<>();
+        for (String server : restApiServerNames) {
+            if (maxConcurrentRequests > 0) {
+                serverBulkheads.put(server, ClientBulkhead.forServer(server, maxConcurrentRequests));
+            }
+            if (failureRatio > 0) {
+                breakers.put(server, ClientCircuitBreaker.forServer(server, failureRatio, windowSize, openDuration,
+                        slowCallThreshold));
+            }
+            if (adaptiveMaxConcurrentRequests > 0) {
+                limiters.put(server, ClientConcurrencyLimiter.forServer(server, adaptiveMaxConcurrentRequests,
+                        slowCallThreshold));
+            }
+        }
+        circuitBreakers = Collections.unmodifiableMap(breakers);
+        concurrencyLimiters = Collections.unmodifiableMap(limiters);
+        bulkheads = Collections.unmodifiableMap(serverBulkheads);
+
+        Set<ClientResource> hedgedResources = parseResources(configuration, ClientConfiguration.CONFIGURATION_KEY_HEDGED_RESOURCES, true);
+        double hedgeDelayPercentile = parseDouble(configuration, ClientConfiguration.CONFIGURATION_KEY_HEDGE_DELAY_PERCENTILE);
+        if (!hedgedResources.isEmpty() && (hedgeDelayPercentile <= 0 || hedgeDelayPercentile > 100)) {
+            throw new ClientException("Invalid value for configuration parameter "
+                    + ClientConfiguration.CONFIGURATION_KEY_HEDGE_DELAY_PERCENTILE + ": " + hedgeDelayPercentile);
+        }
+        hedgePolicy = !hedgedResources.isEmpty() ? ClientHedgePolicy.forServer(restApiServerName, hedgedResources,
+                hedgeDelayPercentile, parseDouble(configuration, ClientConfiguration.CONFIGURATION_KEY_HEDGE_BUDGET_RATIO),
+                maxConcurrentRequests * restApiServerNames.size()) : null;
+
+        Set<ClientResource> coalescedResources = parseResources(configuration, ClientConfiguration.CONFIGURATION_KEY_COALESCED_RESOURCES, false);
+        coalescer = !coalescedResources.isEmpty() ? ClientCoalescer.forServer(restApiServerName, coalescedResources,
+                parseInt(configuration, ClientConfiguration.CONFIGURATION_KEY_COALESCING_CACHE_DURATION)) : null;
+
+        Map<String, String> requestHeaders = new LinkedHashMap<>();
+        requestHeaders.put("User-Agent", "Mobile Client SDK " + Client.REST_API_VERSION);
+        requestHeaders.put("Content-type", "application/json; charset=" + StandardCharsets.UTF_8);
+        if (requestCompression == RequestCompression.GZIP) {
+            requestHeaders.put("Content-Encoding", "gzip");
+        }
+        requestHeaders.put("Accept", "application/json");
+        if (responseCompression) {
+            requestHeaders.put("Accept-Encoding", "gzip, deflate");
+        }
+        requestHeaders.put("Authorization", "Basic " + Base64.getEncoder().encodeToString(
+                (username + ":" + password).getBytes(StandardCharsets.UTF_8)));
+        headers = Collections.unmodifiableMap(requestHeaders);
+    }
+
+    /**
+     * @return true if this configuration was resolved with the current default configuration, false if the default
+     * configuration has been reloaded since
+     */
+    boolean isCurrent() {
+        return defaults == Client.getDefaultConfiguration();
+    }
+
+    /**
+     * @param server the server name of an endpoint
+     * @return the bulkhead of the endpoint, null if concurrent calls are not limited
+     */
+    ClientBulkhead getBulkhead(String server) {
+        return bulkheads.get(server);
+    }
+
+    /**
+     * @param server the server name of an endpoint
+     * @return the circuit breaker of the endpoint, null if calls are not stopped when the server keeps failing
+     */
+    ClientCircuitBreaker getCircuitBreaker(String server) {
+        return circuitBreakers.get(server);
+    }
+
+    /**
+     * @param server the server name of an endpoint
+     * @return the concurrency limiter of the endpoint, null if concurrent calls are not adapted to its health
+     */
+    ClientConcurrencyLimiter getConcurrencyLimiter(String server) {
+        return concurrencyLimiters.get(server);
+    }
+
+    /**
+     * Returns the url to call the provided resource, on the first endpoint if several are configured
+     *
+     * @param resource the resource to target
+     * @return the full url of the resource
+     */
+    String getUrl(String resource) {
+        String url = urls.get(resource);
+        if (url == null) {
+            url = Client.generateChargeUrl(resource, restApiServerNames.get(0));
+            if (urls.size() < MAX_CACHED_URLS) {
+                urls.putIfAbsent(resource, url);
+            }
+        }
+        return url;
+    }
+
+    //Server names are separated by commas. The urls of a single server are generated from the value as is
+    private static List<String> parseServerNames(String value) {
+        if (value == null || value.indexOf(',') < 0) {
+            return Collections.singletonList(value);
+        }
+        List<String> servers = new ArrayList<>();
+        for (String server : value.split(",")) {
+            String trimmed = server.trim();
+            if (trimmed.isEmpty() || !trimmed.contains("://")) {
+                throw new ClientException("Invalid value for configuration parameter "
+                        + ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME + ": " + value);
+            }
+            if (!servers.contains(trimmed)) {
+                servers.add(trimmed);
+            }
+        }
+        return Collections.unmodifiableList(servers);
+    }
+
+    //Empty values are returned as the default mode
+    private static RequestStreamingMode parseStreamingMode(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return RequestStreamingMode.BUFFERED;
+        }
+        try {
+            return RequestStreamingMode.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iae) {
+            throw new ClientException("Invalid value for configuration parameter "
+                    + ClientConfiguration.CONFIGURATION_KEY_REQUEST_STREAMING_MODE + ": " + value, iae);
+        }
+    }
+
+    //Empty values are returned as no compression
+    private static RequestCompression parseCompression(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return RequestCompression.NONE;
+        }
+        try {
+            return RequestCompression.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException iae) {
+            throw new ClientException("Invalid value for configuration parameter "
+                    + ClientConfiguration.CONFIGURATION_KEY_REQUEST_COMPRESSION + ": " + value, iae);
+        }
+    }
+
+    //Providers are set as a list of algorithm:provider, for example sha512_hmac:SunJCE,sha256_hmac:Conscrypt
+    private static Map<ClientHashAlgorithm, Provider> parseProviders(String value) {
+        Map<ClientHashAlgorithm, Provider> providers = new EnumMap<>(ClientHashAlgorithm.class);
+        if (value == null || value.trim().isEmpty()) {
+            return providers;
+        }
+        for (String algorithmProvider : value.split(",")) {
+            String[] parts = algorithmProvider.split(":");
+            ClientHashAlgorithm algorithm = parts.length == 2 ? ClientHashAlgorithm.forValue(parts[0].trim()) : null;
+            Provider provider = parts.length == 2 ? Security.getProvider(parts[1].trim()) : null;
+            if (algorithm == null || provider == null) {
+                throw new ClientException("Invalid value for configuration parameter "
+                        + ClientConfiguration.CONFIGURATION_KEY_HASH_ALGORITHM_PROVIDERS + ": " + value);
+            }
+            providers.put(algorithm, provider);
+        }
+        return providers;
+    }
+
+    //Resources are set as a list of names or values, for example SDK_TEST or Charge/SDKTest
+    private static Set<ClientResource> parseResources(Map<String, String> configuration, String key, boolean idempotentOnly) {
+        String value = configuration.get(key);
+        Set<ClientResource> resources = EnumSet.noneOf(ClientResource.class);
+        if (value == null || value.trim().isEmpty()) {
+            return resources;
+        }
+        for (String name : value.split(",")) {
+            ClientResource resource = ClientResource.forValue(name.trim());
+            if (resource == null) {
+                try {
+                    resource = ClientResource.valueOf(name.trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException iae) {
+                    //Reported below
+                }
+            }
+            if (resource == null || (idempotentOnly && !resource.isIdempotent())) {
+                throw new ClientException("Invalid value for configuration parameter " + key + ": " + value);
+            }
+            resources.add(resource);
+        }
+        return resources;
+    }
+
+    //Empty values are returned as false
+    private static boolean parseBoolean(Map<String, String> configuration, String key) {
+        String value = configuration.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return false;
+        }
+        if (!"true".equalsIgnoreCase(value.trim()) && !"false".equalsIgnoreCase(value.trim())) {
+            throw new ClientException("Invalid value for configuration parameter " + key + ": " + value);
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    //Empty values are returned as 0
+    private static double parseDouble(Map<String, String> configuration, String key) {
+        String value = configuration.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException nfe) {
+            throw new ClientException("Invalid value for configuration parameter " + key + ": " + value, nfe);
+        }
+    }
+
+    //Empty values are returned as 0
+    private static int parseInt(Map<String, String> configuration, String key) {
+        String value = configuration.get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException nfe) {
+            throw new ClientException("Invalid value for configuration parameter " + key + ": " + value, nfe);
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package com.lyra.rest.client;
+
+import com.lyra.rest.client.model.ApiRequest;
+import com.lyra.rest.client.model.ApiResponse;
+import lombok.AccessLevel;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * <p>
+ * Instance based client that allows to interact with the Rest API of the Payment Platform.</p>
+ * <p>
+ * It works as the static {@link Client}, but the configuration is set once when the instance is built and the
+ * HTTP calls are performed by a pluggable {@link ClientTransport}. For example, in order to reuse keep-alive
+ * connections:</p>
+ * <pre>
+ * RestApiClient client = RestApiClient.builder()
+ *         .configuration(ClientConfiguration.builder().username("username").password("password").build())
+ *         .transport(PooledClientTransport.builder().maxConnectionsPerRoute(50).build())
+ *         .build();
+ * </pre>
+ * <p>
+ * Calls can also be offloaded to the executor of the client with {@link #postAsync(String, Map)}, so that the
+ * calling thread does not wait for the round trip. The transport is still blocking: each call in progress holds a
+ * thread of the executor.</p>
+ * <p>
+ * Instances are thread-safe and should be shared. They must be closed when they are no longer needed.</p>
+ *
+ * @author Lyra Network
+ */
+@Getter
+public class RestApiClient implements AutoCloseable {
+    //Max threads of the default executor, unless the concurrent calls or the connections are limited
+    static final int DEFAULT_MAX_THREADS = 64;
+    //Time after which the idle threads of the default executor are stopped
+    private static final long THREAD_KEEP_ALIVE = 60000;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ClientConfiguration configuration;
+    private final ClientTransport transport;
+    private final Executor executor;
+    private final ClientListener listener;
+
+    //Configuration resolved once for all the calls, and again once the default configuration is reloaded
+    @Getter(AccessLevel.NONE)
+    private volatile ResolvedConfiguration resolvedConfiguration;
+
+    //Transport performing the calls, measured if a listener is set
+    @Getter(AccessLevel.NONE)
+    private final ClientTransport callTransport;
+
+    //Executor created by this client, shut down on close
+    @Getter(AccessLevel.NONE)
+    private final ExecutorService ownedExecutor;
+
+    //Quota of the merchant when created by a ClientRegistry, null if the calls are not limited
+    @Getter(AccessLevel.NONE)
+    private final ClientRegistry.MerchantQuota merchantQuota;
+
+    //True once a warm-up has succeeded
+    @Getter(AccessLevel.NONE)
+    private volatile boolean ready;
+
+    /**
+     * @param configuration configuration that overrides the default one. By default the default configuration is used
+     * @param transport     transport used to perform the calls. By default a new connection is opened per call
+     * @param executor      executor that performs the asynchronous calls. By default a pool of daemon threads, as
+     *                      many as the max concurrent calls or the max connections of the transport
+     * @param listener      listener notified of the calls, for example {@link ClientMetrics}. By default none
+     */
+    @Builder
+    private RestApiClient(ClientConfiguration configuration, ClientTransport transport, Executor executor,
+                          ClientListener listener) {
+        this(configuration, transport, executor, listener, null);
+    }
+
+    RestApiClient(ClientConfiguration configuration, ClientTransport transport, Executor executor,
+                  ClientListener listener, ClientRegistry.MerchantQuota merchantQuota) {
+        this.merchantQuota = merchantQuota;
+        this.configuration = configuration != null ? configuration : ClientConfiguration.builder().build();
+        this.transport = transport != null ? transport : Client.DEFAULT_TRANSPORT;
+        this.listener = listener;
+        this.callTransport = listener != null ? new ListeningClientTransport(this.transport, listener) : this.transport;
+        this.resolvedConfiguration = Client.resolveOwnConfiguration(this.configuration);
+        if (executor != null) {
+            this.executor = executor;
+            this.ownedExecutor = null;
+        } else {
+            int maxConcurrentRequests = resolvedConfiguration.getMaxConcurrentRequests();
+            this.ownedExecutor = newExecutor(maxConcurrentRequests > 0
+                    ? maxConcurrentRequests * resolvedConfiguration.getRestApiServerNames().size()
+                    : getMaxThreads(this.transport), runnable -> {
+                Thread thread = new Thread(runnable, "rest-api-client-" + THREAD_COUNTER.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.executor = ownedExecutor;
+        }
+    }
+
+    /*
+    Creates a pool of at most the provided number of threads. Calls submitted while all the threads are busy wait in
+    its queue rather than starting a new thread, and idle threads are stopped
+     */
+    static ExecutorService newExecutor(int threads, ThreadFactory threadFactory) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, THREAD_KEEP_ALIVE, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    //More threads than connections would only wait for a connection
+    static int getMaxThreads(ClientTransport transport) {
+        ClientPoolStats stats = transport.getPoolStats();
+        return stats != null && stats.getMax() > 0 ? stats.getMax() : DEFAULT_MAX_THREADS;
+    }
+
+    /**
+     * Calls the payment platform using the REST API.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @return {@link String} that contains the full response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public String post(String targetResource, Map<String, Object> parameters) {
+        return call(() -> Client.post(callTransport, targetResource, parameters, resolvedConfiguration()));
+    }
+
+    /**
+     * Calls the payment platform using the REST API. If the resource is coalesced, see the coalescedResources
+     * parameter, the calls with the same idempotency key share a single call to the platform.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @param idempotencyKey key identifying the identical calls, for example the identifier of the order. If null,
+     *                       the calls with the same parameters are identical
+     * @return {@link String} that contains the full response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public String post(String targetResource, Map<String, Object> parameters, String idempotencyKey) {
+        return call(() -> Client.post(callTransport, targetResource, parameters, idempotencyKey, resolvedConfiguration(),
+                Client::readResponseContent));
+    }
+
+    /**
+     * Calls the payment platform using the REST API with a typed request. The JSON response is parsed directly
+     * from the connection into the typed response of the resource.
+     *
+     * @param targetResource the resource to target
+     * @param request        the typed request, whose type must be the one of the resource
+     * @param <A>            the type of the answer
+     * @return the response from API. Its answer is set on success, otherwise its error
+     * @throws ClientException exception if error processing the request
+     */
+    public <A> ApiResponse<A> post(ClientResource targetResource, ApiRequest<A> request) {
+        return call(() -> Client.post(callTransport, targetResource, request, resolvedConfiguration()));
+    }
+
+    /**
+     * Calls the payment platform using the REST API and parses the JSON response directly from the connection
+     * into the provided type.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @param responseType   the type of the response, for example {@link com.google.gson.JsonObject}
+     * @param <T>            the type of the response
+     * @return the response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public <T> T postForObject(String targetResource, Map<String, Object> parameters, Class<T> responseType) {
+        return call(() -> Client.post(callTransport, targetResource, parameters, resolvedConfiguration(),
+                response -> Client.readResponseObject(response, responseType)));
+    }
+
+    /**
+     * Calls the payment platform using the REST API and returns the raw response.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @return the UTF-8 encoded response from API
+     * @throws ClientException exception if error processing the request
+     */
+    public byte[] postForBytes(String targetResource, Map<String, Object> parameters) {
+        return call(() -> Client.post(callTransport, targetResource, parameters, resolvedConfiguration(),
+                Client::readResponseBytes));
+    }
+
+    /**
+     * Calls the payment platform using the REST API and hands the response stream to the provided handler.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @param handler        handler that reads the response stream
+     * @param <T>            the type of the result
+     * @return the result of the handler
+     * @throws ClientException exception if error processing the request
+     */
+    public <T> T postForStream(String targetResource, Map<String, Object> parameters, ClientResponseHandler<T> handler) {
+        return call(() -> Client.post(callTransport, targetResource, parameters, resolvedConfiguration(),
+                response -> Client.readResponseStream(response, handler)));
+    }
+
+    /**
+     * Calls the payment platform using the REST API from the executor of this client, so that the calling thread
+     * does not wait for the round trip. This is an offload rather than non-blocking I/O: the call blocks a thread of
+     * the executor until it ends, and calls wait in the queue of the executor while all its threads are busy.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param parameters     Map that contains the parameters of the payment
+     * @return {@link CompletableFuture} completed with the full response from API, or with a {@link ClientException}
+     */
+    public CompletableFuture<String> postAsync(String targetResource, Map<String, Object> parameters) {
+        return CompletableFuture.supplyAsync(() -> post(targetResource, parameters), executor);
+    }
+
+    /**
+     * Calls the payment platform once per request of the source, for example to create the recurring payments of a
+     * nightly job. The calls are performed concurrently by the executor of this client, but never more than the max
+     * calls in flight: the next requests are read from the source as the results are read.
+     *
+     * @param targetResource the resource to target. Use {@link ClientResource} enum to help defining this parameter
+     * @param requests       the source of the parameters of each call, read on the thread reading the results
+     * @param maxInFlight    max calls submitted and whose result has not been read yet
+     * @param ordered        true to return the results in the order of the requests, false in the order the calls end
+     * @return {@link ClientBulkSubmission} returning the result of each call
+     * @throws ClientException if the max calls in flight is not greater than 0
+     */
+    public ClientBulkSubmission postAll(String targetResource, Iterator<? extends Map<String, Object>> requests,
+                                        int maxInFlight, boolean ordered) {
+        return new ClientBulkSubmission(parameters -> post(targetResource, parameters), executor, requests,
+                maxInFlight, ordered);
+    }
+
+    /**
+     * Checks the integrity of the answer. To perform this verification it compares the provided hash with
+     * the one generated with the selected algorithm
+     *
+     * @param paymentAnswer map that contains the answer data
+     * @return true if the integrity of the answer is valid
+     */
+    public boolean verifyAnswer(Map<String, Object> paymentAnswer) {
+        return Client.verifyAnswer(paymentAnswer, resolvedConfiguration());
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call, without decoding the body first.
+     *
+     * @param body the raw form body
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     */
+    public ClientFormAnswer verifyFormAnswer(byte[] body) {
+        return Client.verifyFormAnswer(ByteBuffer.wrap(body), resolvedConfiguration());
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call, without decoding the body first. The position of the buffer is not changed.
+     *
+     * @param body the raw form body, between the position and the limit of the buffer
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     */
+    public ClientFormAnswer verifyFormAnswer(ByteBuffer body) {
+        return Client.verifyFormAnswer(body, resolvedConfiguration());
+    }
+
+    /**
+     * Checks the integrity of an answer received as an application/x-www-form-urlencoded body, for example in an
+     * IPN call. The stream is read until its end, but not closed.
+     *
+     * @param body the raw form body
+     * @return {@link ClientFormAnswer} telling whether the integrity of the answer is valid
+     * @throws ClientException if the body cannot be read
+     */
+    public ClientFormAnswer verifyFormAnswer(InputStream body) {
+        return Client.verifyFormAnswer(body, resolvedConfiguration());
+    }
+
+    /**
+     * Checks the integrity of a batch of answers. Answers are verified in parallel, using all the cores. Answers
+     * that cannot be verified, for example because their algorithm is not supported, are reported as not valid.
+     *
+     * @param paymentAnswers list of maps that contain the answer data
+     * @return {@link BitSet} whose bit i is set if the integrity of the answer i is valid
+     */
+    public BitSet verifyAnswers(List<Map<String, Object>> paymentAnswers) {
+        return ClientAnswerBatch.verify(paymentAnswers, resolvedConfiguration());
+    }
+
+    /*
+    Performs a call within the quota of the merchant, if any. The quota is taken before the bulkhead and the health
+    permits of the server, so that a merchant waiting for its quota holds no capacity shared with other merchants
+     */
+    private <T> T call(Supplier<T> call) {
+        if (merchantQuota == null) {
+            return call.get();
+        }
+        merchantQuota.acquire(resolvedConfiguration().getConnectionTimeout());
+        try {
+            return call.get();
+        } finally {
+            merchantQuota.release();
+        }
+    }
+
+    /*
+    Returns the configuration of the calls, resolved again if the default configuration has been reloaded
+     */
+    private ResolvedConfiguration resolvedConfiguration() {
+        ResolvedConfiguration resolved = resolvedConfiguration;
+        if (!resolved.isCurrent()) {
+            resolved = Client.resolveOwnConfiguration(configuration);
+            resolvedConfiguration = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * Initializes the SDK for this client and opens connections to the payment platform, so that the first calls
+     * are not slower than the next ones. It should be called at startup, before the client receives traffic. No call
+     * is performed on the payment platform.
+     *
+     * @param connections the number of connections to open, if the transport pools connections
+     * @return {@link ClientWarmUp} telling whether the client is ready. Failures are reported rather than thrown
+     */
+    public ClientWarmUp warmUp(int connections) {
+        ClientWarmUp warmUp = ClientWarmUp.run(transport, resolvedConfiguration(), connections);
+        if (warmUp.isReady()) {
+            ready = true;
+        }
+        return warmUp;
+    }
+
+    /**
+     * @return true once a warm-up of this client has succeeded, for example to answer a readiness probe
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the statistics of the connection pool of the transport.
+     *
+     * @return {@link ClientPoolStats} or null if the transport does not pool connections
+     */
+    public ClientPoolStats getPoolStats() {
+        return transport.getPoolStats();
+    }
+
+    /**
+     * Closes the transport, and the executor if it was created by this client
+     *
+     * @throws ClientException if the transport cannot be closed
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+        try {
+            transport.close();
+        } catch (IOException ioe) {
+            throw new ClientException("Exception closing client transport", ioe);
+        }
+    }
+}
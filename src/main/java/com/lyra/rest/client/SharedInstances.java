@@ -0,0 +1,115 @@
+package com.lyra.rest.client;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Instances shared by all the configurations calling a server with the same settings, for example its circuit
+ * breaker or its bulkhead. <p>
+ *
+ * Instances are keyed by the server and all their settings, so that a client configured differently gets its own
+ * instance instead of replacing, and resetting, the one still used by the other clients. Once the max number of
+ * instances is reached, the least recently used tenth is evicted. Evicted instances keep working for the
+ * configurations referencing them, they are only no longer handed to new configurations.
+ *
+ * @param <V> the type of the shared instances
+ * @author Lyra Network
+ */
+final class SharedInstances<V> {
+    //Max number of instances kept by default
+    static final int DEFAULT_MAX_INSTANCES = 1024;
+
+    private final int maxInstances;
+    private final ConcurrentMap<String, Entry<V>> instances = new ConcurrentHashMap<>();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    SharedInstances() {
+        this(DEFAULT_MAX_INSTANCES);
+    }
+
+    /**
+     * @param maxInstances the max number of instances kept
+     */
+    SharedInstances(int maxInstances) {
+        this.maxInstances = maxInstances;
+    }
+
+    /**
+     * Builds the key of an instance.
+     *
+     * @param server   the server, or the list of servers, the instance is used for
+     * @param settings all the settings of the instance
+     * @return the key identifying the instance
+     */
+    static String key(String server, Object... settings) {
+        StringBuilder key = new StringBuilder(String.valueOf(server));
+        for (Object setting : settings) {
+            key.append('|').append(setting);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns the instance for the provided key, creating it if necessary.
+     *
+     * @param key     the key built by {@link #key}
+     * @param factory function creating the instance
+     * @return the instance shared by all the callers with the same key
+     */
+    V get(String key, Supplier<V> factory) {
+        Entry<V> entry = instances.get(key);
+        if (entry == null) {
+            if (instances.size() >= maxInstances) {
+                evict();
+            }
+            entry = instances.computeIfAbsent(key, k -> new Entry<>(factory.get()));
+        }
+        entry.lastAccess = System.nanoTime();
+        return entry.instance;
+    }
+
+    /**
+     * @return the number of instances kept
+     */
+    int size() {
+        return instances.size();
+    }
+
+    /*
+    Evicts the least recently used tenth of the instances, so that they are not sorted on every new instance
+     */
+    private void evict() {
+        if (!evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<Map.Entry<String, Entry<V>>> entries = new ArrayList<>(instances.entrySet());
+            if (entries.size() < maxInstances) {
+                return;
+            }
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+            int evicted = Math.max(1, maxInstances / 10) + entries.size() - maxInstances;
+            for (int i = 0; i < evicted; i++) {
+                instances.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V instance;
+        //Time of the last use, from System.nanoTime()
+        private volatile long lastAccess;
+
+        Entry(V instance) {
+            this.instance = instance;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.lyra.rest.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * {@link ClientRequestBody} recording whether the transport has started sending another body, which means that the
+ * connection is established and that the request may have reached the server. <p>
+ *
+ * It must wrap the body as handed to the transport, for example once compressed: the length of a fixed length body is
+ * computed before connecting, by serializing the bodies it wraps.
+ *
+ * @author Lyra Network
+ */
+class TrackedRequestBody implements ClientRequestBody {
+    private final ClientRequestBody body;
+    private volatile boolean written;
+
+    TrackedRequestBody(ClientRequestBody body) {
+        this.body = body;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        written = true;
+        body.writeTo(out);
+    }
+
+    @Override
+    public long getContentLength() {
+        return body.getContentLength();
+    }
+
+    /**
+     * @return true if the transport has started sending the body, so that the request may have reached the server
+     */
+    boolean isWritten() {
+        return written;
+    }
+}
@@ -0,0 +1,16 @@
+package com.lyra.rest.client.model;
+
+import lombok.Getter;
+
+/**
+ * Answer returned by the Rest API when the status of the response is ERROR.
+ *
+ * @author Lyra Network
+ */
+@Getter
+public class ApiError {
+    String errorCode;
+    String errorMessage;
+    String detailedErrorCode;
+    String detailedErrorMessage;
+}
@@ -0,0 +1,13 @@
+package com.lyra.rest.client.model;
+
+/**
+ * Typed request to a resource of the Rest API. <p>
+ *
+ * The type parameter is the type of the answer returned by the resource on success, so that the response of
+ * {@link com.lyra.rest.client.Client#post(com.lyra.rest.client.ClientResource, ApiRequest)} is typed accordingly.
+ *
+ * @param <A> the type of the answer
+ * @author Lyra Network
+ */
+public interface ApiRequest<A> {
+}
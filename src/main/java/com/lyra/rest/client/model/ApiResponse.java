@@ -0,0 +1,33 @@
+package com.lyra.rest.client.model;
+
+import lombok.Getter;
+
+/**
+ * Response of the Rest API. <p>
+ *
+ * The platform always answers with an HTTP 200 code. When the status is SUCCESS, the answer is set, otherwise the
+ * error contains the details of the problem.
+ *
+ * @param <A> the type of the answer
+ * @author Lyra Network
+ */
+@Getter
+public class ApiResponse<A> {
+    public static final String STATUS_SUCCESS = "SUCCESS";
+    public static final String STATUS_ERROR = "ERROR";
+
+    String webService;
+    String version;
+    String applicationVersion;
+    String status;
+    A answer;
+    ApiError error;
+    String ticket;
+    String serverDate;
+    String applicationProvider;
+    String mode;
+
+    public boolean isSuccess() {
+        return STATUS_SUCCESS.equals(status);
+    }
+}
@@ -0,0 +1,28 @@
+package com.lyra.rest.client.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * This bean class encapsulates the parameters of the Charge/CreatePayment resource. <p>
+ *
+ * The amount is expressed in the smallest currency unit. Parameters not defined by this class can be set in
+ * additionalParameters.
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+public class CreatePaymentRequest implements ApiRequest<FormTokenAnswer> {
+    private Long amount;
+    private String currency;
+    private String orderId;
+    private String formAction;
+    private String ipnTargetUrl;
+    private String strongAuthentication;
+    private Customer customer;
+    private Map<String, String> metadata;
+    private Map<String, Object> additionalParameters;
+}
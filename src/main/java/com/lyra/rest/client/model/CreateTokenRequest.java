@@ -0,0 +1,25 @@
+package com.lyra.rest.client.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * This bean class encapsulates the parameters of the Charge/CreateToken resource. <p>
+ *
+ * Parameters not defined by this class can be set in additionalParameters.
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+public class CreateTokenRequest implements ApiRequest<FormTokenAnswer> {
+    private String currency;
+    private String orderId;
+    private String ipnTargetUrl;
+    private String strongAuthentication;
+    private Customer customer;
+    private Map<String, String> metadata;
+    private Map<String, Object> additionalParameters;
+}
@@ -0,0 +1,21 @@
+package com.lyra.rest.client.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * This bean class encapsulates the customer data of a payment or token creation. <p>
+ *
+ * Parameters not defined by this class can be set in additionalParameters.
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+public class Customer {
+    private String email;
+    private String reference;
+    private Map<String, Object> additionalParameters;
+}
@@ -0,0 +1,13 @@
+package com.lyra.rest.client.model;
+
+import lombok.Getter;
+
+/**
+ * Answer of the Charge/CreatePayment and Charge/CreateToken resources.
+ *
+ * @author Lyra Network
+ */
+@Getter
+public class FormTokenAnswer {
+    String formToken;
+}
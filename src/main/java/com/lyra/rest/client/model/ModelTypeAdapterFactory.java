@@ -0,0 +1,52 @@
+package com.lyra.rest.client.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * <p>
+ * Gson factory providing the hand-written adapters of the model classes.</p>
+ * <p>
+ * These adapters read and write the fields of the model directly from the JSON stream, so that neither reflection
+ * nor intermediate maps are used. It is registered on the Gson instance used by the client, and can be registered
+ * on any other Gson instance the same way.</p>
+ *
+ * @author Lyra Network
+ */
+public final class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType == CreatePaymentRequest.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.CreatePaymentRequestAdapter(gson);
+        } else if (rawType == CreateTokenRequest.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.CreateTokenRequestAdapter(gson);
+        } else if (rawType == SdkTestRequest.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.SdkTestRequestAdapter();
+        } else if (rawType == Customer.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.CustomerAdapter(gson);
+        } else if (rawType == FormTokenAnswer.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.FormTokenAnswerAdapter();
+        } else if (rawType == SdkTestAnswer.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.SdkTestAnswerAdapter();
+        } else if (rawType == ApiError.class) {
+            return (TypeAdapter<T>) new ModelTypeAdapters.ApiErrorAdapter();
+        } else if (rawType == ApiResponse.class) {
+            //Answers of raw responses are kept as JSON trees
+            Type answerType = type.getType() instanceof ParameterizedType
+                    ? ((ParameterizedType) type.getType()).getActualTypeArguments()[0] : JsonElement.class;
+            return (TypeAdapter<T>) new ModelTypeAdapters.ApiResponseAdapter<>(
+                    gson.getAdapter(TypeToken.get(answerType)), gson.getAdapter(ApiError.class),
+                    gson.getAdapter(JsonElement.class));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,386 @@
+package com.lyra.rest.client.model;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Hand-written adapters of the model classes, provided by {@link ModelTypeAdapterFactory}. <p>
+ *
+ * Null values are not written, and unknown fields are skipped when reading.
+ *
+ * @author Lyra Network
+ */
+final class ModelTypeAdapters {
+
+    //Private constructor as all members are static
+    private ModelTypeAdapters() {
+    }
+
+    static final class CreatePaymentRequestAdapter extends TypeAdapter<CreatePaymentRequest> {
+        private final Gson gson;
+
+        CreatePaymentRequestAdapter(Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public void write(JsonWriter out, CreatePaymentRequest request) throws IOException {
+            if (request == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (request.getAmount() != null) {
+                out.name("amount").value(request.getAmount().longValue());
+            }
+            writeString(out, "currency", request.getCurrency());
+            writeString(out, "orderId", request.getOrderId());
+            writeString(out, "formAction", request.getFormAction());
+            writeString(out, "ipnTargetUrl", request.getIpnTargetUrl());
+            writeString(out, "strongAuthentication", request.getStrongAuthentication());
+            writeCustomer(gson, out, request.getCustomer());
+            writeMetadata(out, request.getMetadata());
+            writeAdditionalParameters(gson, out, request.getAdditionalParameters());
+            out.endObject();
+        }
+
+        @Override
+        public CreatePaymentRequest read(JsonReader in) {
+            throw new UnsupportedOperationException("Requests are only serialized");
+        }
+    }
+
+    static final class CreateTokenRequestAdapter extends TypeAdapter<CreateTokenRequest> {
+        private final Gson gson;
+
+        CreateTokenRequestAdapter(Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public void write(JsonWriter out, CreateTokenRequest request) throws IOException {
+            if (request == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "currency", request.getCurrency());
+            writeString(out, "orderId", request.getOrderId());
+            writeString(out, "ipnTargetUrl", request.getIpnTargetUrl());
+            writeString(out, "strongAuthentication", request.getStrongAuthentication());
+            writeCustomer(gson, out, request.getCustomer());
+            writeMetadata(out, request.getMetadata());
+            writeAdditionalParameters(gson, out, request.getAdditionalParameters());
+            out.endObject();
+        }
+
+        @Override
+        public CreateTokenRequest read(JsonReader in) {
+            throw new UnsupportedOperationException("Requests are only serialized");
+        }
+    }
+
+    static final class SdkTestRequestAdapter extends TypeAdapter<SdkTestRequest> {
+
+        @Override
+        public void write(JsonWriter out, SdkTestRequest request) throws IOException {
+            if (request == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "value", request.getValue());
+            out.endObject();
+        }
+
+        @Override
+        public SdkTestRequest read(JsonReader in) {
+            throw new UnsupportedOperationException("Requests are only serialized");
+        }
+    }
+
+    static final class CustomerAdapter extends TypeAdapter<Customer> {
+        private final Gson gson;
+
+        CustomerAdapter(Gson gson) {
+            this.gson = gson;
+        }
+
+        @Override
+        public void write(JsonWriter out, Customer customer) throws IOException {
+            if (customer == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "email", customer.getEmail());
+            writeString(out, "reference", customer.getReference());
+            writeAdditionalParameters(gson, out, customer.getAdditionalParameters());
+            out.endObject();
+        }
+
+        @Override
+        public Customer read(JsonReader in) {
+            throw new UnsupportedOperationException("Requests are only serialized");
+        }
+    }
+
+    static final class FormTokenAnswerAdapter extends TypeAdapter<FormTokenAnswer> {
+
+        @Override
+        public void write(JsonWriter out, FormTokenAnswer answer) throws IOException {
+            if (answer == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "formToken", answer.getFormToken());
+            out.endObject();
+        }
+
+        @Override
+        public FormTokenAnswer read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            FormTokenAnswer answer = new FormTokenAnswer();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("formToken".equals(in.nextName())) {
+                    answer.formToken = readString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return answer;
+        }
+    }
+
+    static final class SdkTestAnswerAdapter extends TypeAdapter<SdkTestAnswer> {
+
+        @Override
+        public void write(JsonWriter out, SdkTestAnswer answer) throws IOException {
+            if (answer == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "value", answer.getValue());
+            out.endObject();
+        }
+
+        @Override
+        public SdkTestAnswer read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            SdkTestAnswer answer = new SdkTestAnswer();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("value".equals(in.nextName())) {
+                    answer.value = readString(in);
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return answer;
+        }
+    }
+
+    static final class ApiErrorAdapter extends TypeAdapter<ApiError> {
+
+        @Override
+        public void write(JsonWriter out, ApiError error) throws IOException {
+            if (error == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "errorCode", error.getErrorCode());
+            writeString(out, "errorMessage", error.getErrorMessage());
+            writeString(out, "detailedErrorCode", error.getDetailedErrorCode());
+            writeString(out, "detailedErrorMessage", error.getDetailedErrorMessage());
+            out.endObject();
+        }
+
+        @Override
+        public ApiError read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ApiError error = new ApiError();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "errorCode":
+                        error.errorCode = readString(in);
+                        break;
+                    case "errorMessage":
+                        error.errorMessage = readString(in);
+                        break;
+                    case "detailedErrorCode":
+                        error.detailedErrorCode = readString(in);
+                        break;
+                    case "detailedErrorMessage":
+                        error.detailedErrorMessage = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return error;
+        }
+    }
+
+    static final class ApiResponseAdapter<A> extends TypeAdapter<ApiResponse<A>> {
+        private final TypeAdapter<A> answerAdapter;
+        private final TypeAdapter<ApiError> errorAdapter;
+        private final TypeAdapter<JsonElement> treeAdapter;
+
+        ApiResponseAdapter(TypeAdapter<A> answerAdapter, TypeAdapter<ApiError> errorAdapter, TypeAdapter<JsonElement> treeAdapter) {
+            this.answerAdapter = answerAdapter;
+            this.errorAdapter = errorAdapter;
+            this.treeAdapter = treeAdapter;
+        }
+
+        @Override
+        public void write(JsonWriter out, ApiResponse<A> response) throws IOException {
+            if (response == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            writeString(out, "webService", response.getWebService());
+            writeString(out, "version", response.getVersion());
+            writeString(out, "applicationVersion", response.getApplicationVersion());
+            writeString(out, "status", response.getStatus());
+            if (response.getAnswer() != null) {
+                answerAdapter.write(out.name("answer"), response.getAnswer());
+            } else if (response.getError() != null) {
+                errorAdapter.write(out.name("answer"), response.getError());
+            }
+            writeString(out, "ticket", response.getTicket());
+            writeString(out, "serverDate", response.getServerDate());
+            writeString(out, "applicationProvider", response.getApplicationProvider());
+            writeString(out, "mode", response.getMode());
+            out.endObject();
+        }
+
+        @Override
+        public ApiResponse<A> read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ApiResponse<A> response = new ApiResponse<>();
+            //Answer read before the status, which tells its type
+            JsonElement pendingAnswer = null;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "webService":
+                        response.webService = readString(in);
+                        break;
+                    case "version":
+                        response.version = readString(in);
+                        break;
+                    case "applicationVersion":
+                        response.applicationVersion = readString(in);
+                        break;
+                    case "status":
+                        response.status = readString(in);
+                        break;
+                    case "answer":
+                        if (ApiResponse.STATUS_ERROR.equals(response.status)) {
+                            response.error = errorAdapter.read(in);
+                        } else if (response.status != null) {
+                            response.answer = answerAdapter.read(in);
+                        } else {
+                            pendingAnswer = treeAdapter.read(in);
+                        }
+                        break;
+                    case "ticket":
+                        response.ticket = readString(in);
+                        break;
+                    case "serverDate":
+                        response.serverDate = readString(in);
+                        break;
+                    case "applicationProvider":
+                        response.applicationProvider = readString(in);
+                        break;
+                    case "mode":
+                        response.mode = readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (pendingAnswer != null) {
+                if (ApiResponse.STATUS_ERROR.equals(response.status)) {
+                    response.error = errorAdapter.fromJsonTree(pendingAnswer);
+                } else {
+                    response.answer = answerAdapter.fromJsonTree(pendingAnswer);
+                }
+            }
+            return response;
+        }
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+
+    private static void writeCustomer(Gson gson, JsonWriter out, Customer customer) throws IOException {
+        if (customer != null) {
+            gson.getAdapter(Customer.class).write(out.name("customer"), customer);
+        }
+    }
+
+    private static void writeMetadata(JsonWriter out, Map<String, String> metadata) throws IOException {
+        if (metadata != null && !metadata.isEmpty()) {
+            out.name("metadata").beginObject();
+            for (Map.Entry<String, String> entry : metadata.entrySet()) {
+                writeString(out, entry.getKey(), entry.getValue());
+            }
+            out.endObject();
+        }
+    }
+
+    //Parameters not defined by the model are written as they would be by a map
+    private static void writeAdditionalParameters(Gson gson, JsonWriter out, Map<String, Object> parameters) throws IOException {
+        if (parameters != null) {
+            for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+                if (entry.getValue() != null) {
+                    gson.toJson(entry.getValue(), entry.getValue().getClass(), out.name(entry.getKey()));
+                }
+            }
+        }
+    }
+
+    //Other scalar values are read as strings, as they would be by Gson
+    private static String readString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.lyra.rest.client.model;
+
+import lombok.Getter;
+
+/**
+ * Answer of the Charge/SDKTest resource.
+ *
+ * @author Lyra Network
+ */
+@Getter
+public class SdkTestAnswer {
+    String value;
+}
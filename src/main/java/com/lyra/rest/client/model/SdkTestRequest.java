@@ -0,0 +1,15 @@
+package com.lyra.rest.client.model;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * This bean class encapsulates the parameters of the Charge/SDKTest resource.
+ *
+ * @author Lyra Network
+ */
+@Builder
+@Getter
+public class SdkTestRequest implements ApiRequest<SdkTestAnswer> {
+    private String value;
+}
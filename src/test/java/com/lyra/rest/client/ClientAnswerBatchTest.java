@@ -0,0 +1,62 @@
+package com.lyra.rest.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+public class ClientAnswerBatchTest {
+    private static final ClientConfiguration CONFIGURATION = ClientConfiguration.builder()
+            .hashKey(ClientCryptUtilTest.HASH_KEY)
+            .build();
+
+    @Test
+    public void Should_ReportEachAnswer_When_VerifyingBatch() {
+        List<Map<String, Object>> answers = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 5000; i++) {
+            switch (i % 4) {
+                case 0:
+                    answers.add(answer(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE,
+                            ClientCryptUtil.ALGORITHM_HMAC_SHA256));
+                    expected.set(i);
+                    break;
+                case 1:
+                    answers.add(answer("CHANGE_" + ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE,
+                            ClientCryptUtil.ALGORITHM_HMAC_SHA256));
+                    break;
+                case 2:
+                    answers.add(answer(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE, "sha1"));
+                    break;
+                default:
+                    answers.add(i % 8 == 3 ? null : new HashMap<>());
+            }
+        }
+
+        Assert.assertEquals(expected, Client.verifyAnswers(answers, CONFIGURATION));
+        Assert.assertEquals(expected, Client.verifyAnswers(new LinkedList<>(answers), CONFIGURATION));
+    }
+
+    @Test
+    public void Should_ReturnEmptyResult_When_BatchIsEmpty() {
+        Assert.assertTrue(Client.verifyAnswers(new ArrayList<>(), CONFIGURATION).isEmpty());
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_HashKeyIsNotConfigured() {
+        Client.verifyAnswers(new ArrayList<>(), ClientConfiguration.builder().hashKey("").build());
+    }
+
+    private static Map<String, Object> answer(String answer, String hash, String algorithm) {
+        Map<String, Object> paymentAnswer = new HashMap<>();
+        paymentAnswer.put("kr-answer", answer);
+        paymentAnswer.put("kr-hash", hash);
+        paymentAnswer.put("kr-hash-algorithm", algorithm);
+        return paymentAnswer;
+    }
+}
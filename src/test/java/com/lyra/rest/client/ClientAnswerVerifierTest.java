@@ -0,0 +1,135 @@
+package com.lyra.rest.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.security.Provider;
+import java.security.Security;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public class ClientAnswerVerifierTest {
+
+    @Test
+    public void Should_CalculateSameHashAsCryptUtil_When_UsingVerifier() {
+        ClientAnswerVerifier verifier = new ClientAnswerVerifier(ClientCryptUtilTest.HASH_KEY);
+
+        Assert.assertEquals(ClientCryptUtilTest.REAL_SIGNATURE, verifier.calculateHash(ClientCryptUtilTest.REAL_ANSWER));
+        Assert.assertEquals(ClientCryptUtilTest.EMPTY_ANSWER_SIGNATURE, verifier.calculateHash(""));
+        Assert.assertTrue(verifier.verify(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE));
+        Assert.assertFalse(verifier.verify("CHANGE_" + ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE));
+    }
+
+    @Test
+    public void Should_CalculateSameHashAsCryptUtil_When_AnswerNeedsEncoding() {
+        ClientAnswerVerifier verifier = new ClientAnswerVerifier(ClientCryptUtilTest.HASH_KEY);
+        StringBuilder longAnswer = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            longAnswer.append("V4\\/Payment é€\uD83D\uDE00 ");
+        }
+        String[] answers = {"\\/\\\\/\\", "Ünïcödé € \uD83D\uDE00", "unpaired \uD83D surrogate \uDE00", longAnswer.toString()};
+
+        for (String answer : answers) {
+            Assert.assertEquals(answer, ClientCryptUtil.calculateHash(answer, ClientCryptUtilTest.HASH_KEY,
+                    ClientCryptUtil.ALGORITHM_HMAC_SHA256), verifier.calculateHash(answer));
+        }
+    }
+
+    @Test
+    public void Should_RefuseHash_When_HashIsMalformed() {
+        ClientAnswerVerifier verifier = new ClientAnswerVerifier(ClientCryptUtilTest.HASH_KEY);
+        String answer = ClientCryptUtilTest.REAL_ANSWER;
+
+        Assert.assertTrue(verifier.verify(answer, ClientCryptUtilTest.REAL_SIGNATURE.toUpperCase()));
+        Assert.assertFalse(verifier.verify(answer, null));
+        Assert.assertFalse(verifier.verify(answer, ""));
+        Assert.assertFalse(verifier.verify(answer, ClientCryptUtilTest.REAL_SIGNATURE.substring(2)));
+        Assert.assertFalse(verifier.verify(answer, "zz" + ClientCryptUtilTest.REAL_SIGNATURE.substring(2)));
+    }
+
+    @Test
+    public void Should_ReuseVerifier_When_SameKey() {
+        Map<ClientHashAlgorithm, Provider> providers = Collections.singletonMap(ClientHashAlgorithm.HMAC_SHA512,
+                Security.getProvider("SunJCE"));
+        ClientAnswerVerifier verifier = ClientAnswerVerifier.forKey("verifier-test-key", Collections.emptyMap());
+
+        Assert.assertSame(verifier, ClientAnswerVerifier.forKey("verifier-test-key", Collections.emptyMap()));
+        Assert.assertNotSame(verifier, ClientAnswerVerifier.forKey("another-verifier-test-key", Collections.emptyMap()));
+        Assert.assertNotSame(verifier, ClientAnswerVerifier.forKey("verifier-test-key", providers));
+        Assert.assertSame(ClientAnswerVerifier.forKey("verifier-test-key", providers),
+                ClientAnswerVerifier.forKey("verifier-test-key", providers));
+    }
+
+    @Test
+    public void Should_VerifyAnswers_When_CalledFromSeveralThreads() {
+        ClientAnswerVerifier verifier = new ClientAnswerVerifier(ClientCryptUtilTest.HASH_KEY);
+
+        long verified = IntStream.range(0, 2000).parallel()
+                .filter(i -> verifier.verify(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE))
+                .count();
+
+        Assert.assertEquals(2000, verified);
+    }
+
+    @Test
+    public void Should_ReuseMac_When_EachCallRunsOnNewThread() throws InterruptedException {
+        ClientAnswerVerifier verifier = new ClientAnswerVerifier(ClientCryptUtilTest.HASH_KEY);
+
+        for (int i = 0; i < 20; i++) {
+            Thread thread = new Thread(() -> Assert.assertTrue(
+                    verifier.verify(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE)));
+            thread.start();
+            thread.join();
+        }
+
+        Assert.assertEquals(1, verifier.pooledStates(ClientHashAlgorithm.HMAC_SHA256));
+    }
+
+    @Test
+    public void Should_VerifyAnswer_When_HashKeyIsConfigured() {
+        Map<String, Object> answer = new HashMap<>();
+        answer.put("kr-answer", ClientCryptUtilTest.REAL_ANSWER);
+        answer.put("kr-hash-algorithm", ClientCryptUtil.ALGORITHM_HMAC_SHA256);
+        answer.put("kr-hash", ClientCryptUtilTest.REAL_SIGNATURE);
+
+        Assert.assertTrue(Client.verifyAnswer(answer, ClientConfiguration.builder().hashKey(ClientCryptUtilTest.HASH_KEY).build()));
+        Assert.assertFalse(Client.verifyAnswer(answer, ClientConfiguration.builder().hashKey("anotherKey").build()));
+    }
+
+    @Test
+    public void Should_VerifyAnswer_When_UsingSha384OrSha512() {
+        Map<String, Object> answer = new HashMap<>();
+        answer.put("kr-answer", "The quick brown fox jumps over the lazy dog");
+        answer.put("kr-hash-algorithm", ClientCryptUtil.ALGORITHM_HMAC_SHA384);
+        answer.put("kr-hash", "d7f4727e2c0b39ae0f1e40cc96f60242d5b7801841cea6fc592c5d3e1ae50700582a96cf35e1e554995fe4e03381c237");
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .hashKey("key")
+                .hashAlgorithmProviders("sha512_hmac:SunJCE")
+                .build();
+
+        Assert.assertTrue(Client.verifyAnswer(answer, configuration));
+
+        answer.put("kr-hash-algorithm", ClientCryptUtil.ALGORITHM_HMAC_SHA512);
+        answer.put("kr-hash", "b42af09057bac1e2d41708e48a902e09b5ff7f12ab428a4fe86653c73dd248fb82f948a549f7b791a5b41915ee4d1ec3935357e4e2317250d0372afa2ebeeb3a");
+        Assert.assertTrue(Client.verifyAnswer(answer, configuration));
+        Assert.assertEquals(answer.get("kr-hash"), ClientCryptUtil.calculateHash((String) answer.get("kr-answer"), "key",
+                ClientCryptUtil.ALGORITHM_HMAC_SHA512));
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_ProviderIsUnknown() {
+        Client.resolveConfiguration(ClientConfiguration.builder().hashAlgorithmProviders("sha512_hmac:UnknownProvider").build());
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_KeyIsNull() {
+        new ClientAnswerVerifier(null).calculateHash(ClientCryptUtilTest.REAL_ANSWER);
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_KeyIsEmpty() {
+        new ClientAnswerVerifier("").calculateHash(ClientCryptUtilTest.REAL_ANSWER);
+    }
+}
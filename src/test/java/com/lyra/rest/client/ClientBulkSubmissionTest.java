@@ -0,0 +1,145 @@
+package com.lyra.rest.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClientBulkSubmissionTest {
+    private static final ClientConfiguration CONFIGURATION = ClientConfiguration.builder()
+            .username("username")
+            .password("password")
+            .restApiServerName("localhost")
+            .build();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private final AtomicInteger read = new AtomicInteger();
+    private volatile String failingRequest;
+
+    @Test
+    public void Should_ReturnResultsInOrder_When_Ordered() {
+        try (RestApiClient client = RestApiClient.builder().configuration(CONFIGURATION).transport(this::echo).build();
+             ClientBulkSubmission submission = client.postAll(ClientResource.CREATE_PAYMENT.toString(), requests(200), 8, true)) {
+            for (int i = 0; i < 200; i++) {
+                Assert.assertTrue(submission.hasNext());
+                Assert.assertTrue(read.get() - i <= 8);
+                ClientBulkResult result = submission.next();
+                Assert.assertEquals(i, result.getIndex());
+                Assert.assertTrue(result.isSuccess());
+                Assert.assertEquals("{\"amount\":" + i + "}", result.getResponse());
+            }
+            Assert.assertFalse(submission.hasNext());
+        }
+        Assert.assertTrue(maxInFlight.get() <= 8);
+        Assert.assertTrue(maxInFlight.get() > 1);
+    }
+
+    @Test
+    public void Should_ReturnResultsAsCallsEnd_When_Unordered() {
+        BitSet indexes = new BitSet();
+        try (RestApiClient client = RestApiClient.builder().configuration(CONFIGURATION).transport(this::echo).build();
+             ClientBulkSubmission submission = client.postAll(ClientResource.CREATE_PAYMENT.toString(), requests(200), 8, false)) {
+            //The first call is the slowest one
+            long first = submission.next().getIndex();
+            Assert.assertNotEquals(0, first);
+            indexes.set((int) first);
+            while (submission.hasNext()) {
+                Assert.assertTrue(submission.getInFlight() <= 8);
+                ClientBulkResult result = submission.next();
+                Assert.assertFalse(indexes.get((int) result.getIndex()));
+                indexes.set((int) result.getIndex());
+            }
+        }
+        Assert.assertEquals(200, indexes.cardinality());
+        Assert.assertTrue(maxInFlight.get() <= 8);
+    }
+
+    @Test
+    public void Should_ReturnFailure_When_CallFails() {
+        failingRequest = "{\"amount\":3}";
+        try (RestApiClient client = RestApiClient.builder().configuration(CONFIGURATION).transport(this::echo).build();
+             ClientBulkSubmission submission = client.postAll(ClientResource.CREATE_PAYMENT.toString(), requests(5), 2, true)) {
+            List<ClientBulkResult> results = new ArrayList<>();
+            submission.forEachRemaining(results::add);
+
+            Assert.assertEquals(5, results.size());
+            Assert.assertFalse(results.get(3).isSuccess());
+            Assert.assertNull(results.get(3).getResponse());
+            Assert.assertEquals(3, results.get(3).getParameters().get("amount"));
+            Assert.assertNotNull(results.get(3).getException());
+            Assert.assertTrue(results.get(4).isSuccess());
+        }
+    }
+
+    @Test
+    public void Should_StopReadingSource_When_Closed() {
+        try (RestApiClient client = RestApiClient.builder().configuration(CONFIGURATION).transport(this::echo).build()) {
+            ClientBulkSubmission submission = client.postAll(ClientResource.CREATE_PAYMENT.toString(), requests(200), 4, true);
+            submission.next();
+            submission.close();
+
+            int count = 1;
+            while (submission.hasNext()) {
+                submission.next();
+                count++;
+            }
+            Assert.assertEquals(5, count);
+            Assert.assertEquals(5, read.get());
+
+            try {
+                client.postAll(ClientResource.CREATE_PAYMENT.toString(), requests(1), 0, true);
+                Assert.fail("ClientException expected");
+            } catch (ClientException ce) {
+                Assert.assertEquals("Max calls in flight must be greater than 0", ce.getMessage());
+            }
+        }
+    }
+
+    //Answers with the request body, after a longer delay for the first request
+    private ClientResponse echo(ClientRequest request) throws IOException {
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            request.getBody().writeTo(body);
+            String content = body.toString("UTF-8");
+            if (content.equals(failingRequest)) {
+                throw new IOException("Connection reset");
+            }
+            Thread.sleep(content.equals("{\"amount\":0}") ? 100 : 2);
+            return new ClientResponse(200, new ByteArrayInputStream(body.toByteArray()));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ie);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private Iterator<Map<String, Object>> requests(int count) {
+        return new Iterator<Map<String, Object>>() {
+            @Override
+            public boolean hasNext() {
+                return read.get() < count;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("amount", read.getAndIncrement());
+                return parameters;
+            }
+        };
+    }
+}
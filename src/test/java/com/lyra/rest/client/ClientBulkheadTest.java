@@ -0,0 +1,84 @@
+package com.lyra.rest.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class ClientBulkheadTest {
+
+    @Test
+    public void Should_ReuseBulkhead_When_SameServerAndLimit() {
+        ClientBulkhead bulkhead = ClientBulkhead.forServer("bulkhead-test-server", 5);
+
+        Assert.assertSame(bulkhead, ClientBulkhead.forServer("bulkhead-test-server", 5));
+        Assert.assertNotSame(bulkhead, ClientBulkhead.forServer("bulkhead-test-server", 6));
+        Assert.assertNotSame(bulkhead, ClientBulkhead.forServer("another-bulkhead-test-server", 5));
+        //Another limit does not replace the bulkhead still used with the first one
+        Assert.assertSame(bulkhead, ClientBulkhead.forServer("bulkhead-test-server", 5));
+    }
+
+    @Test
+    public void Should_EvictLeastRecentlyUsedInstances_When_MaxIsReached() {
+        SharedInstances<Object> instances = new SharedInstances<>(10);
+        Object first = instances.get(SharedInstances.key("server", 0), Object::new);
+        for (int i = 1; i < 10; i++) {
+            instances.get(SharedInstances.key("server", i), Object::new);
+        }
+        Assert.assertSame(first, instances.get(SharedInstances.key("server", 0), Object::new));
+
+        instances.get(SharedInstances.key("server", 10), Object::new);
+        Assert.assertEquals(10, instances.size());
+        Assert.assertSame(first, instances.get(SharedInstances.key("server", 0), Object::new));
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_NoPermitBeforeTimeout() {
+        ClientBulkhead bulkhead = new ClientBulkhead(1);
+        bulkhead.acquire(10);
+        bulkhead.acquire(10);
+    }
+
+    @Test
+    public void Should_ReleasePermit_When_CallEnds() {
+        ClientBulkhead bulkhead = new ClientBulkhead(1);
+        bulkhead.acquire(10);
+        bulkhead.release();
+        bulkhead.acquire(10);
+        Assert.assertEquals(0, bulkhead.getAvailablePermits());
+    }
+
+    @Test
+    public void Should_LimitConcurrentCalls_When_MaxConcurrentRequestsIsSet() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (HttpStubServer server = new HttpStubServer().delay(50)) {
+            ClientConfiguration configuration = ClientConfiguration.builder()
+                    .restApiServerName(server.getServerName())
+                    .maxConcurrentRequests("2")
+                    .build();
+            ClientBulkhead bulkhead = ClientBulkhead.forServer(server.getServerName(), 2);
+
+            Map<String, Object> parameters = new HashMap<>();
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(Client.postAsync(ClientResource.SDK_TEST.toString(), parameters, configuration, executor));
+            }
+            for (CompletableFuture<String> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+
+            Assert.assertEquals(8, server.getRequestCount());
+            Assert.assertTrue(server.getMaxInFlight() <= 2);
+            Assert.assertEquals(2, bulkhead.getAvailablePermits());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+public class ClientCircuitBreakerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(2);
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_RejectCalls_When_ServerKeepsFailing() {
+        server.failNext(4, 500);
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .circuitBreakerFailureRatio("0.5")
+                .circuitBreakerWindowSize("4")
+                .build();
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration);
+                Assert.fail("ClientException expected");
+            } catch (ClientException ce) {
+                Assert.assertEquals(500, ce.getResponseCode());
+            }
+        }
+        try {
+            Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration);
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(0, ce.getResponseCode());
+            Assert.assertTrue(ce.getMessage().startsWith("Circuit breaker open for payment platform server "
+                    + server.getServerName() + " as 4 of the last 4 calls failed"));
+        }
+        Assert.assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_KeepBreakerClosed_When_ResponseHandlerFails() {
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .circuitBreakerFailureRatio("0.5")
+                .circuitBreakerWindowSize("2")
+                .build();
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                Client.postForStream(ClientResource.SDK_TEST.toString(), new HashMap<>(), body -> {
+                    throw new IllegalStateException("Unexpected response");
+                }, configuration);
+                Assert.fail("IllegalStateException expected");
+            } catch (IllegalStateException ise) {
+                Assert.assertEquals("Unexpected response", ise.getMessage());
+            }
+        }
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED,
+                Client.resolveConfiguration(configuration).getCircuitBreaker(server.getServerName()).getState());
+        Assert.assertEquals(4, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_OpenBreaker_When_FailureRatioIsReached() {
+        ClientCircuitBreaker breaker = new ClientCircuitBreaker("server", 0.5, 4, 60000, 0);
+
+        call(breaker, true, FAST);
+        call(breaker, false, FAST);
+        call(breaker, false, FAST);
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, false, FAST);
+        call(breaker, true, FAST);
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, true, FAST);
+        Assert.assertEquals(ClientCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void Should_CountSlowCallsAsFailures_When_ThresholdIsSet() {
+        ClientCircuitBreaker breaker = new ClientCircuitBreaker("server", 1, 2, 60000, 1000);
+
+        call(breaker, false, SLOW);
+        call(breaker, false, SLOW);
+
+        Assert.assertEquals(ClientCircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    public void Should_CloseBreaker_When_TrialCallsSucceed() throws Exception {
+        ClientCircuitBreaker breaker = new ClientCircuitBreaker("server", 1, 1, 10, 0);
+        call(breaker, true, FAST);
+        Thread.sleep(20);
+
+        long[] trials = new long[ClientCircuitBreaker.HALF_OPEN_CALLS];
+        for (int i = 0; i < trials.length; i++) {
+            trials[i] = breaker.acquire();
+        }
+        Assert.assertEquals(ClientCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        try {
+            breaker.acquire();
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertTrue(ce.getMessage().startsWith("Circuit breaker half-open"));
+        }
+
+        for (long trial : trials) {
+            breaker.onResult(trial, false, FAST);
+        }
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void Should_OpenBreakerAgain_When_TrialCallFails() throws Exception {
+        ClientCircuitBreaker breaker = new ClientCircuitBreaker("server", 1, 1, 10, 0);
+        call(breaker, true, FAST);
+        Thread.sleep(20);
+
+        call(breaker, true, FAST);
+
+        Assert.assertEquals(ClientCircuitBreaker.State.OPEN, breaker.getState());
+        try {
+            breaker.acquire();
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertTrue(ce.getMessage().contains("as a trial call failed"));
+        }
+    }
+
+    @Test
+    public void Should_IgnoreCallPermittedWhileClosed_When_BreakerIsHalfOpen() throws Exception {
+        ClientCircuitBreaker breaker = new ClientCircuitBreaker("server", 1, 1, 10, 0);
+        long closedCall = breaker.acquire();
+        call(breaker, true, FAST);
+        Thread.sleep(20);
+
+        long[] trials = new long[ClientCircuitBreaker.HALF_OPEN_CALLS];
+        for (int i = 0; i < trials.length; i++) {
+            trials[i] = breaker.acquire();
+        }
+        breaker.onResult(closedCall, false, FAST);
+        for (int i = 0; i < trials.length - 1; i++) {
+            breaker.onResult(trials[i], false, FAST);
+        }
+        Assert.assertEquals(ClientCircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(trials[trials.length - 1], false, FAST);
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.onResult(closedCall, true, FAST);
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void Should_AdaptLimit_When_CallsSucceedOrFail() {
+        ClientConcurrencyLimiter limiter = new ClientConcurrencyLimiter("server", 20, 1000);
+        Assert.assertEquals(10, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.onResult(true, FAST);
+        Assert.assertEquals(9, limiter.getLimit());
+        limiter.acquire();
+        limiter.onResult(false, SLOW);
+        Assert.assertEquals(8, limiter.getLimit());
+
+        //The limit only grows while it is used
+        limiter.acquire();
+        limiter.onResult(false, FAST);
+        Assert.assertEquals(8, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j < limiter.getLimit(); j++) {
+                limiter.acquire();
+            }
+            while (limiter.getInFlight() > 0) {
+                limiter.onResult(false, FAST);
+            }
+        }
+        Assert.assertEquals(20, limiter.getLimit());
+    }
+
+    @Test
+    public void Should_RejectCalls_When_AdaptiveLimitIsReached() {
+        ClientConcurrencyLimiter limiter = new ClientConcurrencyLimiter("server", 4, 0);
+        limiter.acquire();
+        limiter.acquire();
+        try {
+            limiter.acquire();
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertTrue(ce.getMessage().startsWith("Adaptive concurrency limit reached for payment platform server server"));
+        }
+
+        limiter.cancel();
+        limiter.acquire();
+        Assert.assertEquals(2, limiter.getInFlight());
+    }
+
+    private static void call(ClientCircuitBreaker breaker, boolean failed, long duration) {
+        breaker.onResult(breaker.acquire(), failed, duration);
+    }
+}
@@ -0,0 +1,151 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonObject;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class ClientCoalescerTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\"}";
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_ShareCall_When_IdenticalCallsAreInFlight() throws Exception {
+        server.delay(300);
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration("CREATE_PAYMENT", "0")).build()) {
+            List<CompletableFuture<String>> results = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                results.add(client.postAsync(ClientResource.CREATE_PAYMENT.toString(), parameters(i % 2 == 0)));
+            }
+            for (CompletableFuture<String> result : results) {
+                Assert.assertEquals(RESPONSE_OK, result.get());
+            }
+            Assert.assertEquals(1, server.getRequestCount());
+
+            //Without completion cache, the next identical call is performed
+            Assert.assertEquals("SUCCESS", client.postForObject(ClientResource.CREATE_PAYMENT.toString(), parameters(true),
+                    JsonObject.class).get("status").getAsString());
+            Assert.assertEquals(2, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void Should_ReturnCompletedResponse_When_LateDuplicate() {
+        ClientConfiguration configuration = configuration("CREATE_PAYMENT", "60000");
+        Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration));
+        Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(false), configuration));
+        Assert.assertEquals(1, server.getRequestCount());
+
+        //Other parameters, keys and resources are not identical
+        Map<String, Object> otherParameters = parameters(true);
+        otherParameters.put("amount", 200);
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), otherParameters, configuration);
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), "order-1", configuration);
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(false), "order-1", configuration);
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), otherParameters, "order-1", configuration);
+        Client.post(ClientResource.CREATE_TOKEN.toString(), parameters(true), configuration);
+        Client.post(ClientResource.CREATE_TOKEN.toString(), parameters(true), configuration);
+        Assert.assertEquals(5, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotShareResponse_When_CredentialsDiffer() {
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration("testpassword_1"));
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration("testpassword_1"));
+        Assert.assertEquals(1, server.getRequestCount());
+
+        //Same account with other credentials
+        Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration("testpassword_2"));
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotKeepResponse_When_CallFails() {
+        ClientConfiguration configuration = configuration("CREATE_PAYMENT", "60000");
+        server.failNext(1, 500);
+        try {
+            Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration);
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(500, ce.getResponseCode());
+        }
+        Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration));
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotKeepResponse_When_AnswerIsError() {
+        String responseError = "{\"answer\":{\"errorCode\":\"INT_905\"},\"status\":\"ERROR\"}";
+        ClientConfiguration configuration = configuration("CREATE_PAYMENT", "60000");
+        server.respond(200, responseError);
+        Assert.assertEquals(responseError, Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration));
+
+        server.respond(200, RESPONSE_OK);
+        Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration));
+        Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration));
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_ThrowClientException_When_CoalescedResourceIsUnknown() {
+        try {
+            Client.post(ClientResource.CREATE_PAYMENT.toString(), parameters(true), configuration("CREATE_PAYMENT,UNKNOWN", "0"));
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals("Invalid value for configuration parameter coalescedResources: CREATE_PAYMENT,UNKNOWN", ce.getMessage());
+        }
+    }
+
+    private ClientConfiguration configuration(String coalescedResources, String cacheDuration) {
+        return ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .coalescedResources(coalescedResources)
+                .coalescingCacheDuration(cacheDuration)
+                .build();
+    }
+
+    private ClientConfiguration configuration(String password) {
+        return ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .username("69876357")
+                .password(password)
+                .coalescedResources("CREATE_PAYMENT")
+                .coalescingCacheDuration("60000")
+                .build();
+    }
+
+    //Same parameters, set in a different order
+    private static Map<String, Object> parameters(boolean amountFirst) {
+        Map<String, Object> customer = new HashMap<>();
+        customer.put("email", "sample@example.com");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (amountFirst) {
+            parameters.put("amount", 100);
+        }
+        parameters.put("currency", "EUR");
+        parameters.put("customer", customer);
+        if (!amountFirst) {
+            parameters.put("amount", 100);
+        }
+        return parameters;
+    }
+}
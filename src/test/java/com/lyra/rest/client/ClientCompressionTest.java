@@ -0,0 +1,146 @@
+package com.lyra.rest.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ClientCompressionTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\",\"answer\":{\"formToken\":\"ABCDEFGHIJKLMNOPQRSTUVWXYZ\"}}";
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_DecompressResponse_When_ServerCompressesIt() {
+        for (String encoding : new String[]{"gzip", "deflate", "raw-deflate"}) {
+            server.compress(encoding);
+            for (ClientTransport transport : new ClientTransport[]{null, PooledClientTransport.builder().build()}) {
+                try (RestApiClient client = RestApiClient.builder().configuration(configuration().responseCompression("true").build())
+                        .transport(transport).build()) {
+                    Assert.assertEquals(encoding, RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+                }
+            }
+        }
+
+        for (HttpExchange exchange : server.getExchanges()) {
+            Assert.assertTrue(exchange.getRequestHeaders().getFirst("Accept-Encoding").contains("gzip"));
+            Assert.assertNotNull(exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        }
+    }
+
+    @Test
+    public void Should_DecompressResponse_When_TransportReportsContentEncoding() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(RESPONSE_OK.getBytes(StandardCharsets.UTF_8));
+        }
+        ClientTransport transport = request -> new ClientResponse(200,
+                new ByteArrayInputStream(compressed.toByteArray()), null, "gzip");
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration().responseCompression("true").build())
+                .transport(transport).build()) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+        }
+    }
+
+    @Test
+    public void Should_NotAcceptCompressedResponse_When_ResponseCompressionIsNotEnabled() {
+        server.compress("gzip");
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration().build()).build()) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+        }
+
+        HttpExchange exchange = server.getExchanges().get(0);
+        Assert.assertNull(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+        Assert.assertNull(exchange.getResponseHeaders().getFirst("Content-Encoding"));
+    }
+
+    @Test
+    public void Should_CompressRequest_When_GzipCompressionIsConfigured() {
+        for (RequestStreamingMode mode : RequestStreamingMode.values()) {
+            for (ClientTransport transport : new ClientTransport[]{null, PooledClientTransport.builder().build()}) {
+                try (RestApiClient client = RestApiClient.builder()
+                        .configuration(configuration().requestCompression("gzip").requestStreamingMode(mode.name()).build())
+                        .transport(transport).build()) {
+                    Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+                }
+            }
+        }
+
+        Assert.assertEquals(6, server.getRequestBodies().size());
+        for (String body : server.getRequestBodies()) {
+            Assert.assertEquals("{\"amount\":100}", body);
+        }
+        for (HttpExchange exchange : server.getExchanges()) {
+            Assert.assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        }
+    }
+
+    @Test
+    public void Should_WriteSameGzipContent_When_LengthIsComputedFirst() throws IOException {
+        Map<String, Object> parameters = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            parameters.put("key" + i, "value" + i);
+        }
+        GzipRequestBody streamed = new GzipRequestBody(new JsonRequestBody(Client.GSON, parameters));
+        GzipRequestBody buffered = new GzipRequestBody(new JsonRequestBody(Client.GSON, parameters));
+
+        ByteArrayOutputStream streamedBytes = new ByteArrayOutputStream();
+        streamed.writeTo(streamedBytes);
+        long length = buffered.getContentLength();
+        ByteArrayOutputStream bufferedBytes = new ByteArrayOutputStream();
+        buffered.writeTo(bufferedBytes);
+
+        Assert.assertArrayEquals(streamedBytes.toByteArray(), bufferedBytes.toByteArray());
+        Assert.assertEquals(length, bufferedBytes.size());
+        byte[] json = HttpStubServer.readAll(new GZIPInputStream(new ByteArrayInputStream(bufferedBytes.toByteArray())));
+        Assert.assertEquals(Client.GSON.toJson(parameters), new String(json, StandardCharsets.UTF_8));
+        Assert.assertTrue(length < json.length / 4);
+    }
+
+    @Test
+    public void Should_ThrowException_When_CompressionIsNotValid() {
+        for (ClientConfiguration configuration : new ClientConfiguration[]{configuration().requestCompression("brotli").build(),
+                configuration().responseCompression("yes").build()}) {
+            try (RestApiClient client = RestApiClient.builder().configuration(configuration).build()) {
+                client.post(ClientResource.SDK_TEST.toString(), parameters());
+                Assert.fail("ClientException expected");
+            } catch (ClientException ce) {
+                Assert.assertTrue(ce.getMessage().startsWith("Invalid value for configuration parameter"));
+            }
+        }
+    }
+
+    private ClientConfiguration.ClientConfigurationBuilder configuration() {
+        return ClientConfiguration.builder()
+                .username("user")
+                .password("password")
+                .restApiServerName(server.getServerName());
+    }
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", 100);
+        return parameters;
+    }
+}
@@ -0,0 +1,121 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ClientConfigurationSourceTest {
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer();
+    }
+
+    @After
+    public void stopServer() {
+        Client.setConfigurationSource(null);
+        server.close();
+    }
+
+    @Test
+    public void Should_UseNewDefaults_When_ConfigurationIsReloaded() {
+        AtomicReference<Properties> properties = new AtomicReference<>(properties("user1"));
+        Client.setConfigurationSource(properties::get);
+
+        try (RestApiClient client = RestApiClient.builder().build()) {
+            client.post(ClientResource.SDK_TEST.toString(), parameters());
+            ResolvedConfiguration resolved = Client.resolveConfiguration(null);
+            Client.reloadConfiguration();
+            Assert.assertSame(resolved, Client.resolveConfiguration(null));
+
+            properties.set(properties("user2"));
+            Client.reloadConfiguration();
+            client.post(ClientResource.SDK_TEST.toString(), parameters());
+            Client.post(ClientResource.SDK_TEST.toString(), parameters());
+            Assert.assertNotSame(resolved, Client.resolveConfiguration(null));
+            Assert.assertFalse(resolved.isCurrent());
+        }
+
+        Assert.assertEquals(authorization("user1"), server.getExchanges().get(0).getRequestHeaders().getFirst("Authorization"));
+        Assert.assertEquals(authorization("user2"), server.getExchanges().get(1).getRequestHeaders().getFirst("Authorization"));
+        Assert.assertEquals(authorization("user2"), server.getExchanges().get(2).getRequestHeaders().getFirst("Authorization"));
+    }
+
+    @Test
+    public void Should_KeepPreviousConfiguration_When_SourceCannotBeRead() {
+        Client.setConfigurationSource(() -> properties("user1"));
+        try {
+            Client.setConfigurationSource(() -> {
+                throw new IOException("Not readable");
+            });
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertTrue(ce.getCause() instanceof IOException);
+        }
+
+        Client.reloadConfiguration();
+        Assert.assertEquals("user1", Client.resolveConfiguration(null).getUsername());
+    }
+
+    @Test
+    public void Should_ReloadConfiguration_When_WatchedFileChanges() throws Exception {
+        Path directory = Files.createTempDirectory("configuration");
+        Path file = directory.resolve("api-client-configuration.properties");
+        write(file, "user1");
+
+        ClientConfigurationWatcher watcher = ClientConfigurationWatcher.watch(file);
+        try {
+            Assert.assertEquals("user1", Client.resolveConfiguration(null).getUsername());
+
+            write(file, "user2");
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!"user2".equals(Client.resolveConfiguration(null).getUsername()) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(20);
+            }
+            Assert.assertEquals("user2", Client.resolveConfiguration(null).getUsername());
+        } finally {
+            watcher.close();
+            Files.delete(file);
+            Files.delete(directory);
+        }
+    }
+
+    private Properties properties(String username) {
+        Properties properties = new Properties();
+        properties.setProperty(ClientConfiguration.CONFIGURATION_KEY_USERNAME, username);
+        properties.setProperty(ClientConfiguration.CONFIGURATION_KEY_PASSWORD, "password");
+        properties.setProperty(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME, server.getServerName());
+        return properties;
+    }
+
+    private void write(Path file, String username) throws IOException {
+        Path temporary = file.resolveSibling("configuration.tmp");
+        StringBuilder content = new StringBuilder();
+        properties(username).forEach((key, value) -> content.append(key).append('=').append(value).append('\n'));
+        Files.write(temporary, content.toString().getBytes(StandardCharsets.ISO_8859_1));
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static String authorization(String username) {
+        return "Basic " + Base64.getEncoder().encodeToString((username + ":password").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", 100);
+        return parameters;
+    }
+}
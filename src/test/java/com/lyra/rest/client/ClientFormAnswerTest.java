@@ -0,0 +1,92 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class ClientFormAnswerTest {
+    private static final ClientConfiguration CONFIGURATION = ClientConfiguration.builder()
+            .hashKey(ClientCryptUtilTest.HASH_KEY)
+            .build();
+
+    @Test
+    public void Should_VerifyFormAnswer_When_BodyIsRaw() throws Exception {
+        byte[] body = form(ClientCryptUtilTest.REAL_ANSWER, ClientCryptUtilTest.REAL_SIGNATURE).getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer direct = ByteBuffer.allocateDirect(body.length + 10);
+        direct.position(10);
+        direct.put(body);
+        direct.position(10);
+
+        ClientFormAnswer[] answers = {Client.verifyFormAnswer(body, CONFIGURATION), Client.verifyFormAnswer(direct, CONFIGURATION),
+                Client.verifyFormAnswer(new ByteArrayInputStream(body), CONFIGURATION)};
+        for (ClientFormAnswer answer : answers) {
+            Assert.assertTrue(answer.isValid());
+            Assert.assertEquals("PAID", answer.getAnswer(JsonObject.class).get("orderStatus").getAsString());
+        }
+        Assert.assertEquals(10, direct.position());
+
+        try (RestApiClient client = RestApiClient.builder().configuration(CONFIGURATION).build()) {
+            Assert.assertTrue(client.verifyFormAnswer(body).isValid());
+        }
+    }
+
+    @Test
+    public void Should_CalculateSameHashAsMapAnswer_When_AnswerNeedsEncoding() throws Exception {
+        StringBuilder longAnswer = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            longAnswer.append("V4\\/Payment é€😀 +&=% ");
+        }
+        String[] answers = {"\\/\\\\/\\", "\\", "", "Ünïcödé € 😀", "unpaired \uD83D surrogate \uDE00", longAnswer.toString()};
+
+        for (String answer : answers) {
+            String hash = ClientCryptUtil.calculateHash(answer, ClientCryptUtilTest.HASH_KEY, ClientCryptUtil.ALGORITHM_HMAC_SHA256);
+            Assert.assertTrue(answer, Client.verifyFormAnswer(form(answer, hash).getBytes(StandardCharsets.US_ASCII), CONFIGURATION).isValid());
+            Assert.assertFalse(answer, Client.verifyFormAnswer(form(answer + " ", hash).getBytes(StandardCharsets.US_ASCII), CONFIGURATION).isValid());
+        }
+
+        //Fields may be in any order
+        String body = "kr-answer=" + URLEncoder.encode(ClientCryptUtilTest.REAL_ANSWER, "UTF-8")
+                + "&kr-hash=" + ClientCryptUtilTest.REAL_SIGNATURE + "&kr-hash-algorithm=sha256_hmac";
+        Assert.assertTrue(Client.verifyFormAnswer(body.getBytes(StandardCharsets.US_ASCII), CONFIGURATION).isValid());
+    }
+
+    @Test
+    public void Should_RefuseAnswer_When_IntegrityIsNotValid() throws Exception {
+        ClientFormAnswer answer = Client.verifyFormAnswer(form(ClientCryptUtilTest.REAL_ANSWER, "0123")
+                .getBytes(StandardCharsets.US_ASCII), CONFIGURATION);
+
+        Assert.assertFalse(answer.isValid());
+        try {
+            answer.getAnswer(JsonObject.class);
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals("The integrity of the answer is not valid. It must not be used", ce.getMessage());
+        }
+    }
+
+    @Test
+    public void Should_ThrowClientException_When_FormIsNotValid() {
+        String[] bodies = {"kr-hash=00&kr-answer=%7B%7D", "kr-hash=00&kr-hash-algorithm=sha256_hmac&kr-answer=%7B%7",
+                "kr-hash=00&kr-hash-algorithm=sha256_hmac", "kr-hash=00&kr-hash-algorithm=md5&kr-answer=%7B%7D"};
+
+        for (String body : bodies) {
+            try {
+                Client.verifyFormAnswer(body.getBytes(StandardCharsets.US_ASCII), CONFIGURATION);
+                Assert.fail("ClientException expected for " + body);
+            } catch (ClientException ce) {
+                Assert.assertNotNull(ce.getMessage());
+            }
+        }
+    }
+
+    private static String form(String answer, String hash) throws UnsupportedEncodingException {
+        return "kr-hash=" + hash + "&kr-hash-algorithm=sha256_hmac&kr-hash-key=password&kr-answer-type=V4%2FPayment"
+                + "&kr-answer=" + URLEncoder.encode(answer, "UTF-8");
+    }
+}
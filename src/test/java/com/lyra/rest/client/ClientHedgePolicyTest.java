@@ -0,0 +1,197 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ClientHedgePolicyTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\"}";
+    private static final int WARM_UP_CALLS = 64;
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_ReturnHedgedResponse_When_FirstCallIsSlow() {
+        AtomicBoolean blockNext = new AtomicBoolean();
+        AtomicReference<ClientRequest> blocked = new AtomicReference<>();
+        ClientTransport transport = request -> {
+            if (blockNext.compareAndSet(true, false)) {
+                blocked.set(request);
+                return waitForCancel(request, new CountDownLatch(1));
+            }
+            return Client.DEFAULT_TRANSPORT.execute(request);
+        };
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration("SDK_TEST")).transport(transport).build()) {
+            warmUp(client);
+            blockNext.set(true);
+
+            long start = System.nanoTime();
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), new HashMap<>()));
+            Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        }
+        Assert.assertTrue(blocked.get().isCancelled());
+    }
+
+    @Test
+    public void Should_CancelHedgedCall_When_FirstCallAnswers() throws Exception {
+        AtomicInteger phase = new AtomicInteger();
+        CountDownLatch hedgeCancelled = new CountDownLatch(1);
+        ClientTransport transport = request -> {
+            if (phase.compareAndSet(1, 2)) {
+                sleep(500);
+            } else if (phase.compareAndSet(2, 3)) {
+                return waitForCancel(request, hedgeCancelled);
+            }
+            return Client.DEFAULT_TRANSPORT.execute(request);
+        };
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration("Charge/SDKTest")).transport(transport).build()) {
+            warmUp(client);
+            int requestCount = server.getRequestCount();
+            phase.set(1);
+
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), new HashMap<>()));
+            Assert.assertEquals(requestCount + 1, server.getRequestCount());
+        }
+        Assert.assertTrue(hedgeCancelled.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void Should_NotHedge_When_ResourceIsNotHedged() {
+        ClientHedgePolicy policy = ClientHedgePolicy.forServer(server.getServerName(),
+                EnumSet.of(ClientResource.SDK_TEST), 95, 0.05, 0);
+
+        Assert.assertTrue(policy.isHedged(ClientResource.SDK_TEST));
+        Assert.assertFalse(policy.isHedged(ClientResource.CREATE_PAYMENT));
+        Assert.assertFalse(policy.isHedged(null));
+    }
+
+    @Test
+    public void Should_ThrowClientException_When_HedgedResourceIsNotIdempotent() {
+        try {
+            Client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>(), configuration("SDK_TEST,CREATE_PAYMENT"));
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals("Invalid value for configuration parameter hedgedResources: SDK_TEST,CREATE_PAYMENT",
+                    ce.getMessage());
+        }
+        Assert.assertEquals(0, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotHedge_When_HedgeThreadsAreBusy() throws Exception {
+        ClientHedgePolicy policy = new ClientHedgePolicy(EnumSet.of(ClientResource.SDK_TEST), 50, 0.05, 1);
+        for (int i = 0; i < ClientHedgePolicy.LatencyWindow.MIN_RECORDS; i++) {
+            policy.call(ClientResource.SDK_TEST, ClientRequest.builder().build(), () -> null, request -> "fast");
+        }
+
+        AtomicInteger hedges = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Thread blocked = new Thread(() -> policy.call(ClientResource.SDK_TEST, ClientRequest.builder().build(), () -> {
+            hedges.incrementAndGet();
+            return ClientRequest.builder().build();
+        }, request -> {
+            await(release);
+            return "slow";
+        }));
+        blocked.start();
+        while (hedges.get() == 0) {
+            Thread.sleep(1);
+        }
+
+        Assert.assertEquals("late", policy.call(ClientResource.SDK_TEST, ClientRequest.builder().build(), () -> {
+            hedges.incrementAndGet();
+            return ClientRequest.builder().build();
+        }, request -> {
+            sleepQuietly(100);
+            return "late";
+        }));
+        Assert.assertEquals(1, hedges.get());
+        release.countDown();
+        blocked.join(5000);
+    }
+
+    @Test
+    public void Should_ComputePercentile_When_EnoughLatenciesAreRecorded() {
+        ClientHedgePolicy.LatencyWindow window = new ClientHedgePolicy.LatencyWindow(95);
+        for (int i = 1; i < ClientHedgePolicy.LatencyWindow.MIN_RECORDS; i++) {
+            window.record(i);
+        }
+        Assert.assertEquals(-1, window.getThreshold());
+
+        window.record(ClientHedgePolicy.LatencyWindow.MIN_RECORDS);
+        Assert.assertEquals(31, window.getThreshold());
+    }
+
+    private static void warmUp(RestApiClient client) {
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), new HashMap<>()));
+        }
+    }
+
+    private static ClientResponse waitForCancel(ClientRequest request, CountDownLatch cancelled) throws IOException {
+        request.onCancel(cancelled::countDown);
+        try {
+            if (cancelled.await(10, TimeUnit.SECONDS)) {
+                throw new IOException("Call aborted");
+            }
+        } catch (InterruptedException ie) {
+            throw new InterruptedIOException();
+        }
+        throw new IOException("Call not cancelled");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ie) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    private ClientConfiguration configuration(String hedgedResources) {
+        return ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .hedgedResources(hedgedResources)
+                .hedgeBudgetRatio("1")
+                .build();
+    }
+}
@@ -87,7 +87,7 @@ public class ClientIntegrationTest {
             PowerMockito.when(mockedUrlConnection.getResponseCode()).thenReturn(200);
 
             PowerMockito.doReturn(mockedURL)
-                    .when(Client.class, "getURLToConnect", Mockito.any(), Mockito.any());
+                    .when(Client.class, "getURLToConnect", Mockito.any());
             PowerMockito.doReturn(mockedUrlConnection)
                     .when(Client.class, "getConnection", Mockito.any(), Mockito.any());
             PowerMockito.doNothing().when(Client.class, "sendRequestPayload", Mockito.any(), Mockito.any());
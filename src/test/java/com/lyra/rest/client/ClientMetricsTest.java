@@ -0,0 +1,162 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ClientMetricsTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\"}";
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_RecordMetrics_When_CallsAreMade() {
+        ClientMetrics metrics = new ClientMetrics();
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration())
+                .transport(PooledClientTransport.builder().build())
+                .listener(metrics)
+                .build()) {
+            for (int i = 0; i < 10; i++) {
+                client.post(ClientResource.CREATE_PAYMENT.toString(), parameters());
+            }
+            server.respond(503, "unavailable");
+            try {
+                client.post(ClientResource.CREATE_PAYMENT.toString(), parameters());
+                Assert.fail("ClientException expected");
+            } catch (ClientException ce) {
+                Assert.assertEquals(503, ce.getResponseCode());
+            }
+        }
+
+        ClientMetrics.Resource resource = metrics.getResource(ClientResource.CREATE_PAYMENT.toString());
+        Assert.assertEquals(11, resource.getCalls());
+        Assert.assertEquals(1, resource.getFailures());
+        Assert.assertEquals(Long.valueOf(10), resource.getStatusCodeCounts().get(200));
+        Assert.assertEquals(Long.valueOf(1), resource.getStatusCodeCounts().get(503));
+        Assert.assertEquals(11 * "{\"amount\":100}".length(), resource.getRequestBytes());
+        Assert.assertEquals(10 * RESPONSE_OK.length() + "unavailable".length(), resource.getResponseBytes());
+        Assert.assertEquals(11, resource.getTotalTime().getCount());
+        Assert.assertEquals(11, resource.getFirstByteTime().getCount());
+        Assert.assertTrue(resource.getTotalTime().getMax() >= resource.getFirstByteTime().getMax());
+        Assert.assertEquals(1, metrics.getPoolStats().getLeased());
+        Assert.assertEquals(1, metrics.getMaxLeasedConnections());
+    }
+
+    @Test
+    public void Should_NotifyCallSteps_When_ListenerIsSet() {
+        List<ClientRequest> started = new CopyOnWriteArrayList<>();
+        List<ClientCallEvent> ended = new CopyOnWriteArrayList<>();
+        ClientListener listener = new ClientListener() {
+            @Override
+            public void onCallStart(ClientRequest request) {
+                started.add(request);
+            }
+
+            @Override
+            public void onCallEnd(ClientCallEvent event) {
+                ended.add(event);
+            }
+        };
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).listener(listener).build()) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+        }
+
+        Assert.assertEquals(1, started.size());
+        ClientCallEvent event = ended.get(0);
+        Assert.assertSame(started.get(0), event.getRequest());
+        Assert.assertEquals(ClientResource.SDK_TEST.toString(), event.getResource());
+        Assert.assertTrue(event.isSuccess());
+        Assert.assertNull(event.getException());
+        Assert.assertNull(event.getPoolStats());
+        Assert.assertTrue(event.getConnectTime() >= 0);
+        Assert.assertTrue(event.getConnectTime() <= event.getRequestSentTime());
+        Assert.assertTrue(event.getRequestSentTime() <= event.getFirstByteTime());
+        Assert.assertTrue(event.getFirstByteTime() <= event.getTotalTime());
+        Assert.assertEquals(RESPONSE_OK.getBytes(StandardCharsets.UTF_8).length, event.getResponseSize());
+    }
+
+    @Test
+    public void Should_RecordException_When_TransportFails() {
+        ClientMetrics metrics = new ClientMetrics();
+        ClientTransport transport = request -> {
+            throw new ConnectException("Connection refused");
+        };
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).transport(transport)
+                .listener(new ClientListener() {
+                    @Override
+                    public void onCallEnd(ClientCallEvent event) {
+                        throw new IllegalStateException("Ignored");
+                    }
+                }).build()) {
+            client.post(ClientResource.SDK_TEST.toString(), parameters());
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertTrue(ce.getCause() instanceof ConnectException);
+        }
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).transport(transport)
+                .listener(metrics).build()) {
+            client.post(ClientResource.SDK_TEST.toString(), parameters());
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            ClientMetrics.Resource resource = metrics.getResource(ClientResource.SDK_TEST.toString());
+            Assert.assertEquals(1, resource.getFailures());
+            Assert.assertEquals(Long.valueOf(1), resource.getExceptionCounts().get(ConnectException.class.getName()));
+            Assert.assertEquals(0, resource.getFirstByteTime().getCount());
+        }
+    }
+
+    @Test
+    public void Should_ComputePercentilesWithBoundedError_When_DurationsAreRecorded() {
+        ClientLatencyHistogram histogram = new ClientLatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        Assert.assertEquals(100000, histogram.getCount());
+        Assert.assertEquals(100000000, histogram.getMax());
+        Assert.assertEquals(50000500, histogram.getMean());
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long expected = (long) (percentile * 1000000);
+            long actual = histogram.getPercentile(percentile);
+            Assert.assertTrue(percentile + ": " + actual, actual >= expected && actual <= expected * 1.0625);
+        }
+        Assert.assertEquals(100000000, histogram.getPercentile(100));
+        Assert.assertEquals(0, new ClientLatencyHistogram().getPercentile(99));
+    }
+
+    private ClientConfiguration configuration() {
+        return ClientConfiguration.builder()
+                .username("user")
+                .password("password")
+                .restApiServerName(server.getServerName())
+                .build();
+    }
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", 100);
+        return parameters;
+    }
+}
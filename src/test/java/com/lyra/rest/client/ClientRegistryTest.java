@@ -0,0 +1,195 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClientRegistryTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\"}";
+
+    private HttpStubServer server;
+    private final Map<String, AtomicInteger> loads = new ConcurrentHashMap<>();
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_ReuseClientOfMerchant_When_CalledAgain() {
+        try (ClientRegistry registry = ClientRegistry.builder().configurationLoader(this::load)
+                .transport(PooledClientTransport.builder().build()).build()) {
+            RestApiClient client = registry.getClient("shop1");
+            Assert.assertSame(client, registry.getClient("shop1"));
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+            Assert.assertEquals(RESPONSE_OK, registry.getClient("shop2").post(ClientResource.SDK_TEST.toString(), parameters()));
+
+            Assert.assertEquals(2, registry.size());
+            Assert.assertEquals(1, loads.get("shop1").get());
+            Assert.assertNotNull(registry.getPoolStats());
+            try {
+                registry.getClient("unknown");
+                Assert.fail("ClientException expected");
+            } catch (ClientException ce) {
+                Assert.assertEquals("No configuration found for merchant unknown", ce.getMessage());
+            }
+
+            registry.invalidate("shop1");
+            Assert.assertNotSame(client, registry.getClient("shop1"));
+            Assert.assertEquals(2, loads.get("shop1").get());
+        }
+
+        Assert.assertEquals(authorization("shop1"), server.getExchanges().get(0).getRequestHeaders().getFirst("Authorization"));
+        Assert.assertEquals(authorization("shop2"), server.getExchanges().get(1).getRequestHeaders().getFirst("Authorization"));
+    }
+
+    @Test
+    public void Should_EvictLeastRecentlyUsedMerchants_When_MaxMerchantsIsReached() {
+        try (ClientRegistry registry = ClientRegistry.builder().configurationLoader(this::load).maxMerchants(10).build()) {
+            for (int i = 0; i < 10; i++) {
+                registry.getClient("shop" + i);
+            }
+            registry.getClient("shop0");
+            registry.getClient("shop10");
+
+            Assert.assertTrue(registry.size() <= 10);
+            registry.getClient("shop0");
+            registry.getClient("shop10");
+            Assert.assertEquals(1, loads.get("shop0").get());
+            Assert.assertEquals(1, loads.get("shop10").get());
+            registry.getClient("shop1");
+            Assert.assertEquals(2, loads.get("shop1").get());
+        }
+    }
+
+    @Test
+    public void Should_EvictIdleMerchants_When_IdleTimeoutIsReached() throws Exception {
+        try (ClientRegistry registry = ClientRegistry.builder().configurationLoader(this::load).idleTimeout(50).build()) {
+            registry.getClient("shop1");
+            Thread.sleep(100);
+            registry.getClient("shop2");
+
+            Assert.assertEquals(1, registry.size());
+            registry.getClient("shop1");
+            Assert.assertEquals(2, loads.get("shop1").get());
+        }
+    }
+
+    @Test
+    public void Should_LimitConcurrentCallsOfMerchant_When_QuotaIsReached() throws Exception {
+        server.delay(300);
+        try (ClientRegistry registry = ClientRegistry.builder().configurationLoader(this::load)
+                .transport(PooledClientTransport.builder().build()).maxConcurrentRequestsPerMerchant(1).build()) {
+            CompletableFuture<String> first = registry.getClient("shop1").postAsync(ClientResource.SDK_TEST.toString(), parameters());
+            while (server.getRequestCount() == 0) {
+                Thread.sleep(5);
+            }
+
+            try {
+                registry.getClient("shop1").post(ClientResource.SDK_TEST.toString(), parameters());
+                Assert.fail("ClientException expected");
+            } catch (ClientException ce) {
+                Assert.assertEquals("Too many concurrent calls for merchant shop1. Max allowed: 1", ce.getMessage());
+            }
+            Assert.assertEquals(RESPONSE_OK, registry.getClient("shop2").post(ClientResource.SDK_TEST.toString(), parameters()));
+            Assert.assertEquals(RESPONSE_OK, first.get());
+            Assert.assertEquals(RESPONSE_OK, registry.getClient("shop1").post(ClientResource.SDK_TEST.toString(), parameters()));
+        }
+    }
+
+    @Test
+    public void Should_KeepBreakerClosed_When_MerchantQuotaIsReached() throws Exception {
+        server.delay(300);
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .connectionTimeout("50")
+                .circuitBreakerFailureRatio("0.5")
+                .circuitBreakerWindowSize("2")
+                .build();
+        try (ClientRegistry registry = ClientRegistry.builder().configurationLoader(merchantId -> configuration)
+                .transport(PooledClientTransport.builder().build()).maxConcurrentRequestsPerMerchant(1).build()) {
+            CompletableFuture<String> first = registry.getClient("shop1").postAsync(ClientResource.SDK_TEST.toString(), parameters());
+            while (server.getRequestCount() == 0) {
+                Thread.sleep(5);
+            }
+
+            for (int i = 0; i < 4; i++) {
+                try {
+                    registry.getClient("shop1").post(ClientResource.SDK_TEST.toString(), parameters());
+                    Assert.fail("ClientException expected");
+                } catch (ClientException ce) {
+                    Assert.assertEquals("Too many concurrent calls for merchant shop1. Max allowed: 1", ce.getMessage());
+                }
+            }
+            Assert.assertEquals(ClientCircuitBreaker.State.CLOSED,
+                    Client.resolveConfiguration(configuration).getCircuitBreaker(server.getServerName()).getState());
+            Assert.assertEquals(RESPONSE_OK, registry.getClient("shop2").post(ClientResource.SDK_TEST.toString(), parameters()));
+            Assert.assertEquals(RESPONSE_OK, first.get());
+        }
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotHoldServerSlot_When_MerchantWaitsForQuota() throws Exception {
+        server.delay(300);
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .connectionTimeout("1000")
+                .maxConcurrentRequests("2")
+                .build();
+        try (ClientRegistry registry = ClientRegistry.builder().configurationLoader(merchantId -> configuration)
+                .transport(PooledClientTransport.builder().build()).maxConcurrentRequestsPerMerchant(1).build()) {
+            CompletableFuture<String> first = registry.getClient("shop1").postAsync(ClientResource.SDK_TEST.toString(), parameters());
+            while (server.getRequestCount() == 0) {
+                Thread.sleep(5);
+            }
+            CompletableFuture<String> second = registry.getClient("shop1").postAsync(ClientResource.SDK_TEST.toString(), parameters());
+            Thread.sleep(50);
+
+            //The second call of shop1 waits for its quota without taking the last slot of the server
+            Assert.assertFalse(second.isDone());
+            Assert.assertEquals(1, Client.resolveConfiguration(configuration).getBulkhead(server.getServerName()).getAvailablePermits());
+            Assert.assertEquals(RESPONSE_OK, registry.getClient("shop2").post(ClientResource.SDK_TEST.toString(), parameters()));
+            Assert.assertEquals(RESPONSE_OK, first.get());
+            Assert.assertEquals(RESPONSE_OK, second.get());
+        }
+        Assert.assertEquals(3, server.getRequestCount());
+    }
+
+    private ClientConfiguration load(String merchantId) {
+        if (!merchantId.startsWith("shop")) {
+            return null;
+        }
+        loads.computeIfAbsent(merchantId, key -> new AtomicInteger()).incrementAndGet();
+        return ClientConfiguration.builder()
+                .username(merchantId)
+                .password("password")
+                .restApiServerName(server.getServerName())
+                .connectionTimeout("100")
+                .build();
+    }
+
+    private static String authorization(String merchantId) {
+        return "Basic " + Base64.getEncoder().encodeToString((merchantId + ":password").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", 100);
+        return parameters;
+    }
+}
@@ -0,0 +1,162 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ClientRetryPolicyTest {
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer();
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_Retry_When_IdempotentResourceIsUnavailable() {
+        server.failNext(2, 503);
+
+        String response = Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration("3"));
+
+        Assert.assertEquals("{\"status\":\"SUCCESS\"}", response);
+        Assert.assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotRetry_When_NonIdempotentResourceIsUnavailable() {
+        server.failNext(1, 503);
+        try {
+            Client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>(), configuration("3"));
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(503, ce.getResponseCode());
+            Assert.assertEquals(1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void Should_NotRetry_When_MaxAttemptsIsExceededOrErrorIsNotTransient() {
+        server.failNext(3, 503);
+        try {
+            Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration("2"));
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(2, server.getRequestCount());
+        }
+
+        server.failNext(1, 500);
+        try {
+            Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration("2"));
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(500, ce.getResponseCode());
+            Assert.assertEquals(3, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void Should_RetryNonIdempotentResource_When_RequestWasNotSent() {
+        AtomicInteger connectionFailures = new AtomicInteger();
+        ClientTransport transport = request -> {
+            if (connectionFailures.incrementAndGet() <= 2) {
+                throw new ConnectException("Connection refused");
+            }
+            return Client.DEFAULT_TRANSPORT.execute(request);
+        };
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration("3")).transport(transport).build()) {
+            Assert.assertEquals("{\"status\":\"SUCCESS\"}", client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>()));
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_RetryNonIdempotentResource_When_CompressedFixedLengthRequestWasNotSent() {
+        AtomicInteger connectionFailures = new AtomicInteger();
+        ClientTransport transport = request -> {
+            //The length is computed before connecting, as HttpURLConnection does
+            request.getBody().getContentLength();
+            if (connectionFailures.incrementAndGet() <= 2) {
+                throw new ConnectException("Connection refused");
+            }
+            return Client.DEFAULT_TRANSPORT.execute(request);
+        };
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .maxAttempts("3")
+                .retryBackoff("1")
+                .retryMaxBackoff("5")
+                .requestCompression("GZIP")
+                .requestStreamingMode("FIXED_LENGTH")
+                .build();
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration).transport(transport).build()) {
+            Assert.assertEquals("{\"status\":\"SUCCESS\"}", client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>()));
+        }
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_NotRetryNonIdempotentResource_When_RequestWasSent() {
+        ClientTransport transport = request -> {
+            request.getBody().writeTo(new ByteArrayOutputStream());
+            throw new IOException("Connection reset");
+        };
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration("3")).transport(transport).build()) {
+            client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>());
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertTrue(ce.getCause() instanceof IOException);
+        }
+    }
+
+    @Test
+    public void Should_StopRetries_When_BudgetIsExhausted() {
+        ClientRetryBudget budget = new ClientRetryBudget(0.5);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(budget.tryWithdraw());
+        }
+        Assert.assertFalse(budget.tryWithdraw());
+
+        budget.deposit();
+        Assert.assertFalse(budget.tryWithdraw());
+        budget.deposit();
+        Assert.assertTrue(budget.tryWithdraw());
+    }
+
+    @Test
+    public void Should_WaitBoundedBackoff_When_Retrying() {
+        ClientRetryPolicy policy = new ClientRetryPolicy(10, 100, 1000, null);
+
+        for (int i = 0; i < 100; i++) {
+            long first = policy.getBackoff(1);
+            Assert.assertTrue(first >= 50 && first <= 100);
+            long third = policy.getBackoff(3);
+            Assert.assertTrue(third >= 200 && third <= 400);
+            long capped = policy.getBackoff(40);
+            Assert.assertTrue(capped >= 500 && capped <= 1000);
+        }
+    }
+
+    private ClientConfiguration configuration(String maxAttempts) {
+        return ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .maxAttempts(maxAttempts)
+                .retryBackoff("1")
+                .retryMaxBackoff("5")
+                .build();
+    }
+}
@@ -0,0 +1,246 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+public class ClientRouterTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\"}";
+
+    private HttpStubServer first;
+    private HttpStubServer second;
+
+    @Before
+    public void startServers() throws Exception {
+        first = new HttpStubServer().respond(200, RESPONSE_OK);
+        second = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServers() {
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void Should_SpreadCalls_When_SeveralEndpointsAreConfigured() {
+        ClientConfiguration configuration = configuration(first.getServerName() + ", " + second.getServerName(), "0");
+        for (int i = 0; i < 40; i++) {
+            Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration));
+        }
+
+        Assert.assertTrue(first.getRequestCount() > 0);
+        Assert.assertTrue(second.getRequestCount() > 0);
+        Assert.assertEquals(40, first.getRequestCount() + second.getRequestCount());
+    }
+
+    @Test
+    public void Should_PreferFastEndpoint_When_OtherOneIsSlow() {
+        first.delay(50);
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration(first.getServerName() + "," + second.getServerName(), "0"))
+                .transport(PooledClientTransport.builder().build()).build()) {
+            for (int i = 0; i < 40; i++) {
+                client.post(ClientResource.SDK_TEST.toString(), new HashMap<>());
+            }
+        }
+
+        Assert.assertTrue(first.getRequestCount() < 10);
+    }
+
+    @Test
+    public void Should_FailOver_When_EndpointCannotBeConnected() throws Exception {
+        String closedServer = "http://127.0.0.1:" + closedPort();
+        ClientConfiguration configuration = configuration(closedServer + "," + first.getServerName(), "0");
+
+        //Payments are not idempotent, but the closed endpoint has not received them
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>(), configuration));
+        }
+        Assert.assertEquals(5, first.getRequestCount());
+
+        ClientRouter router = Client.resolveConfiguration(configuration).getRouter();
+        Assert.assertFalse(router.isHealthy(closedServer));
+        Assert.assertTrue(router.isHealthy(first.getServerName()));
+
+        //The call fails once no endpoint can be connected to
+        try {
+            Client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>(),
+                    configuration(closedServer + ",http://127.0.0.1:" + closedPort(), "0"));
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals("Exception calling payment platform server", ce.getMessage());
+        }
+    }
+
+    @Test
+    public void Should_KeepHealthyEndpointBreakerClosed_When_OtherEndpointKeepsFailing() {
+        first.failNext(1000, 500);
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .username("username")
+                .password("password")
+                .restApiServerName(first.getServerName() + "," + second.getServerName())
+                .healthCheckInterval("0")
+                .circuitBreakerFailureRatio("0.5")
+                .circuitBreakerWindowSize("4")
+                .build();
+        ResolvedConfiguration resolved = Client.resolveConfiguration(configuration);
+
+        for (int i = 0; i < 200 && resolved.getCircuitBreaker(first.getServerName()).getState() != ClientCircuitBreaker.State.OPEN; i++) {
+            try {
+                Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration));
+            } catch (ClientException ce) {
+                Assert.assertEquals(500, ce.getResponseCode());
+            }
+        }
+        Assert.assertEquals(ClientCircuitBreaker.State.OPEN, resolved.getCircuitBreaker(first.getServerName()).getState());
+        Assert.assertEquals(ClientCircuitBreaker.State.CLOSED, resolved.getCircuitBreaker(second.getServerName()).getState());
+
+        //Calls rejected by the open breaker are sent to the healthy endpoint
+        for (int i = 0; i < 20; i++) {
+            Assert.assertEquals(RESPONSE_OK, Client.post(ClientResource.CREATE_PAYMENT.toString(), new HashMap<>(), configuration));
+        }
+        Assert.assertEquals(4, first.getRequestCount());
+    }
+
+    @Test
+    public void Should_KeepCheckingEndpoints_When_EvictedRouterIsStillUsed() {
+        ClientRouter router = ClientRouter.forServers("evicted", Collections.singletonList("http://127.0.0.1:1"), 60000, 100, true);
+        for (int i = 0; i < ClientRouter.MAX_ROUTERS; i++) {
+            ClientRouter.forServers("router" + i, Collections.singletonList("http://127.0.0.1:1"), 60000, 100, false);
+        }
+
+        Assert.assertFalse(router.getHealthCheck().isCancelled());
+    }
+
+    @Test
+    public void Should_StopHealthChecks_When_RouterIsNoLongerUsed() throws Exception {
+        ScheduledFuture<?> healthCheck = ClientRouter.forServers("unused", Collections.singletonList("http://127.0.0.1:1"),
+                20, 100, true).getHealthCheck();
+        for (int i = 0; i < ClientRouter.MAX_ROUTERS; i++) {
+            ClientRouter.forServers("other" + i, Collections.singletonList("http://127.0.0.1:1"), 60000, 100, false);
+        }
+
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!healthCheck.isCancelled() && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(healthCheck.isCancelled());
+    }
+
+    @Test
+    public void Should_CheckOtherEndpoints_When_EndpointDoesNotAnswer() throws Exception {
+        try (ServerSocket blackhole = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            //Connections beyond the accept queue are never established
+            List<Socket> queued = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Socket socket = new Socket();
+                queued.add(socket);
+                try {
+                    socket.connect(blackhole.getLocalSocketAddress(), 100);
+                } catch (IOException ioe) {
+                    //The queue is full
+                }
+            }
+            String silentServer = "http://127.0.0.1:" + blackhole.getLocalPort();
+            String closedServer = "http://127.0.0.1:" + closedPort();
+            ClientRouter silentRouter = Client.resolveConfiguration(healthCheckedConfiguration(silentServer + ","
+                    + first.getServerName())).getRouter();
+            ClientRouter closedRouter = Client.resolveConfiguration(healthCheckedConfiguration(closedServer + ","
+                    + second.getServerName())).getRouter();
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while ((silentRouter.isHealthy(silentServer) || closedRouter.isHealthy(closedServer))
+                    && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertFalse(closedRouter.isHealthy(closedServer));
+            //The endpoint stays ejected while its checks time out
+            for (int i = 0; i < 50; i++) {
+                Assert.assertFalse(silentRouter.isHealthy(silentServer));
+                Assert.assertTrue(silentRouter.isHealthy(first.getServerName()));
+                Thread.sleep(20);
+            }
+            for (Socket socket : queued) {
+                socket.close();
+            }
+        }
+    }
+
+    @Test
+    public void Should_EjectEndpoint_When_HealthCheckFails() throws Exception {
+        String closedServer = "http://127.0.0.1:" + closedPort();
+        ClientRouter router = Client.resolveConfiguration(configuration(closedServer + "," + first.getServerName(), "20")).getRouter();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (router.isHealthy(closedServer) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertFalse(router.isHealthy(closedServer));
+        Assert.assertTrue(router.isHealthy(first.getServerName()));
+        Assert.assertEquals(0, first.getRequestCount());
+    }
+
+    @Test
+    public void Should_ReturnCachedAddresses_When_TtlIsNotExpired() throws Exception {
+        ClientDnsCache cache = new ClientDnsCache(60000);
+        InetAddress[] addresses = cache.resolve("localhost");
+
+        Assert.assertTrue(addresses.length > 0);
+        Assert.assertArrayEquals(addresses, cache.resolve("localhost"));
+
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration(first.getServerName(), "0"))
+                .transport(PooledClientTransport.builder().dnsCacheTtl(60000).build()).build()) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), new HashMap<>()));
+        }
+    }
+
+    @Test
+    public void Should_RejectTtl_When_ShorterThanJvmCache() {
+        Assert.assertEquals(ClientDnsCache.DEFAULT_JVM_CACHE_TTL, ClientDnsCache.getJvmCacheTtl());
+        try {
+            PooledClientTransport.builder().dnsCacheTtl(ClientDnsCache.DEFAULT_JVM_CACHE_TTL - 1).build();
+            Assert.fail("Expected a rejected time to live");
+        } catch (IllegalArgumentException iae) {
+            Assert.assertTrue(iae.getMessage().contains("networkaddress.cache.ttl"));
+        }
+    }
+
+    private static ClientConfiguration configuration(String restApiServerName, String healthCheckInterval) {
+        return ClientConfiguration.builder()
+                .username("username")
+                .password("password")
+                .restApiServerName(restApiServerName)
+                .connectionTimeout("1000")
+                .healthCheckInterval(healthCheckInterval)
+                .build();
+    }
+
+    private static ClientConfiguration healthCheckedConfiguration(String restApiServerName) {
+        return ClientConfiguration.builder()
+                .username("username")
+                .password("password")
+                .restApiServerName(restApiServerName)
+                .connectionTimeout("45000")
+                .healthCheckInterval("100")
+                .build();
+    }
+
+    private static int closedPort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
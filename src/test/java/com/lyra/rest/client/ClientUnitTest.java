@@ -1,5 +1,6 @@
 package com.lyra.rest.client;
 
+import com.google.gson.JsonObject;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -9,7 +10,10 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 import org.powermock.reflect.Whitebox;
 
+import java.io.ByteArrayInputStream;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -52,6 +56,22 @@ public class ClientUnitTest {
         Assert.assertEquals(RESPONSE_STATUS_SUCCESS, jsonResponse.get("status"));
     }
 
+    @Test
+    public void Should_ParseResponse_When_CallPostForObject() throws Exception {
+        mockPreparePayment(HTTP_OK);
+        PowerMockito.doReturn(new ClientResponse(HTTP_OK, new ByteArrayInputStream(String.format(
+                "{\"status\":\"%s\",\"answer\":{\"formToken\":\"%s\"}}", RESPONSE_STATUS_SUCCESS, TEST_FORM_TOKEN)
+                .getBytes(StandardCharsets.UTF_8))))
+                .when(Client.class, "execute", Mockito.any());
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", TEST_AMOUNT);
+        JsonObject response = Client.postForObject(ClientResource.CREATE_PAYMENT.toString(), parameters, JsonObject.class);
+
+        Assert.assertEquals(RESPONSE_STATUS_SUCCESS, response.get("status").getAsString());
+        Assert.assertEquals(TEST_FORM_TOKEN, response.getAsJsonObject("answer").get("formToken").getAsString());
+    }
+
     @Test
     public void Should_ReadCondigurationFromFile_When_CallReadConfiguration() throws Exception {
         Properties configurationProperties =
@@ -94,7 +114,7 @@ public class ClientUnitTest {
         ClientConfiguration.ClientConfigurationBuilder configurationBuilder = ClientConfiguration.builder();
 
         Map<String, String> finalConfiguration = Whitebox.invokeMethod(
-                Client.class, "getFinalConfiguration", configurationBuilder.build());
+                Client.class, "getFinalConfiguration", configurationBuilder.build(), Client.getDefaultConfiguration());
         Assert.assertNotEquals(expectedUsername, finalConfiguration.get("username"));
         Assert.assertNotEquals(expectedPassword, finalConfiguration.get("password"));
         Assert.assertNotEquals(expectedProxyHost, finalConfiguration.get("proxyHost"));
@@ -117,7 +137,7 @@ public class ClientUnitTest {
                 .requestTimeout(expectedRequestTimeout)
                 .build();
         finalConfiguration = Whitebox.invokeMethod(
-                Client.class, "getFinalConfiguration", rightConfiguration);
+                Client.class, "getFinalConfiguration", rightConfiguration, Client.getDefaultConfiguration());
         Assert.assertEquals(expectedUsername, finalConfiguration.get("username"));
         Assert.assertEquals(expectedPassword, finalConfiguration.get("password"));
         Assert.assertEquals(expectedProxyHost, finalConfiguration.get("proxyHost"));
@@ -135,25 +155,61 @@ public class ClientUnitTest {
     @Test
     public void Should_GenerateUrl_WithGenerateChargeUrlMethod() throws Exception {
         String expected = "test/api-payment/" + Client.REST_API_VERSION + "/Charge/testResource";
-        Map<String, String> configuration = new HashMap<>();
         String resource = "";
 
-        configuration.put(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME, "toto");
         String wrongUrl = Whitebox.invokeMethod(Client.class, "generateChargeUrl",
-                resource, configuration);
+                resource, "toto");
         Assert.assertNotEquals(expected, wrongUrl);
 
         resource = "Charge/testResource";
         wrongUrl = Whitebox.invokeMethod(Client.class, "generateChargeUrl",
-                resource, configuration);
+                resource, "toto");
         Assert.assertNotEquals(expected, wrongUrl);
 
-        configuration.put(ClientConfiguration.CONFIGURATION_KEY_REST_API_SERVER_NAME, "test");
         String rightUrl = Whitebox.invokeMethod(Client.class, "generateChargeUrl",
-                resource, configuration);
+                resource, "test");
         Assert.assertEquals(expected, rightUrl);
     }
 
+    @Test
+    public void Should_ResolveConfigurationOnce_When_ConfigurationsAreEqual() {
+        ClientConfiguration configuration = ClientConfiguration.builder()
+                .username("resolvedUsername")
+                .password("resolvedPassword")
+                .restApiServerName("https://resolved.example.com")
+                .proxyHost("proxy.example.com")
+                .proxyPort("3128")
+                .connectionTimeout("1000")
+                .requestTimeout("2000")
+                .build();
+        ResolvedConfiguration resolved = Client.resolveConfiguration(configuration);
+
+        Assert.assertSame(resolved, Client.resolveConfiguration(ClientConfiguration.builder()
+                .username("resolvedUsername")
+                .password("resolvedPassword")
+                .restApiServerName("https://resolved.example.com")
+                .proxyHost("proxy.example.com")
+                .proxyPort("3128")
+                .connectionTimeout("1000")
+                .requestTimeout("2000")
+                .build()));
+        Assert.assertEquals(1000, resolved.getConnectionTimeout());
+        Assert.assertEquals(2000, resolved.getRequestTimeout());
+        InetSocketAddress proxyAddress = (InetSocketAddress) resolved.getProxy().address();
+        Assert.assertEquals("proxy.example.com", proxyAddress.getHostString());
+        Assert.assertEquals(3128, proxyAddress.getPort());
+        Assert.assertEquals("Basic cmVzb2x2ZWRVc2VybmFtZTpyZXNvbHZlZFBhc3N3b3Jk", resolved.getHeaders().get("Authorization"));
+        Assert.assertEquals("https://resolved.example.com/api-payment/V4/Charge/CreatePayment",
+                resolved.getUrl(ClientResource.CREATE_PAYMENT.toString()));
+        Assert.assertSame(resolved.getUrl(ClientResource.CREATE_PAYMENT.toString()),
+                resolved.getUrl(ClientResource.CREATE_PAYMENT.toString()));
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_ResolvingInvalidTimeout() {
+        Client.resolveConfiguration(ClientConfiguration.builder().connectionTimeout("invalid").build());
+    }
+
     @Test(expected = ClientException.class)
     public void Should_ThrowClientException_When_AlgorithmIsNotSupported() throws Exception {
         Map<String, Object> answer = new HashMap<>();
@@ -169,7 +225,7 @@ public class ClientUnitTest {
         HttpURLConnection mockHttpURLConnection = Mockito.mock(HttpURLConnection.class);
         PowerMockito.when(mockHttpURLConnection.getResponseCode()).thenReturn(responseCode);
         PowerMockito.doReturn(mockHttpURLConnection)
-                .when(Client.class, "createConnection", Mockito.any(), Mockito.any());
+                .when(Client.class, "createConnection", Mockito.any());
         PowerMockito.doNothing()
                 .when(Client.class, "sendRequestPayload", Mockito.any(), Mockito.any());
     }
@@ -0,0 +1,108 @@
+package com.lyra.rest.client;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks that calls performed from virtual threads do not pin their carrier threads. The JVM must be started with
+ * -Djdk.tracePinnedThreads, so that pinned threads are reported to the standard output. Skipped before JDK 21.
+ */
+public class ClientVirtualThreadTest {
+    private static final int CONCURRENT_CALLS = 500;
+
+    private Method startVirtualThread;
+
+    @Before
+    public void checkVirtualThreads() {
+        try {
+            startVirtualThread = Thread.class.getMethod("startVirtualThread", Runnable.class);
+        } catch (NoSuchMethodException nsme) {
+            startVirtualThread = null;
+        }
+        Assume.assumeNotNull(startVirtualThread, System.getProperty("jdk.tracePinnedThreads"));
+    }
+
+    @Test
+    public void Should_NotPinCarrierThreads_When_PostFromVirtualThreads() throws Exception {
+        try (HttpStubServer server = new HttpStubServer().delay(5)) {
+            ClientConfiguration configuration = configuration(server);
+
+            String pinnedThreads = postFromVirtualThreads(() ->
+                    Client.post(ClientResource.SDK_TEST.toString(), new HashMap<>(), configuration));
+
+            Assert.assertEquals("Pinned virtual threads detected", "", pinnedThreads);
+            Assert.assertEquals(CONCURRENT_CALLS + 1, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void Should_NotPinCarrierThreads_When_PostFromVirtualThreadsWithPooledTransport() throws Exception {
+        try (HttpStubServer server = new HttpStubServer().delay(5);
+             RestApiClient client = RestApiClient.builder()
+                     .configuration(configuration(server))
+                     .transport(PooledClientTransport.builder().build())
+                     .build()) {
+            Map<String, Object> parameters = new HashMap<>();
+
+            String pinnedThreads = postFromVirtualThreads(() -> client.post(ClientResource.SDK_TEST.toString(), parameters));
+
+            Assert.assertEquals("Pinned virtual threads detected", "", pinnedThreads);
+            Assert.assertEquals(CONCURRENT_CALLS + 1, server.getRequestCount());
+        }
+    }
+
+    private static ClientConfiguration configuration(HttpStubServer server) {
+        return ClientConfiguration.builder()
+                .restApiServerName(server.getServerName())
+                .maxConcurrentRequests("50")
+                .build();
+    }
+
+    /*
+    Performs the call once from the current thread, in order to initialize classes, and then from many virtual
+    threads. Returns the pinned threads traces.
+     */
+    private String postFromVirtualThreads(Runnable call) throws Exception {
+        call.run();
+
+        AtomicInteger failures = new AtomicInteger();
+        Runnable task = () -> {
+            try {
+                call.run();
+            } catch (ClientException ce) {
+                failures.incrementAndGet();
+            }
+        };
+
+        PrintStream standardOutput = System.out;
+        ByteArrayOutputStream pinnedThreads = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(pinnedThreads, true, StandardCharsets.UTF_8.name()));
+        try {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CALLS; i++) {
+                threads.add((Thread) startVirtualThread.invoke(null, task));
+            }
+            long deadline = System.currentTimeMillis() + 30000;
+            for (Thread thread : threads) {
+                thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            }
+        } finally {
+            System.setOut(standardOutput);
+        }
+
+        Assert.assertEquals(0, failures.get());
+        return pinnedThreads.toString(StandardCharsets.UTF_8.name());
+    }
+}
@@ -0,0 +1,77 @@
+package com.lyra.rest.client;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.UnknownHostException;
+import java.util.HashMap;
+
+public class ClientWarmUpTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\"}";
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_OpenPooledConnections_When_WarmedUp() {
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration(server.getServerName()))
+                .transport(PooledClientTransport.builder().maxConnectionsPerRoute(5).build()).build()) {
+            Assert.assertFalse(client.isReady());
+
+            ClientWarmUp warmUp = client.warmUp(3);
+            Assert.assertTrue(warmUp.isReady());
+            Assert.assertNull(warmUp.getException());
+            Assert.assertEquals(3, warmUp.getConnections());
+            Assert.assertEquals(3, client.getPoolStats().getAvailable());
+            Assert.assertTrue(client.isReady());
+            Assert.assertEquals(0, server.getRequestCount());
+
+            //The calls reuse the connections, which are counted again by the next warm-up
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), new HashMap<>()));
+            Assert.assertEquals(3, client.getPoolStats().getAvailable());
+            Assert.assertEquals(5, client.warmUp(10).getConnections());
+            Assert.assertEquals(5, client.getPoolStats().getAvailable());
+        }
+    }
+
+    @Test
+    public void Should_ReportFailure_When_ServerNameCannotBeResolved() {
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration("https://unknown-host.invalid")).build()) {
+            ClientWarmUp warmUp = client.warmUp(1);
+
+            Assert.assertFalse(warmUp.isReady());
+            Assert.assertTrue(warmUp.getException().getCause() instanceof UnknownHostException);
+            Assert.assertFalse(client.isReady());
+        }
+    }
+
+    @Test
+    public void Should_WarmUpStaticClient_When_ConfigurationIsValid() {
+        Assert.assertTrue(Client.warmUp(configuration(server.getServerName())).isReady());
+
+        ClientWarmUp warmUp = Client.warmUp(ClientConfiguration.builder().connectionTimeout("abc").build());
+        Assert.assertFalse(warmUp.isReady());
+        Assert.assertEquals("Invalid value for configuration parameter connectionTimeout: abc", warmUp.getException().getMessage());
+    }
+
+    private static ClientConfiguration configuration(String serverName) {
+        return ClientConfiguration.builder()
+                .username("username")
+                .password("password")
+                .hashKey(ClientCryptUtilTest.HASH_KEY)
+                .restApiServerName(serverName)
+                .connectionTimeout("1000")
+                .build();
+    }
+}
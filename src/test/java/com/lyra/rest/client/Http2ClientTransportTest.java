@@ -0,0 +1,253 @@
+package com.lyra.rest.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.impl.bootstrap.HttpAsyncServer;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.impl.nio.bootstrap.H2ServerBootstrap;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.ListenerEndpoint;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class Http2ClientTransportTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\",\"answer\":{\"formToken\":\"token\"}}";
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_FallBackToHttp11_When_ServerDoesNotSupportHttp2() {
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(ClientConfiguration.builder().restApiServerName(server.getServerName()).build())
+                .transport(Http2ClientTransport.builder().build())
+                .build()) {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.CREATE_PAYMENT.toString(), parameters()));
+            }
+
+            Assert.assertEquals(Http2ClientTransport.DEFAULT_MAX_CONNECTIONS_TOTAL, client.getPoolStats().getMax());
+        }
+
+        Assert.assertEquals(5, server.getRequestCount());
+        for (HttpExchange exchange : server.getExchanges()) {
+            Assert.assertEquals("HTTP/1.1", exchange.getProtocol());
+            Assert.assertEquals("/api-payment/V4/Charge/CreatePayment", exchange.getRequestURI().getPath());
+        }
+        for (String body : server.getRequestBodies()) {
+            Assert.assertEquals("{\"amount\":100}", body);
+        }
+    }
+
+    @Test
+    public void Should_CallServer_When_DnsCacheIsEnabled() {
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(ClientConfiguration.builder().restApiServerName(server.getServerName()).build())
+                .transport(Http2ClientTransport.builder().dnsCacheTtl(60000).build())
+                .build()) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.CREATE_PAYMENT.toString(), parameters()));
+        }
+    }
+
+    @Test
+    public void Should_StreamResponseBody_When_ServerIsStillSendingIt() throws Exception {
+        CountDownLatch firstPartRead = new CountDownLatch(1);
+        AtomicBoolean readBeforeEnd = new AtomicBoolean();
+        HttpServer streamingServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        streamingServer.createContext("/", exchange -> {
+            HttpStubServer.readAll(exchange.getRequestBody());
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write("first".getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                readBeforeEnd.set(firstPartRead.await(5, TimeUnit.SECONDS));
+                out.write("second".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        streamingServer.setExecutor(Executors.newCachedThreadPool());
+        streamingServer.start();
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(ClientConfiguration.builder()
+                        .restApiServerName("http://127.0.0.1:" + streamingServer.getAddress().getPort())
+                        .build())
+                .transport(Http2ClientTransport.builder().build())
+                .build()) {
+            String body = client.postForStream(ClientResource.SDK_TEST.toString(), parameters(), in -> {
+                String first = new String(readFully(in, 5), StandardCharsets.UTF_8);
+                firstPartRead.countDown();
+                return first + new String(HttpStubServer.readAll(in), StandardCharsets.UTF_8);
+            });
+
+            Assert.assertEquals("firstsecond", body);
+            Assert.assertTrue(readBeforeEnd.get());
+        } finally {
+            streamingServer.stop(0);
+        }
+    }
+
+    @Test
+    public void Should_SendCompressedRequestAndDecompressResponse_When_CompressionIsEnabled() {
+        server.compress("gzip");
+        for (RequestStreamingMode mode : RequestStreamingMode.values()) {
+            try (RestApiClient client = RestApiClient.builder()
+                    .configuration(ClientConfiguration.builder()
+                            .restApiServerName(server.getServerName())
+                            .requestCompression("gzip")
+                            .requestStreamingMode(mode.name())
+                            .responseCompression("true")
+                            .build())
+                    .transport(Http2ClientTransport.builder().build())
+                    .build()) {
+                Assert.assertEquals(mode.name(), RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+            }
+        }
+
+        for (String body : server.getRequestBodies()) {
+            Assert.assertEquals("{\"amount\":100}", body);
+        }
+        for (HttpExchange exchange : server.getExchanges()) {
+            Assert.assertEquals("gzip", exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            Assert.assertEquals("gzip", exchange.getResponseHeaders().getFirst("Content-Encoding"));
+        }
+    }
+
+    @Test
+    public void Should_MultiplexCalls_When_ServerSupportsHttp2() throws Exception {
+        List<ProtocolVersion> versions = new CopyOnWriteArrayList<>();
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        Set<SocketAddress> connections = ConcurrentHashMap.newKeySet();
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ScheduledExecutorService delays = Executors.newSingleThreadScheduledExecutor();
+        HttpAsyncServer h2Server = H2ServerBootstrap.bootstrap()
+                .setVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .setCanonicalHostName("127.0.0.1")
+                .register("*", new AsyncServerRequestHandler<Message<HttpRequest, byte[]>>() {
+                    @Override
+                    public AsyncRequestConsumer<Message<HttpRequest, byte[]>> prepare(HttpRequest request,
+                            EntityDetails entityDetails, HttpContext context) {
+                        return new BasicRequestConsumer<>(new BasicAsyncEntityConsumer());
+                    }
+
+                    @Override
+                    public void handle(Message<HttpRequest, byte[]> request, ResponseTrigger trigger, HttpContext context) {
+                        versions.add(request.getHead().getVersion());
+                        bodies.add(new String(request.getBody(), StandardCharsets.UTF_8));
+                        connections.add(HttpCoreContext.cast(context).getEndpointDetails().getRemoteAddress());
+                        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        //Responses are delayed so that the calls are in flight at the same time
+                        delays.schedule(() -> {
+                            inFlight.decrementAndGet();
+                            trigger.submitResponse(new BasicResponseProducer(200, RESPONSE_OK, ContentType.APPLICATION_JSON), context);
+                            return null;
+                        }, 200, TimeUnit.MILLISECONDS);
+                    }
+                })
+                .create();
+        h2Server.start();
+        try {
+            ListenerEndpoint endpoint = h2Server.listen(new InetSocketAddress("127.0.0.1", 0), URIScheme.HTTP).get();
+            int port = ((InetSocketAddress) endpoint.getAddress()).getPort();
+
+            try (RestApiClient client = RestApiClient.builder()
+                    .configuration(ClientConfiguration.builder().restApiServerName("http://127.0.0.1:" + port).build())
+                    .transport(Http2ClientTransport.builder().priorKnowledge(true).maxConnectionsPerRoute(1).build())
+                    .build()) {
+                //A first call opens the connection, that the next ones share
+                Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.SDK_TEST.toString(), parameters()));
+                //The connection is only shared once a call has leased it again, the calls leasing it before wait
+                List<CompletableFuture<String>> calls = new ArrayList<>();
+                calls.add(client.postAsync(ClientResource.SDK_TEST.toString(), parameters()));
+                while (inFlight.get() == 0) {
+                    Thread.sleep(1);
+                }
+                for (int i = 1; i < 10; i++) {
+                    calls.add(client.postAsync(ClientResource.SDK_TEST.toString(), parameters()));
+                }
+                for (CompletableFuture<String> call : calls) {
+                    Assert.assertEquals(RESPONSE_OK, call.get(10, TimeUnit.SECONDS));
+                }
+            }
+        } finally {
+            h2Server.close(CloseMode.IMMEDIATE);
+            delays.shutdownNow();
+        }
+
+        Assert.assertEquals(11, versions.size());
+        for (ProtocolVersion version : versions) {
+            Assert.assertEquals(HttpVersion.HTTP_2, version);
+        }
+        for (String body : bodies) {
+            Assert.assertEquals("{\"amount\":100}", body);
+        }
+        Assert.assertEquals(1, connections.size());
+        Assert.assertTrue(maxInFlight.get() > 1);
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = in.read(bytes, offset, length - offset);
+            if (read == -1) {
+                throw new IOException("Unexpected end of body");
+            }
+            offset += read;
+        }
+        return bytes;
+    }
+
+    private Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", 100);
+        return parameters;
+    }
+}
@@ -0,0 +1,169 @@
+package com.lyra.rest.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local HTTP server used to test the transports without calling the payment platform.
+ */
+class HttpStubServer implements AutoCloseable {
+    static {
+        //Responses are sent without waiting for the ack of the headers (Nagle's algorithm), as real servers do
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final List<String> requestBodies = new CopyOnWriteArrayList<>();
+    private final List<HttpExchange> exchanges = new CopyOnWriteArrayList<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private volatile int responseCode = 200;
+    private volatile String responseBody = "{\"status\":\"SUCCESS\"}";
+    private volatile long responseDelay;
+    private volatile boolean recording = true;
+    private volatile String responseEncoding;
+    private volatile int failureCode;
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    HttpStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    String getServerName() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    HttpStubServer respond(int code, String body) {
+        this.responseCode = code;
+        this.responseBody = body;
+        return this;
+    }
+
+    HttpStubServer delay(long millis) {
+        this.responseDelay = millis;
+        return this;
+    }
+
+    //Responses are compressed with gzip, deflate or raw-deflate (sent as deflate) if accepted by the client
+    HttpStubServer compress(String encoding) {
+        this.responseEncoding = encoding;
+        return this;
+    }
+
+    //The next requests get the provided error code
+    HttpStubServer failNext(int count, int code) {
+        this.failureCode = code;
+        this.failuresLeft.set(count);
+        return this;
+    }
+
+    //Benchmarks do not keep the exchanges, which would grow without bound
+    HttpStubServer recording(boolean recording) {
+        this.recording = recording;
+        return this;
+    }
+
+    int getRequestCount() {
+        return requestCount.get();
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    Set<Integer> getClientPorts() {
+        return clientPorts;
+    }
+
+    List<String> getRequestBodies() {
+        return requestBodies;
+    }
+
+    List<HttpExchange> getExchanges() {
+        return exchanges;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+        requestCount.incrementAndGet();
+        //Compressed request bodies are recorded decompressed
+        byte[] requestBody = readAll("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+                ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody());
+        if (recording) {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchanges.add(exchange);
+            requestBodies.add(new String(requestBody, StandardCharsets.UTF_8));
+        }
+
+        if (responseDelay > 0) {
+            try {
+                Thread.sleep(responseDelay);
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        //Not in flight anymore once the client can read the response
+        inFlight.decrementAndGet();
+
+        boolean failure = failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0;
+        byte[] body = (failure ? "error" : responseBody).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        String encoding = responseEncoding;
+        if (encoding != null && acceptEncoding != null && acceptEncoding.contains(encoding.replace("raw-", ""))) {
+            body = compress(body, encoding);
+            exchange.getResponseHeaders().set("Content-Encoding", encoding.replace("raw-", ""));
+        }
+        exchange.sendResponseHeaders(failure ? failureCode : responseCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] compress(byte[] body, String encoding) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream out = "gzip".equals(encoding) ? new GZIPOutputStream(compressed)
+                : new DeflaterOutputStream(compressed, new Deflater(Deflater.DEFAULT_COMPRESSION, "raw-deflate".equals(encoding)))) {
+            out.write(body);
+        }
+        return compressed.toByteArray();
+    }
+
+    static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
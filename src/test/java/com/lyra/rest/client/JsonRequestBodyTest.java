@@ -0,0 +1,70 @@
+package com.lyra.rest.client;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JsonRequestBodyTest {
+
+    @Test
+    public void Should_WriteSameJsonAsGson_When_WritingMap() throws Exception {
+        Map<String, Object> parameters = paymentParameters(50);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new JsonRequestBody(Client.GSON, parameters).writeTo(out);
+
+        Assert.assertEquals(Client.GSON.toJson(parameters), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void Should_ReturnUtf8Length_When_GettingContentLength() throws Exception {
+        Map<String, Object> parameters = paymentParameters(50);
+        JsonRequestBody body = new JsonRequestBody(Client.GSON, parameters);
+        byte[] expected = Client.GSON.toJson(parameters).getBytes(StandardCharsets.UTF_8);
+
+        Assert.assertEquals(expected.length, body.getContentLength());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        body.writeTo(out);
+        Assert.assertEquals(2 * expected.length, out.size());
+    }
+
+    @Test
+    public void Should_WriteNull_When_ContentIsNull() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new JsonRequestBody(Client.GSON, null).writeTo(out);
+
+        Assert.assertEquals("null", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    static Map<String, Object> paymentParameters(int cartItems) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("amount", 990);
+        parameters.put("currency", "EUR");
+        parameters.put("orderId", "myOrderId-<253795>");
+        Map<String, Object> customer = new HashMap<>();
+        customer.put("email", "sample@example.com");
+        customer.put("reference", "Ünïcödé €");
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = 0; i < cartItems; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productLabel", "Product " + i);
+            item.put("productAmount", 100 + i);
+            item.put("productQty", 1);
+            items.add(item);
+        }
+        Map<String, Object> shoppingCart = new HashMap<>();
+        shoppingCart.put("cartItemInfo", items);
+        customer.put("shoppingCart", shoppingCart);
+        parameters.put("customer", customer);
+        return parameters;
+    }
+}
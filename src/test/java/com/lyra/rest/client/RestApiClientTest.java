@@ -0,0 +1,230 @@
+package com.lyra.rest.client;
+
+import com.google.gson.JsonObject;
+import com.lyra.rest.client.model.ApiResponse;
+import com.lyra.rest.client.model.CreatePaymentRequest;
+import com.lyra.rest.client.model.FormTokenAnswer;
+import com.lyra.rest.client.model.SdkTestRequest;
+import com.sun.net.httpserver.Headers;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class RestApiClientTest {
+    private static final String RESPONSE_OK = "{\"status\":\"SUCCESS\",\"answer\":{\"formToken\":\"token\"}}";
+
+    private HttpStubServer server;
+
+    @Before
+    public void startServer() throws Exception {
+        server = new HttpStubServer().respond(200, RESPONSE_OK);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void Should_ReturnResponse_When_PostWithDefaultTransport() {
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).build()) {
+            Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.CREATE_PAYMENT.toString(), parameters()));
+            Assert.assertNull(client.getPoolStats());
+        }
+        Assert.assertEquals("{\"amount\":100}", server.getRequestBodies().get(0));
+        Assert.assertEquals("/api-payment/V4/Charge/CreatePayment", server.getExchanges().get(0).getRequestURI().getPath());
+    }
+
+    @Test
+    public void Should_ReuseConnection_When_PostWithPooledTransport() {
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration())
+                .transport(PooledClientTransport.builder().maxConnectionsPerRoute(2).build())
+                .build()) {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.CREATE_PAYMENT.toString(), parameters()));
+            }
+
+            Assert.assertEquals(10, server.getRequestCount());
+            Assert.assertEquals(1, server.getClientPorts().size());
+            ClientPoolStats stats = client.getPoolStats();
+            Assert.assertEquals(0, stats.getLeased());
+            Assert.assertEquals(1, stats.getAvailable());
+            Assert.assertEquals(PooledClientTransport.DEFAULT_MAX_CONNECTIONS_TOTAL, stats.getMax());
+        }
+    }
+
+    @Test
+    public void Should_SendAuthorizationHeader_When_PostWithPooledTransport() {
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration())
+                .transport(PooledClientTransport.builder().build())
+                .build()) {
+            client.post(ClientResource.CREATE_PAYMENT.toString(), parameters());
+        }
+        Assert.assertEquals("Basic dXNlcjpwYXNzd29yZA==",
+                server.getExchanges().get(0).getRequestHeaders().getFirst("Authorization"));
+    }
+
+    @Test
+    public void Should_ThrowClientException_When_PooledTransportReceivesError() {
+        server.respond(503, "unavailable");
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration())
+                .transport(PooledClientTransport.builder().build())
+                .build()) {
+            client.post(ClientResource.CREATE_PAYMENT.toString(), parameters());
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(503, ce.getResponseCode());
+            Assert.assertEquals("unavailable", ce.getResponseMessage());
+        }
+    }
+
+    @Test
+    public void Should_CompleteFutures_When_PostAsync() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration())
+                .transport(PooledClientTransport.builder().build())
+                .executor(executor)
+                .build()) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                futures.add(client.postAsync(ClientResource.CREATE_PAYMENT.toString(), parameters()));
+            }
+            for (CompletableFuture<String> future : futures) {
+                Assert.assertEquals(RESPONSE_OK, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertEquals(20, server.getRequestCount());
+    }
+
+    @Test
+    public void Should_CompleteExceptionally_When_PostAsyncReceivesError() throws Exception {
+        server.respond(500, "error");
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).build()) {
+            client.postAsync(ClientResource.CREATE_PAYMENT.toString(), parameters()).get(10, TimeUnit.SECONDS);
+            Assert.fail("ExecutionException expected");
+        } catch (ExecutionException ee) {
+            Assert.assertTrue(ee.getCause() instanceof ClientException);
+            Assert.assertEquals(500, ((ClientException) ee.getCause()).getResponseCode());
+        }
+    }
+
+    @Test
+    public void Should_ParseResponse_When_PostForObject() {
+        try (RestApiClient client = RestApiClient.builder()
+                .configuration(configuration())
+                .transport(PooledClientTransport.builder().build())
+                .build()) {
+            JsonObject response = client.postForObject(ClientResource.CREATE_PAYMENT.toString(), parameters(), JsonObject.class);
+
+            Assert.assertEquals("SUCCESS", response.get("status").getAsString());
+            Assert.assertEquals("token", response.getAsJsonObject("answer").get("formToken").getAsString());
+        }
+    }
+
+    @Test
+    public void Should_ReturnRawResponse_When_PostForBytesAndStream() {
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).build()) {
+            byte[] bytes = client.postForBytes(ClientResource.CREATE_PAYMENT.toString(), parameters());
+            Assert.assertEquals(RESPONSE_OK, new String(bytes, StandardCharsets.UTF_8));
+
+            int length = client.postForStream(ClientResource.CREATE_PAYMENT.toString(), parameters(),
+                    body -> HttpStubServer.readAll(body).length);
+            Assert.assertEquals(bytes.length, length);
+        }
+    }
+
+    @Test
+    public void Should_ThrowClientException_When_PostForObjectReceivesInvalidJson() {
+        server.respond(200, "{invalid");
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).build()) {
+            client.postForObject(ClientResource.CREATE_PAYMENT.toString(), parameters(), JsonObject.class);
+            Assert.fail("ClientException expected");
+        } catch (ClientException ce) {
+            Assert.assertEquals(0, ce.getResponseCode());
+        }
+    }
+
+    @Test
+    public void Should_ParseTypedResponse_When_PostTypedRequest() {
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).build()) {
+            ApiResponse<FormTokenAnswer> response = client.post(ClientResource.CREATE_PAYMENT,
+                    CreatePaymentRequest.builder().amount(100L).currency("EUR").build());
+
+            Assert.assertTrue(response.isSuccess());
+            Assert.assertEquals("token", response.getAnswer().getFormToken());
+            Assert.assertEquals("{\"amount\":100,\"currency\":\"EUR\"}", server.getRequestBodies().get(0));
+        }
+    }
+
+    @Test(expected = ClientException.class)
+    public void Should_ThrowClientException_When_RequestTypeDoesNotMatchResource() {
+        try (RestApiClient client = RestApiClient.builder().configuration(configuration()).build()) {
+            client.post(ClientResource.CREATE_PAYMENT, SdkTestRequest.builder().value("test").build());
+        }
+    }
+
+    @Test
+    public void Should_StreamBody_When_UsingStreamingModes() {
+        Map<String, Object> parameters = JsonRequestBodyTest.paymentParameters(100);
+        String expected = Client.GSON.toJson(parameters);
+
+        for (RequestStreamingMode mode : RequestStreamingMode.values()) {
+            for (boolean pooled : new boolean[]{false, true}) {
+                try (RestApiClient client = RestApiClient.builder()
+                        .configuration(configuration(mode))
+                        .transport(pooled ? PooledClientTransport.builder().build() : null)
+                        .build()) {
+                    Assert.assertEquals(RESPONSE_OK, client.post(ClientResource.CREATE_PAYMENT.toString(), parameters));
+                }
+
+                String description = mode + (pooled ? " pooled" : " default");
+                int last = server.getRequestCount() - 1;
+                Assert.assertEquals(description, expected, server.getRequestBodies().get(last));
+                Headers headers = server.getExchanges().get(last).getRequestHeaders();
+                if (mode == RequestStreamingMode.CHUNKED) {
+                    Assert.assertEquals(description, "chunked", headers.getFirst("Transfer-Encoding"));
+                } else {
+                    Assert.assertEquals(description, String.valueOf(expected.getBytes(StandardCharsets.UTF_8).length),
+                            headers.getFirst("Content-Length"));
+                }
+            }
+        }
+    }
+
+    private ClientConfiguration configuration() {
+        return configuration(RequestStreamingMode.BUFFERED);
+    }
+
+    private ClientConfiguration configuration(RequestStreamingMode mode) {
+        return ClientConfiguration.builder()
+                .username("user")
+                .password("password")
+                .restApiServerName(server.getServerName())
+                .requestStreamingMode(mode.name())
+                .build();
+    }
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("amount", 100);
+        return parameters;
+    }
+}
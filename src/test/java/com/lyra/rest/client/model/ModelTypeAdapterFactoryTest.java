@@ -0,0 +1,81 @@
+package com.lyra.rest.client.model;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class ModelTypeAdapterFactoryTest {
+    private static final Gson GSON = new GsonBuilder().registerTypeAdapterFactory(new ModelTypeAdapterFactory()).create();
+    private static final Type FORM_TOKEN_RESPONSE = new TypeToken<ApiResponse<FormTokenAnswer>>() {
+    }.getType();
+
+    @Test
+    public void Should_WriteSameJsonAsMap_When_WritingTypedRequest() {
+        Map<String, Object> additionalParameters = new LinkedHashMap<>();
+        additionalParameters.put("contrib", "sdk");
+        additionalParameters.put("transactionOptions", Collections.singletonMap("cardOptions", "SINGLE"));
+        CreatePaymentRequest request = CreatePaymentRequest.builder()
+                .amount(990L)
+                .currency("EUR")
+                .orderId("myOrderId-<253795>")
+                .customer(Customer.builder().email("sample@example.com").reference("Ünïcödé €").build())
+                .metadata(Collections.singletonMap("key", "value"))
+                .additionalParameters(additionalParameters)
+                .build();
+
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("email", "sample@example.com");
+        customer.put("reference", "Ünïcödé €");
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("amount", 990L);
+        parameters.put("currency", "EUR");
+        parameters.put("orderId", "myOrderId-<253795>");
+        parameters.put("customer", customer);
+        parameters.put("metadata", Collections.singletonMap("key", "value"));
+        parameters.putAll(additionalParameters);
+
+        Assert.assertEquals(GSON.toJson(parameters), GSON.toJson(request));
+    }
+
+    @Test
+    public void Should_ReadAnswer_When_StatusIsSuccess() {
+        ApiResponse<FormTokenAnswer> response = GSON.fromJson("{\"webService\":\"Charge/CreatePayment\","
+                + "\"version\":\"V4\",\"status\":\"SUCCESS\",\"answer\":{\"formToken\":\"token\",\"_type\":\"V4/Charge/FormToken\"},"
+                + "\"ticket\":null,\"serverDate\":\"2019-11-04T10:01:53+00:00\",\"unknown\":[1,2]}", FORM_TOKEN_RESPONSE);
+
+        Assert.assertTrue(response.isSuccess());
+        Assert.assertEquals("token", response.getAnswer().getFormToken());
+        Assert.assertNull(response.getError());
+        Assert.assertNull(response.getTicket());
+        Assert.assertEquals("2019-11-04T10:01:53+00:00", response.getServerDate());
+    }
+
+    @Test
+    public void Should_ReadError_When_StatusIsError() {
+        ApiResponse<FormTokenAnswer> response = GSON.fromJson("{\"status\":\"ERROR\",\"answer\":{\"errorCode\":\"INT_902\","
+                + "\"errorMessage\":\"web-service input data validation error\",\"detailedErrorCode\":null}}", FORM_TOKEN_RESPONSE);
+
+        Assert.assertFalse(response.isSuccess());
+        Assert.assertNull(response.getAnswer());
+        Assert.assertEquals("INT_902", response.getError().getErrorCode());
+        Assert.assertEquals("web-service input data validation error", response.getError().getErrorMessage());
+    }
+
+    @Test
+    public void Should_ReadAnswer_When_AnswerPrecedesStatus() {
+        ApiResponse<FormTokenAnswer> success = GSON.fromJson(
+                "{\"answer\":{\"formToken\":\"token\"},\"status\":\"SUCCESS\"}", FORM_TOKEN_RESPONSE);
+        ApiResponse<FormTokenAnswer> error = GSON.fromJson(
+                "{\"answer\":{\"errorCode\":\"INT_902\"},\"status\":\"ERROR\"}", FORM_TOKEN_RESPONSE);
+
+        Assert.assertEquals("token", success.getAnswer().getFormToken());
+        Assert.assertEquals("INT_902", error.getError().getErrorCode());
+    }
+}